@@ -1,14 +1,34 @@
 package edu.ncsu.csc216.product_backlog.model.backlog;
 
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 
 
 import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.io.ProductSection;
+import edu.ncsu.csc216.product_backlog.model.io.ProductsBinaryReader;
+import edu.ncsu.csc216.product_backlog.model.io.ProductsBinaryWriter;
+import edu.ncsu.csc216.product_backlog.model.io.ProductsDirectory;
+import edu.ncsu.csc216.product_backlog.model.io.ProductsJournal;
+import edu.ncsu.csc216.product_backlog.model.io.ProductsMerger;
+import edu.ncsu.csc216.product_backlog.model.io.ProductsMerger.ConflictPolicy;
 import edu.ncsu.csc216.product_backlog.model.io.ProductsReader;
 import edu.ncsu.csc216.product_backlog.model.io.ProductsWriter;
+import edu.ncsu.csc216.product_backlog.model.io.SessionSnapshot;
 import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.product.TaskStore;
 import edu.ncsu.csc216.product_backlog.model.task.Task;
 import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
 
@@ -17,6 +37,7 @@ import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
  * In this class this is where the user will do most of the interacting.
  * Users can add, edit, and delete products as well as tasks. They can also completely clear the list of products or reset the manager if there are issues. 
  * Users can also load files with products and task and also save their backlog to a file.
+ * The manager is used from a single thread, except that files saved with saveToFileAsync are written in the background.
  * @author Daniel Avisse
  *
  */
@@ -25,18 +46,85 @@ public class BacklogManager {
 	/** ArrayList that contains different products **/
 	private ArrayList<Product> products;
 	
+	/** Each product name and the last product in products with that name, kept up to date with products **/
+	private HashMap<String, Product> productIndex;
+	
 	/** Product that will be used for editing of tasks as well as the product's name **/
 	private Product currentProduct;
 	
 	/** Single instance of the backlogManager **/
 	private static BacklogManager backLogMangerInstance;
 	
+	/** Name of the file that the products were last loaded from or saved to, or null if there is no such file **/
+	private String sectionFileName;
+	
+	/** Products whose tasks have not been read yet and the section of the file where their tasks are **/
+	private HashMap<Product, ProductSection> unloadedProducts;
+	
+	/** Products whose tasks have been read and the section of the file they can be copied from if they have not changed **/
+	private HashMap<Product, ProductSection> savedSections;
+	
+	/** Journal that records every change to the products, or null if no journal is open **/
+	private ProductsJournal journal;
+	
+	/** Number of journal records that are written before the journal is flushed, which is also the most changes lost if the program stops **/
+	private static final int JOURNAL_BATCH_SIZE = 32;
+	
+	/** Number of journal records after which the journal is compacted into a new snapshot **/
+	private static final int JOURNAL_COMPACTION_THRESHOLD = 1000;
+	
+	/** Executor that writes the files of saveToFileAsync one at a time on a background thread **/
+	private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Product Backlog Save");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/** Lock held while a saved file replaces the old one, while the file of the sections is read, and while saves are queued or finished **/
+	private final Object fileLock = new Object();
+	
+	/** Last save that has not started yet, whose snapshot is replaced by a newer save to the same file instead of waiting behind it **/
+	private PendingSave pendingSave;
+	
+	/** Saves that finished in the background whose new sections have not been given to the products yet **/
+	private ArrayList<PendingSave> completedSaves;
+	
+	/** Number of times the products have been replaced, so that a save of products that are no longer loaded is not applied **/
+	private int generation;
+	
+	/** Name of the directory that the products were last loaded from or saved to with one shard for each product, or null if there is no such directory **/
+	private String shardDirectoryName;
+	
+	/** Products and the shard of the directory that holds them **/
+	private HashMap<Product, String> shards;
+	
+	/** Products and their modification count when their shard was read or written, so a product that changed since then is written again **/
+	private HashMap<Product, Integer> shardModCounts;
+	
+	/** Name of the file or directory the products were last loaded from or saved to, or null if there is no such file **/
+	private String sourceFileName;
+	
+	/** Number of changes made to the products **/
+	private int changes;
+	
+	/** Value of changes when the products were last loaded or saved, so the products have unsaved changes if they differ **/
+	private int savedChanges;
+	
+	/** True if files are read with the cache of ProductsReader, so products that did not change are not parsed again when a file is reloaded **/
+	private boolean sectionCacheEnabled;
+	
 	/**
 	 * Constructor that creates a new BacklogManger. 
 	 */
 	private BacklogManager() {
 		products = new ArrayList<Product>();
+		productIndex = new HashMap<String, Product>();
 		currentProduct = null;
+		unloadedProducts = new HashMap<Product, ProductSection>();
+		savedSections = new HashMap<Product, ProductSection>();
+		completedSaves = new ArrayList<PendingSave>();
+		shards = new HashMap<Product, String>();
+		shardModCounts = new HashMap<Product, Integer>();
 	}
 	
 	/**
@@ -52,13 +140,191 @@ public class BacklogManager {
 	
 	/**
 	 * Uses the ProductsWriter class to output the ProductBacklog to a new file.
+	 * Products that have not changed since the file was loaded or last saved, including products loaded with loadFromFileLazily
+	 * that have not been read yet, are copied from that file instead of being written again.
+	 * The file is written the same way as saveToFileAsync, but this method waits for it and any earlier saves to finish.
+	 * A file whose name ends with ProductsWriter.COMPRESSED_EXTENSION is gzip compressed.
+	 * If a journal is open the records that have not been written to it yet are flushed first.
 	 * @param filename Name of the file
 	 * @throws IllegalArgumentException if unable to output to a new file
 	 */
 	public void saveToFile(String filename) {
+		flushJournal();
+		try {
+			saveToFileAsync(filename).join();
+		}
+		catch (CompletionException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		synchronized (fileLock) {
+			applyCompletedSaves();
+		}
+	}
+	
+	/**
+	 * Saves the ProductBacklog to a new file on a background thread so the caller does not wait for the file to be written.
+	 * A snapshot of the products is taken before this method returns, so the products can be changed while the file is written.
+	 * Only the products that are copied from the previous file cost nothing to snapshot, the others are copied with Product.snapshot.
+	 * Saves are written one at a time. A save to the same file as a save that has not started yet replaces it and both return the same future.
+	 * @param filename Name of the file
+	 * @return future that completes when the file has been written, or completes with an IllegalArgumentException if it could not be
+	 * @throws IllegalArgumentException if a product that has not been read yet can no longer be read from its file
+	 */
+	public CompletableFuture<Void> saveToFileAsync(String filename) {
+		if (products.isEmpty() || getTasksAsArray().length == 0) {
+			CompletableFuture<Void> failed = new CompletableFuture<Void>();
+			failed.completeExceptionally(new IllegalArgumentException("Unable to save file."));
+			return failed;
+		}
+		synchronized (fileLock) {
+			applyCompletedSaves();
+			PendingSave save = new PendingSave(filename);
+			takeSnapshot(save);
+			if (pendingSave != null && filename.equals(pendingSave.filename)) {
+				closeQuietly(pendingSave.previousFile);
+				pendingSave.replaceSnapshot(save);
+				return pendingSave.future;
+			}
+			save.future = new CompletableFuture<Void>();
+			pendingSave = save;
+			SAVE_EXECUTOR.execute(() -> runSave(save));
+			return save.future;
+		}
+	}
+	
+	/**
+	 * Copies the products into a save so that they can be written while the products change.
+	 * Products that have not changed and have a section in the last file are copied as a product with only a name that is mapped to its section,
+	 * and the other products are copied with Product.snapshot, which shares the notes of the tasks with the copy until they change,
+	 * so the work done on the event thread is one small copy for each task of a changed product.
+	 * The previous file is opened now so the sections are read from it even if another save replaces it first.
+	 * @param save Save that the snapshot is added to
+	 * @throws IllegalArgumentException if a product that has not been read yet can no longer be read from its file
+	 */
+	private void takeSnapshot(PendingSave save) {
+		try {
+			save.previousFile = ProductsWriter.openPreviousFile(sectionFileName);
+		}
+		catch (IOException e) {
+			save.previousFile = null;
+		}
+		save.generation = generation;
+		save.changes = changes;
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			ProductSection section = unloadedProducts.containsKey(product) ? unloadedProducts.get(product) : savedSections.get(product);
+			Product copy;
+			if (save.previousFile != null && section != null && !product.isDirty()) {
+				copy = new Product(product.getProductName());
+				copy.markClean();
+				save.previousSections.put(copy, section);
+			}
+			else if (unloadedProducts.containsKey(product)) {
+				closeQuietly(save.previousFile);
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			else {
+				copy = product.snapshot();
+			}
+			save.products.add(product);
+			save.copies.add(copy);
+			save.modCounts.add(product.getModCount());
+		}
+	}
+	
+	/**
+	 * Writes a save on the save thread, using the newest snapshot it was given.
+	 * The file is written to a temporary file and only moves over the old file while fileLock is held.
+	 * @param save Save that is written
+	 */
+	private void runSave(PendingSave save) {
+		synchronized (fileLock) {
+			if (pendingSave == save) {
+				pendingSave = null;
+			}
+		}
+		String tempFileName = save.filename + ".tmp";
+		try {
+			save.sections = ProductsWriter.writeProductsToFile(tempFileName, save.copies, save.previousFile, save.previousSections,
+					ProductsWriter.isCompressedFileName(save.filename));
+			synchronized (fileLock) {
+				ProductsWriter.replaceFile(tempFileName, save.filename);
+				completedSaves.add(save);
+			}
+			save.future.complete(null);
+		}
+		catch (IllegalArgumentException e) {
+			save.future.completeExceptionally(new IllegalArgumentException("Unable to save file."));
+		}
+		finally {
+			closeQuietly(save.previousFile);
+		}
+	}
+	
+	/**
+	 * Gives the products the sections of the files that were saved in the background, so later saves copy them from the newest file.
+	 * Products that changed after their snapshot was taken stay dirty. This must be called while fileLock is held.
+	 * A compressed file has no sections that can be copied, so products keep the sections of the last file that was not compressed.
+	 */
+	private void applyCompletedSaves() {
+		for (int i = 0; i < completedSaves.size(); i++) {
+			PendingSave save = completedSaves.get(i);
+			if (save.generation != generation) {
+				continue;
+			}
+			sourceFileName = save.filename;
+			savedChanges = Math.max(savedChanges, save.changes);
+			if (ProductsWriter.isCompressedFileName(save.filename)) {
+				continue;
+			}
+			HashSet<Product> current = new HashSet<Product>(products);
+			sectionFileName = save.filename;
+			savedSections = new HashMap<Product, ProductSection>();
+			for (int j = 0; j < save.products.size(); j++) {
+				Product product = save.products.get(j);
+				ProductSection section = save.sections.get(save.copies.get(j));
+				if (unloadedProducts.containsKey(product)) {
+					unloadedProducts.put(product, section);
+				}
+				else if (current.contains(product) && product.getModCount() == save.modCounts.get(j)) {
+					product.markClean();
+					savedSections.put(product, section);
+				}
+			}
+		}
+		completedSaves.clear();
+	}
+	
+	/**
+	 * Closes a channel without throwing if it cannot be closed.
+	 * @param channel Channel that is closed, or null
+	 */
+	private static void closeQuietly(FileChannel channel) {
+		try {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+		catch (IOException e) {
+			//Nothing else can be done with the channel
+		}
+	}
+	
+	/**
+	 * Uses the ProductsBinaryWriter class to output the ProductBacklog to a new file in the binary format.
+	 * Any products loaded with loadFromFileLazily that have not been read yet are read before the file is written.
+	 * If a journal is open the records that have not been written to it yet are flushed first.
+	 * @param filename Name of the file
+	 * @throws IllegalArgumentException if unable to output to a new file
+	 */
+	public void saveToBinaryFile(String filename) {
+		flushJournal();
+		loadAllProducts();
 		if (!products.isEmpty() && getTasksAsArray().length != 0) {
 			try {
-				ProductsWriter.writeProductsToFile(filename, products);
+				ProductsBinaryWriter.writeProductsToFile(filename, products);
+				sourceFileName = filename;
+				savedChanges = changes;
 			}
 			catch (IllegalArgumentException e) {
 				throw new IllegalArgumentException("Unable to save file.");
@@ -69,25 +335,456 @@ public class BacklogManager {
 		}
 	}
 	
+	/**
+	 * Sets if loadFromFile and the products loaded with loadFromFileLazily are read with the cache of ProductsReader,
+	 * which keeps the products of the sections of files that were read so a file that is reloaded only parses the products that changed.
+	 * The cache is not used unless it is enabled.
+	 * @param enabled True if the cache is used
+	 */
+	public void setSectionCacheEnabled(boolean enabled) {
+		sectionCacheEnabled = enabled;
+	}
+	
+	/**
+	 * Sets if files are read with the cache of ProductsReader, the same as setSectionCacheEnabled, and sets the largest total size
+	 * of the sections of files whose products it keeps, so the cache can hold a whole backlog that is larger than its default size.
+	 * @param enabled True if the cache is used
+	 * @param maxBytes Largest total size in bytes of the cached sections
+	 * @throws IllegalArgumentException if maxBytes is negative
+	 */
+	public void setSectionCacheEnabled(boolean enabled, long maxBytes) {
+		ProductsReader.setSectionCacheSize(maxBytes);
+		sectionCacheEnabled = enabled;
+	}
+	
+	/**
+	 * Sets the store that the tasks of each product are kept in when products are loaded from a file or journal or added with addProduct,
+	 * such as DiskTaskStore::createTemporary for backlogs that are too large to keep on the heap. Products that were already loaded keep their stores.
+	 * @param factory Creates a new empty store for each product, or null to keep tasks in a MemoryTaskStore
+	 */
+	public void setTaskStoreFactory(Supplier<TaskStore> factory) {
+		ProductsReader.setTaskStoreFactory(factory);
+	}
+	
 	/**
 	 * Uses the ProductsReader class to load a valid file and import the products and tasks into the ProductBacklog.
+	 * Files written with saveToBinaryFile are recognized and read with the ProductsBinaryReader class instead.
+	 * Gzip compressed files are recognized and decompressed by the ProductsReader class.
+	 * If a journal is open the loaded products are written to a new snapshot.
 	 * @param filename Name of the file
 	 * @throws IllegalArgumentException if unable to load a file.
 	 */
 	public void loadFromFile(String filename) {
+		HashMap<Product, ProductSection> sections = new HashMap<Product, ProductSection>();
+		boolean binary = ProductsBinaryReader.isBinaryFile(filename);
 		try {
-			products = ProductsReader.readProductsFile(filename);
+			if (binary) {
+				products = ProductsBinaryReader.readProductsFile(filename);
+			}
+			else {
+				products = ProductsReader.readProductsFile(filename, sections, sectionCacheEnabled);
+			}
 		}
 		catch(IllegalArgumentException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
+		indexProducts();
+		sectionFileName = binary || sections.isEmpty() ? null : filename;
+		sourceFileName = filename;
+		savedSections = sections;
+		generation++;
+		savedChanges = changes;
+		unloadedProducts = new HashMap<Product, ProductSection>();
 		if (!products.isEmpty()) {
 			currentProduct = products.get(0);
 		}
+		if (journal != null) {
+			journal.compact(products);
+		}
+	}
+	
+	/**
+	 * Uses the ProductsDirectory class to load every product of a directory that has one shard file for each product.
+	 * The shards are read in parallel, and the directory is remembered so that saveToDirectory only writes the products that change.
+	 * If a journal is open the loaded products are written to a new snapshot.
+	 * @param directoryName Name of the directory
+	 * @throws IllegalArgumentException if unable to load the directory.
+	 */
+	public void loadFromDirectory(String directoryName) {
+		HashMap<Product, String> loadedShards = new HashMap<Product, String>();
+		try {
+			products = ProductsDirectory.readProductsDirectory(directoryName, loadedShards);
+		}
+		catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		indexProducts();
+		sectionFileName = null;
+		sourceFileName = directoryName;
+		savedSections = new HashMap<Product, ProductSection>();
+		generation++;
+		savedChanges = changes;
+		unloadedProducts = new HashMap<Product, ProductSection>();
+		currentProduct = products.isEmpty() ? null : products.get(0);
+		setShards(directoryName, loadedShards);
+		if (journal != null) {
+			journal.compact(products);
+		}
+	}
+	
+	/**
+	 * Uses the ProductsDirectory class to save the ProductBacklog to a directory with one shard file for each product.
+	 * When the directory is the one the products were last loaded from or saved to, only the products that changed since then are written
+	 * along with the manifest. Any products loaded with loadFromFileLazily that have not been read yet are read first.
+	 * If a journal is open the records that have not been written to it yet are flushed first.
+	 * @param directoryName Name of the directory
+	 * @throws IllegalArgumentException if unable to save the directory
+	 */
+	public void saveToDirectory(String directoryName) {
+		flushJournal();
+		loadAllProducts();
+		if (products.isEmpty() || getTasksAsArray().length == 0) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		HashMap<Product, String> previousShards = new HashMap<Product, String>();
+		if (directoryName.equals(shardDirectoryName)) {
+			for (int i = 0; i < products.size(); i++) {
+				Product product = products.get(i);
+				Integer modCount = shardModCounts.get(product);
+				if (modCount != null && modCount == product.getModCount()) {
+					previousShards.put(product, shards.get(product));
+				}
+			}
+		}
+		try {
+			setShards(directoryName, ProductsDirectory.writeProductsDirectory(directoryName, products, previousShards));
+			sourceFileName = directoryName;
+			savedChanges = changes;
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Remembers the directory the products were read from or written to and the shard of each of the products.
+	 * @param directoryName Name of the directory
+	 * @param productShards Shard of each product that is the only product in its shard
+	 */
+	private void setShards(String directoryName, HashMap<Product, String> productShards) {
+		shardDirectoryName = directoryName;
+		shards = productShards;
+		shardModCounts = new HashMap<Product, Integer>();
+		for (int i = 0; i < products.size(); i++) {
+			if (productShards.containsKey(products.get(i))) {
+				shardModCounts.put(products.get(i), products.get(i).getModCount());
+			}
+		}
+	}
+	
+	/**
+	 * Loads a file by only reading the names of its products and where each product is in the file.
+	 * The tasks of a product are not read until it is loaded with loadProduct, except for the first product which becomes the currentProduct.
+	 * A product that turns out to be invalid when its tasks are read is removed from the list of products.
+	 * If a journal is open every product is read and written to a new snapshot.
+	 * A gzip compressed file can only be read from the start, so it is loaded in full with loadFromFile.
+	 * @param filename Name of the file
+	 * @throws IllegalArgumentException if unable to load a file.
+	 */
+	public void loadFromFileLazily(String filename) {
+		if (ProductsReader.isCompressedFile(filename)) {
+			loadFromFile(filename);
+			return;
+		}
+		ArrayList<ProductSection> sections;
+		try {
+			sections = ProductsReader.readProductSections(filename);
+		}
+		catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		products = new ArrayList<Product>();
+		unloadedProducts = new HashMap<Product, ProductSection>();
+		savedSections = new HashMap<Product, ProductSection>();
+		sectionFileName = filename;
+		sourceFileName = filename;
+		generation++;
+		savedChanges = changes;
+		currentProduct = null;
+		for (int i = 0; i < sections.size(); i++) {
+			Product product = new Product(sections.get(i).getProductName());
+			product.markClean();
+			products.add(product);
+			unloadedProducts.put(product, sections.get(i));
+		}
+		indexProducts();
+		loadFirstProduct();
+		if (journal != null) {
+			compactJournal();
+		}
+	}
+	
+	/**
+	 * Merges several files into one file with ProductsMerger and then loads the merged file lazily.
+	 * Products with the same name in different files become one product with the tasks of each.
+	 * @param filenames Names of the files that are merged, in the order used by the conflict policy
+	 * @param mergedFilename Name of the merged file
+	 * @param policy Policy for tasks with the same id in products with the same name
+	 * @throws IllegalArgumentException if unable to merge or load the files
+	 */
+	public void loadFromFiles(List<String> filenames, String mergedFilename, ConflictPolicy policy) {
+		ProductsMerger.mergeProductsFiles(filenames, mergedFilename, policy);
+		loadFromFileLazily(mergedFilename);
+	}
+	
+	/**
+	 * Checks if the products have changed since they were last loaded or saved, not counting changes recorded in an open journal.
+	 * @return true if there are changes that are not in a file
+	 */
+	public boolean hasUnsavedChanges() {
+		synchronized (fileLock) {
+			applyCompletedSaves();
+		}
+		return changes != savedChanges;
+	}
+	
+	/**
+	 * Writes every product, the current product and the file the products were loaded from or saved to to a binary session file,
+	 * so the next session can start from it with restoreSession instead of parsing the file again.
+	 * The session is only written when the products are the same as that file, since restoring it would otherwise bring back changes
+	 * that were not saved. In that case any old session file is deleted instead.
+	 * Any products loaded with loadFromFileLazily that have not been read yet are read first.
+	 * @param sessionFileName Name of the session file
+	 * @return true if the session was written, or false if there is no file or there are unsaved changes
+	 * @throws IllegalArgumentException if unable to write the session file or delete the old one
+	 */
+	public boolean saveSession(String sessionFileName) {
+		if (sourceFileName == null || hasUnsavedChanges()) {
+			File session = new File(sessionFileName);
+			if (session.exists() && !session.delete()) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			return false;
+		}
+		loadAllProducts();
+		String currentProductName = currentProduct == null ? null : currentProduct.getProductName();
+		try {
+			SessionSnapshot.writeSessionFile(sessionFileName, new SessionSnapshot(sourceFileName, currentProductName, products));
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		return true;
+	}
+	
+	/**
+	 * Restores the products and the current product of the last session from a session file written by saveSession.
+	 * The session is only restored if the file it was written from still has the modification time it had then, since otherwise
+	 * that file was changed or replaced after the session ended. Nothing changes if the session is not restored.
+	 * If a journal is open the restored products are written to a new snapshot.
+	 * @param sessionFileName Name of the session file
+	 * @return true if the session was restored, or false if there is no session file, it cannot be read, or its source file changed
+	 */
+	public boolean restoreSession(String sessionFileName) {
+		SessionSnapshot session;
+		try {
+			session = SessionSnapshot.readSessionFile(sessionFileName);
+		}
+		catch (IllegalArgumentException e) {
+			return false;
+		}
+		if (!session.matchesSource()) {
+			return false;
+		}
+		products = session.getProducts();
+		indexProducts();
+		sectionFileName = null;
+		sourceFileName = session.getSourceFileName();
+		savedSections = new HashMap<Product, ProductSection>();
+		generation++;
+		savedChanges = changes;
+		unloadedProducts = new HashMap<Product, ProductSection>();
+		currentProduct = products.isEmpty() ? null : products.get(0);
+		if (productIndex.containsKey(session.getCurrentProductName())) {
+			currentProduct = productIndex.get(session.getCurrentProductName());
+		}
+		if (journal != null) {
+			journal.compact(products);
+		}
+		return true;
+	}
+	
+	/**
+	 * Opens a journal that records every change to the products so the ProductBacklog is saved without rewriting the whole file.
+	 * The products are replaced with the ones rebuilt from the snapshot file and the records in the journal file.
+	 * The journal is compacted into a new snapshot once it has enough records.
+	 * @param snapshotFileName Name of the snapshot file
+	 * @param journalFileName Name of the journal file
+	 * @throws IllegalArgumentException if unable to open the journal
+	 */
+	public void openJournal(String snapshotFileName, String journalFileName) {
+		closeJournal();
+		ProductsJournal newJournal = new ProductsJournal(snapshotFileName, journalFileName, JOURNAL_BATCH_SIZE, JOURNAL_COMPACTION_THRESHOLD);
+		products = newJournal.open();
+		indexProducts();
+		unloadedProducts = new HashMap<Product, ProductSection>();
+		savedSections = new HashMap<Product, ProductSection>();
+		sectionFileName = null;
+		sourceFileName = journalFileName;
+		generation++;
+		savedChanges = changes;
+		journal = newJournal;
+		loadFirstProduct();
+	}
+	
+	/**
+	 * Writes the products to a new snapshot file and empties the journal.
+	 * @throws IllegalArgumentException if no journal is open or unable to write the files
+	 */
+	public void compactJournal() {
+		if (journal == null) {
+			throw new IllegalArgumentException("No journal open.");
+		}
+		loadAllProducts();
+		journal.compact(products);
+	}
+	
+	/**
+	 * Closes the journal if one is open. Changes are no longer recorded after the journal is closed.
+	 * @throws IllegalArgumentException if unable to write to the journal
+	 */
+	public void closeJournal() {
+		if (journal != null) {
+			ProductsJournal oldJournal = journal;
+			journal = null;
+			oldJournal.close();
+		}
+	}
+	
+	/**
+	 * Writes the records that have not been written to the journal yet if a journal is open.
+	 * @throws IllegalArgumentException if unable to write to the journal
+	 */
+	public void flushJournal() {
+		if (journal != null) {
+			journal.flush();
+		}
+	}
+	
+	/**
+	 * Counts a change to the products. A change made while a journal is open is recorded in the journal, so it is not unsaved.
+	 */
+	private void recordChange() {
+		changes++;
+		if (journal != null) {
+			savedChanges = changes;
+		}
+	}
+	
+	/**
+	 * Compacts the journal if it has enough records.
+	 */
+	private void checkJournal() {
+		if (journal.needsCompaction()) {
+			compactJournal();
+		}
+	}
+	
+	/**
+	 * Makes the first product in the list the currentProduct, reading its tasks first if it was loaded with loadFromFileLazily.
+	 * If there are no products the currentProduct is set to null.
+	 */
+	private void loadFirstProduct() {
+		while (!products.isEmpty() && unloadedProducts.containsKey(products.get(0))) {
+			loadSection(products.get(0));
+		}
+		if (products.isEmpty()) {
+			currentProduct = null;
+		}
+		else {
+			currentProduct = products.get(0);
+		}
 	}
 	
 	/**
-	 * Searches the ArrayList of products using productName and then loads the selected product making it the currentProduct.
+	 * Reads the tasks of a product that was loaded with loadFromFileLazily and replaces it with the products read from its section of the file.
+	 * Nothing happens if the product has already been read.
+	 * @param product Product that has not been read yet
+	 * @throws IllegalArgumentException if unable to read the file
+	 */
+	private void loadSection(Product product) {
+		ArrayList<Product> loaded;
+		synchronized (fileLock) {
+			applyCompletedSaves();
+			ProductSection section = unloadedProducts.remove(product);
+			if (section == null) {
+				return;
+			}
+			try {
+				loaded = ProductsReader.readProductSection(sectionFileName, section, sectionCacheEnabled);
+			}
+			catch(IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			if (loaded.size() == 1) {
+				savedSections.put(loaded.get(0), section);
+			}
+		}
+		int index = products.indexOf(product);
+		products.remove(index);
+		products.addAll(index, loaded);
+		if (productIndex.get(product.getProductName()) == product) {
+			productIndex.remove(product.getProductName());
+		}
+		for (int i = 0; i < loaded.size(); i++) {
+			productIndex.put(loaded.get(i).getProductName(), loaded.get(i));
+		}
+	}
+	
+	/**
+	 * Rebuilds productIndex from products after the products are replaced. When two products have the same name the last one is indexed.
+	 */
+	private void indexProducts() {
+		productIndex = new HashMap<String, Product>();
+		for (int i = 0; i < products.size(); i++) {
+			productIndex.put(products.get(i).getProductName(), products.get(i));
+		}
+	}
+	
+	/**
+	 * Removes a product from productIndex, indexing the last other product with the same name in its place if there is one.
+	 * Only a file with two products of the same name has such a product, so the list is only searched when one is known to be left.
+	 * @param product Product that is removed from the index
+	 * @param productName Name the product was indexed by
+	 */
+	private void unindexProduct(Product product, String productName) {
+		if (productIndex.get(productName) != product) {
+			return;
+		}
+		productIndex.remove(productName);
+		if (products.size() > productIndex.size()) {
+			for (int i = products.size() - 1; i >= 0; i--) {
+				if (products.get(i) != product && productName.equals(products.get(i).getProductName())) {
+					productIndex.put(productName, products.get(i));
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reads the tasks of every product that was loaded with loadFromFileLazily and has not been read yet.
+	 */
+	private void loadAllProducts() {
+		ArrayList<Product> unloaded = new ArrayList<Product>(unloadedProducts.keySet());
+		for (int i = 0; i < unloaded.size(); i++) {
+			loadSection(unloaded.get(i));
+		}
+	}
+	
+	/**
+	 * Looks up the product with productName in the index of products and then loads the selected product making it the currentProduct.
+	 * If the product was loaded with loadFromFileLazily its tasks are read from the file first.
 	 * @param productName Name of the product
 	 * @throws IllegalArgumentException if product is not in the list
 	 */
@@ -95,10 +792,13 @@ public class BacklogManager {
 		if (products.isEmpty()) {
 			throw new IllegalArgumentException("Product not available.");
 		}
-		for (int i = 0; i < products.size(); i++) {
-			if (productName.equals(products.get(i).getProductName())) {
-				currentProduct = products.get(i);
-			}
+		Product product = productIndex.get(productName);
+		while (product != null && unloadedProducts.containsKey(product)) {
+			loadSection(product);
+			product = productIndex.get(productName);
+		}
+		if (product != null) {
+			currentProduct = product;
 		}
 	}
 	
@@ -108,10 +808,8 @@ public class BacklogManager {
 	 * @throws IllegalArgumentException if a product has the same name as another.
 	 */
 	private void isDuplicateProduct(String productName) {
-		for(int i = 0; i < products.size(); i++) {
-			if (productName.equals(products.get(i).getProductName())) {
-				throw new IllegalArgumentException("This product has the same name as another.");
-			}
+		if (productIndex.containsKey(productName)) {
+			throw new IllegalArgumentException("This product has the same name as another.");
 		}
 	}
 	
@@ -134,6 +832,27 @@ public class BacklogManager {
 		return taskArray;
 	}
 	
+	/**
+	 * Searches the titles and notes of the tasks of every product. A query in double quotes is searched for as a phrase,
+	 * and any other query finds the tasks that have each of its words. Products loaded with loadFromFileLazily are read first.
+	 * @param query Words or quoted phrase that are searched for
+	 * @return the product name, id, state and title of each task that was found, in the order of the products and then of the ids
+	 */
+	public String[][] searchTasks(String query) {
+		loadAllProducts();
+		boolean phrase = query.length() > 1 && query.startsWith("\"") && query.endsWith("\"");
+		ArrayList<String[]> rows = new ArrayList<String[]>();
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			List<Task> found = phrase ? product.searchPhrase(query.substring(1, query.length() - 1)) : product.searchTasks(query);
+			for (int j = 0; j < found.size(); j++) {
+				Task task = found.get(j);
+				rows.add(new String[] {product.getProductName(), String.valueOf(task.getTaskId()), task.getStateName(), task.getTitle()});
+			}
+		}
+		return rows.toArray(new String[rows.size()][]);
+	}
+	
 	/**
 	 * Searches the ArrayList containing tasks and returns the task that matches the id. 
 	 * @param idx Index of the task.
@@ -145,7 +864,7 @@ public class BacklogManager {
 		}
 		return currentProduct.getTaskById(idx);
 	}
-
+	
 	/**
 	 * Searches the ArrayList containing tasks by using it's id and then executing the command that will allow the task to transition states.
 	 * @param num Number of the task.
@@ -154,8 +873,13 @@ public class BacklogManager {
 	public void executeCommand (int num, Command c) {
 		if (currentProduct != null) {
 			currentProduct.executeCommand(num, c);
+			recordChange();
+			if (journal != null) {
+				journal.recordCommand(currentProduct.getProductName(), num, c);
+				checkJournal();
+			}
 		}
-		
+	
 	}
 	
 	/**
@@ -164,6 +888,11 @@ public class BacklogManager {
 	 */
 	public void deleteTaskById(int idx) {
 		currentProduct.deleteTaskById(idx);
+		recordChange();
+		if (journal != null) {
+			journal.recordDeleteTask(currentProduct.getProductName(), idx);
+			checkJournal();
+		}
 	}
 	
 	/**
@@ -175,7 +904,12 @@ public class BacklogManager {
 	 */
 	public void addTaskToProduct(String title, Type type, String creator, String note) {
 		if (currentProduct != null) {
-			currentProduct.addTask(title, type, creator, note);
+			int id = currentProduct.addTask(title, type, creator, note);
+			recordChange();
+			if (journal != null) {
+				journal.recordAddTask(currentProduct.getProductName(), id, title, type, creator, note);
+				checkJournal();
+			}
 		}
 	}
 	
@@ -204,10 +938,21 @@ public class BacklogManager {
 	
 	/**
 	 * Clears the ArrayList of products by creating a new empty ArrayList
+	 * If a journal is open it is compacted into an empty snapshot.
 	 */
 	public void clearProducts( ) {
 		currentProduct = null;
 		products = new ArrayList<Product>();
+		productIndex = new HashMap<String, Product>();
+		unloadedProducts = new HashMap<Product, ProductSection>();
+		savedSections = new HashMap<Product, ProductSection>();
+		sectionFileName = null;
+		sourceFileName = null;
+		generation++;
+		savedChanges = changes;
+		if (journal != null) {
+			journal.compact(products);
+		}
 	}
 	
 	/**
@@ -220,7 +965,15 @@ public class BacklogManager {
 		if (currentProduct == null) {
 			throw new IllegalArgumentException("No product selected.");
 		}
+		String productName = currentProduct.getProductName();
 		currentProduct.setProductName(updateName);
+		productIndex.put(updateName, currentProduct);
+		unindexProduct(currentProduct, productName);
+		recordChange();
+		if (journal != null) {
+			journal.recordEditProduct(productName, updateName);
+			checkJournal();
+		}
 	}
 	
 	/**
@@ -230,9 +983,15 @@ public class BacklogManager {
 	 */
 	public void addProduct(String productName) {
 		isDuplicateProduct(productName);
-		Product product = new Product(productName);
+		Product product = ProductsReader.createProduct(productName);
 		products.add(product);
+		productIndex.put(productName, product);
 		loadProduct(productName);
+		recordChange();
+		if (journal != null) {
+			journal.recordAddProduct(productName);
+			checkJournal();
+		}
 	}
 	
 	/**
@@ -244,19 +1003,86 @@ public class BacklogManager {
 			throw new IllegalArgumentException("No product selected.");
 		}
 		products.remove(currentProduct);
-		if (products.isEmpty()) {
-			currentProduct = null;
-		}
-		else {
-			currentProduct = products.get(0);
+		unindexProduct(currentProduct, currentProduct.getProductName());
+		recordChange();
+		if (journal != null) {
+			journal.recordDeleteProduct(currentProduct.getProductName());
+			checkJournal();
 		}
+		loadFirstProduct();
 	}
 	
 	/**
-	 * Resets the BacklogManager.
+	 * Resets the BacklogManager, and sets products to keep their tasks in a MemoryTaskStore and the cache to its default size again.
 	 */
 	protected void resetManager() {
+		closeJournal();
+		ProductsReader.setTaskStoreFactory(null);
+		ProductsReader.setSectionCacheSize(ProductsReader.DEFAULT_CACHE_BYTES);
 		backLogMangerInstance = null;
 	}
+	
+	/**
+	 * Save of the products to a file that is written by the save thread.
+	 * The snapshot is only replaced while fileLock is held and the save is still the pendingSave.
+	 */
+	private static class PendingSave {
+		
+		/** Name of the file that is written **/
+		private String filename;
+		
+		/** Future that is completed when the file has been written **/
+		private CompletableFuture<Void> future;
+		
+		/** Value of generation when the snapshot was taken **/
+		private int generation;
+		
+		/** Products of the manager when the snapshot was taken **/
+		private ArrayList<Product> products;
+		
+		/** Copies of the products that are written, in the same order as products **/
+		private ArrayList<Product> copies;
+		
+		/** Modification count of each product when the snapshot was taken, in the same order as products **/
+		private ArrayList<Integer> modCounts;
+		
+		/** Sections of the previous file that the copies of unchanged products are copied from **/
+		private HashMap<Product, ProductSection> previousSections;
+		
+		/** Channel of the previous file, or null if there is no previous file **/
+		private FileChannel previousFile;
+		
+		/** Sections of the new file that each copy was written to **/
+		private HashMap<Product, ProductSection> sections;
+		
+		/** Number of changes made to the products of the manager when the snapshot was taken **/
+		private int changes;
+		
+		/**
+		 * Constructs a save to the given file with an empty snapshot.
+		 * @param filename Name of the file that is written
+		 */
+		PendingSave(String filename) {
+			this.filename = filename;
+			products = new ArrayList<Product>();
+			copies = new ArrayList<Product>();
+			modCounts = new ArrayList<Integer>();
+			previousSections = new HashMap<Product, ProductSection>();
+		}
+		
+		/**
+		 * Replaces the snapshot of this save with the snapshot of a newer save to the same file.
+		 * @param newer Save whose snapshot is written instead
+		 */
+		void replaceSnapshot(PendingSave newer) {
+			generation = newer.generation;
+			changes = newer.changes;
+			products = newer.products;
+			copies = newer.copies;
+			modCounts = newer.modCounts;
+			previousSections = newer.previousSections;
+			previousFile = newer.previousFile;
+		}
+	}
 
 }
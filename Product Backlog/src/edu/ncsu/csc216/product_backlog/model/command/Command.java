@@ -1,5 +1,7 @@
 package edu.ncsu.csc216.product_backlog.model.command;
 
+import edu.ncsu.csc216.product_backlog.model.task.StringPool;
+
 /**
  * Class that helps lead the transitions between states for Task and encapsulates the user's information.
  * @author Daniel Avisse
@@ -23,6 +25,7 @@ public class Command {
 	
 	/** Constructor for Command with the command value, owner, and note.
 	 * Uses these to determined which state the Task will transition to and if one of the values is null then an exception is thrown.
+	 * The owner is interned in the shared StringPool.
 	 * @param c value of the Command that switches the state.
 	 * @param owner name of the owner
 	 * @param note note the contains the information for the task and state it's in.
@@ -36,7 +39,7 @@ public class Command {
 			throw new IllegalArgumentException(COMMAND_ERROR_MESSAGE);
 		}
 		this.note = note;
-		this.owner = owner;
+		this.owner = StringPool.getShared().intern(owner);
 		this.c = c;
 	}
 	
@@ -0,0 +1,651 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.ncsu.csc216.product_backlog.model.product.TaskStore;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that keeps the tasks of a Product in a log file on disk instead of on the heap, so a product can have more tasks than fit in memory.
+ * Every task that is added or updated is appended to the log in the same encoding as ProductsBinaryWriter uses for a task, and the heap only
+ * holds the id, position and length of each task in primitive arrays plus a bounded cache of the tasks that were used most recently.
+ * The space of tasks that were removed or replaced is taken back by rewriting the log once more than half of it is no longer used.
+ * Bytes in the log never change once they are written, so a snapshot of the store shares the log and only copies the arrays.
+ * The log is a scratch file that is deleted once the store and every snapshot that shares it are closed, so the tasks are still saved
+ * with the other writers. A store that is no longer used without being closed releases its log when it is garbage collected.
+ * Errors reading or writing the log are thrown as UncheckedIOExceptions.
+ * @author Daniel Avisse
+ *
+ */
+public class DiskTaskStore implements TaskStore, Closeable {
+	
+	/** Number of tasks that are kept in the cache if no size is given **/
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+	
+	/** Smallest number of unused bytes in the log before it is rewritten **/
+	private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+	
+	/** Number of tasks there is room for when the store is created **/
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/** Cleaner that releases the log of a store that was not closed **/
+	private static final Cleaner CLEANER = Cleaner.create();
+	
+	/** Number of times any log has been rewritten, used to give each rewritten log its own name **/
+	private static final AtomicInteger COMPACTIONS = new AtomicInteger();
+	
+	/** Name of the log file the store was created with, which rewritten logs are named after **/
+	private Path path;
+	
+	/** Log file, which may be shared with snapshots of the store **/
+	private Log log;
+	
+	/** Releases this store's use of the log when the store is closed or garbage collected **/
+	private Cleaner.Cleanable cleanable;
+	
+	/** Number of bytes in the log that belong to tasks in the store **/
+	private long usedBytes;
+	
+	/** Largest number of tasks that are kept in the cache **/
+	private int cacheSize;
+	
+	/** Number of tasks in the store **/
+	private int size;
+	
+	/** Id of each task in store order **/
+	private int[] ids;
+	
+	/** Position in the log of each task in store order **/
+	private long[] positions;
+	
+	/** Number of bytes in the log of each task in store order **/
+	private int[] lengths;
+	
+	/** True while every id is larger than the id before it, so a task can be found with a binary search **/
+	private boolean sorted;
+	
+	/** Tasks that were used most recently, by id **/
+	private LinkedHashMap<Integer, Task> cache;
+	
+	/** Buffer that a task is encoded into before it is written **/
+	private ByteArrayOutputStream encoded;
+	
+	/**
+	 * Constructs a DiskTaskStore with a log file of the given name and the default cache size.
+	 * @param fileName Name of the log file, which is replaced if it exists
+	 * @throws IOException if the log file cannot be created
+	 */
+	public DiskTaskStore(String fileName) throws IOException {
+		this(fileName, DEFAULT_CACHE_SIZE);
+	}
+	
+	/**
+	 * Constructs a DiskTaskStore with a log file of the given name that caches up to cacheSize tasks.
+	 * @param fileName Name of the log file, which is replaced if it exists
+	 * @param cacheSize Largest number of tasks that are kept on the heap
+	 * @throws IOException if the log file cannot be created
+	 * @throws IllegalArgumentException if cacheSize is negative
+	 */
+	public DiskTaskStore(String fileName, int cacheSize) throws IOException {
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("Invalid cache size.");
+		}
+		path = Paths.get(fileName);
+		useLog(new Log(openLog(path), 0));
+		ids = new int[INITIAL_CAPACITY];
+		positions = new long[INITIAL_CAPACITY];
+		lengths = new int[INITIAL_CAPACITY];
+		sorted = true;
+		this.cacheSize = cacheSize;
+		encoded = new ByteArrayOutputStream();
+		cache = createCache(cacheSize);
+	}
+	
+	/**
+	 * Creates a DiskTaskStore with the default cache size whose log is a new file in the temporary directory,
+	 * so it can be used as the factory of ProductsReader.setTaskStoreFactory.
+	 * @return the new store
+	 * @throws UncheckedIOException if the log file cannot be created
+	 */
+	public static DiskTaskStore createTemporary() {
+		try {
+			return new DiskTaskStore(Files.createTempFile("tasks", ".log").toString());
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Constructs a DiskTaskStore that shares the log of another store and has copies of its arrays, with an empty cache.
+	 * @param store Store whose log is shared
+	 */
+	private DiskTaskStore(DiskTaskStore store) {
+		path = store.path;
+		store.log.retain();
+		useLog(store.log);
+		usedBytes = store.usedBytes;
+		size = store.size;
+		ids = store.ids.clone();
+		positions = store.positions.clone();
+		lengths = store.lengths.clone();
+		sorted = store.sorted;
+		cacheSize = store.cacheSize;
+		encoded = new ByteArrayOutputStream();
+		cache = createCache(cacheSize);
+	}
+	
+	/**
+	 * Gets the number of tasks in the store.
+	 * @return the number of tasks
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Gets the task at an index, reading it from the log if it is not in the cache.
+	 * @param index Index of the task
+	 * @return the task at the index
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 * @throws UncheckedIOException if the task cannot be read
+	 */
+	@Override
+	public Task get(int index) {
+		checkIndex(index);
+		Task task = cache.get(ids[index]);
+		if (task == null) {
+			task = read(index);
+			cache.put(ids[index], task);
+		}
+		return task;
+	}
+	
+	/**
+	 * Gets the id of the task at an index without reading the task.
+	 * @param index Index of the task
+	 * @return the id of the task at the index
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	@Override
+	public int getId(int index) {
+		checkIndex(index);
+		return ids[index];
+	}
+	
+	/**
+	 * Gets the task with an id, reading it from the log if it is not in the cache.
+	 * @param id Id of the task
+	 * @return the task, or null if there is no task with the id
+	 * @throws UncheckedIOException if the task cannot be read
+	 */
+	@Override
+	public Task getById(int id) {
+		int index = indexOf(id);
+		return index < 0 ? null : get(index);
+	}
+	
+	/**
+	 * Adds a task at an index by appending it to the log.
+	 * @param index Index the task is added at
+	 * @param task Task that is added
+	 * @throws IndexOutOfBoundsException if the index is not in the store or at its end
+	 * @throws UncheckedIOException if the task cannot be written
+	 */
+	@Override
+	public void add(int index, Task task) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int length = write(task);
+		if (size == ids.length) {
+			grow(size + 1);
+		}
+		System.arraycopy(ids, index, ids, index + 1, size - index);
+		System.arraycopy(positions, index, positions, index + 1, size - index);
+		System.arraycopy(lengths, index, lengths, index + 1, size - index);
+		ids[index] = task.getTaskId();
+		positions[index] = log.size() - length;
+		lengths[index] = length;
+		usedBytes += length;
+		size++;
+		if ((index > 0 && ids[index - 1] >= ids[index]) || (index < size - 1 && ids[index] >= ids[index + 1])) {
+			sorted = false;
+		}
+		cache.put(task.getTaskId(), task);
+	}
+	
+	/**
+	 * Adds a task after every other task.
+	 * @param task Task that is added
+	 * @throws UncheckedIOException if the task cannot be written
+	 */
+	@Override
+	public void add(Task task) {
+		add(size, task);
+	}
+	
+	/**
+	 * Adds tasks that are sorted by id by appending them to the log and then merging their ids, positions and lengths
+	 * with those of the tasks in the store from the back of the arrays, so none of the tasks already in the store are read or written.
+	 * @param sorted Tasks that are added, in increasing order of their ids
+	 * @throws UncheckedIOException if a task cannot be written
+	 */
+	@Override
+	public void addAll(List<Task> sorted) {
+		long[] newPositions = new long[sorted.size()];
+		int[] newLengths = new int[sorted.size()];
+		for (int i = 0; i < sorted.size(); i++) {
+			newLengths[i] = write(sorted.get(i));
+			newPositions[i] = log.size() - newLengths[i];
+			usedBytes += newLengths[i];
+			cache.put(sorted.get(i).getTaskId(), sorted.get(i));
+		}
+		if (size + sorted.size() > ids.length) {
+			grow(size + sorted.size());
+		}
+		int from = size - 1;
+		int next = sorted.size() - 1;
+		for (int to = size + sorted.size() - 1; next >= 0; to--) {
+			if (from >= 0 && ids[from] > sorted.get(next).getTaskId()) {
+				ids[to] = ids[from];
+				positions[to] = positions[from];
+				lengths[to] = lengths[from];
+				from--;
+			}
+			else {
+				ids[to] = sorted.get(next).getTaskId();
+				positions[to] = newPositions[next];
+				lengths[to] = newLengths[next];
+				next--;
+			}
+		}
+		size += sorted.size();
+	}
+	
+	/**
+	 * Removes the task at an index. Its bytes in the log are taken back the next time the log is rewritten.
+	 * @param index Index of the task
+	 * @return the task that was removed
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 * @throws UncheckedIOException if the task cannot be read
+	 */
+	@Override
+	public Task remove(int index) {
+		Task task = get(index);
+		cache.remove(ids[index]);
+		usedBytes -= lengths[index];
+		System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+		System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+		System.arraycopy(lengths, index + 1, lengths, index, size - index - 1);
+		size--;
+		compactIfNeeded();
+		return task;
+	}
+	
+	/**
+	 * Saves the changes made to a task by appending it to the log again.
+	 * @param task Task that changed
+	 * @throws IllegalArgumentException if the task is not in the store
+	 * @throws UncheckedIOException if the task cannot be written
+	 */
+	@Override
+	public void update(Task task) {
+		int index = indexOf(task.getTaskId());
+		if (index < 0) {
+			throw new IllegalArgumentException("Task is not in the store.");
+		}
+		int length = write(task);
+		usedBytes += length - lengths[index];
+		positions[index] = log.size() - length;
+		lengths[index] = length;
+		cache.put(task.getTaskId(), task);
+		compactIfNeeded();
+	}
+	
+	/**
+	 * Gets a List that reads each task from this store when it is used. The List cannot be changed.
+	 * @return the tasks in the store
+	 */
+	@Override
+	public List<Task> asList() {
+		return new AbstractList<Task>() {
+			@Override
+			public Task get(int index) {
+				return DiskTaskStore.this.get(index);
+			}
+			
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+	
+	/**
+	 * Creates a DiskTaskStore that shares the log of this store and has copies of its ids, positions and lengths.
+	 * No task is read, since the bytes a snapshot reads its tasks from do not change when either store adds or updates tasks.
+	 * The snapshot should be closed when it is no longer used, so the log can be deleted once this store is closed as well.
+	 * @return the copy of the store
+	 */
+	@Override
+	public DiskTaskStore snapshot() {
+		return new DiskTaskStore(this);
+	}
+	
+	/**
+	 * Gets the number of bytes in the log, including the bytes of tasks that were removed or replaced.
+	 * @return the size of the log
+	 */
+	public long getLogSize() {
+		return log.size();
+	}
+	
+	/**
+	 * Releases the log, which deletes it if no snapshot of the store still uses it.
+	 * @throws IOException if the log cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		cache.clear();
+		try {
+			cleanable.clean();
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	/**
+	 * Helper method that makes the store use a log and registers the store to release it.
+	 * @param newLog Log the store uses, which the store already counts as one of its users
+	 */
+	private void useLog(Log newLog) {
+		log = newLog;
+		cleanable = CLEANER.register(this, newLog::release);
+	}
+	
+	/**
+	 * Helper method that creates the cache of the tasks that were used most recently.
+	 * @param cacheSize Largest number of tasks that are kept in the cache
+	 * @return the empty cache
+	 */
+	private static LinkedHashMap<Integer, Task> createCache(int cacheSize) {
+		return new LinkedHashMap<Integer, Task>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+	
+	/**
+	 * Helper method that makes room in the arrays for a number of tasks, at least doubling their size.
+	 * @param capacity Number of tasks there must be room for
+	 */
+	private void grow(int capacity) {
+		capacity = Math.max(capacity, ids.length * 2);
+		ids = Arrays.copyOf(ids, capacity);
+		positions = Arrays.copyOf(positions, capacity);
+		lengths = Arrays.copyOf(lengths, capacity);
+	}
+	
+	/**
+	 * Helper method that finds the index of the task with an id.
+	 * @param id Id of the task
+	 * @return the index of the task, or -1 if there is no task with the id
+	 */
+	private int indexOf(int id) {
+		if (sorted) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			return index < 0 ? -1 : index;
+		}
+		for (int i = 0; i < size; i++) {
+			if (ids[i] == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Helper method that checks that an index is in the store.
+	 * @param index Index that is checked
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+	
+	/**
+	 * Helper method that appends a task to the end of the log.
+	 * @param task Task that is written
+	 * @return the number of bytes the task takes, which end at the end of the log
+	 * @throws UncheckedIOException if the task cannot be written
+	 */
+	private int write(Task task) {
+		encoded.reset();
+		try {
+			DataOutputStream out = new DataOutputStream(encoded);
+			ProductsBinaryWriter.writeVarInt(out, task.getTaskId());
+			out.writeByte(Task.getStateCode(task.getStateName()));
+			out.writeByte(task.getType().ordinal());
+			out.writeBoolean(task.isVerified());
+			ProductsBinaryWriter.writeString(out, task.getTitle());
+			ProductsBinaryWriter.writeString(out, task.getCreator());
+			ProductsBinaryWriter.writeString(out, task.getOwner());
+			ProductsBinaryWriter.writeVarInt(out, task.getNoteCount());
+			for (int i = 0; i < task.getNoteCount(); i++) {
+				ProductsBinaryWriter.writeNote(out, task.getNote(i));
+			}
+			log.append(ByteBuffer.wrap(encoded.toByteArray()));
+			return encoded.size();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Helper method that reads the task at an index from the log.
+	 * @param index Index of the task
+	 * @return the task that was read
+	 * @throws UncheckedIOException if the task cannot be read
+	 */
+	private Task read(int index) {
+		ByteBuffer bytes = ByteBuffer.allocate(lengths[index]);
+		try {
+			log.read(bytes, positions[index]);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+			int taskId = ProductsBinaryReader.readVarInt(in);
+			String state = Task.getStateNameOf(in.readUnsignedByte());
+			String type = ProductsBinaryWriter.TYPE_NAMES[in.readUnsignedByte()];
+			String verified = String.valueOf(in.readBoolean());
+			String title = ProductsBinaryReader.readString(in);
+			String creator = ProductsBinaryReader.readString(in);
+			String owner = ProductsBinaryReader.readString(in);
+			int noteCount = ProductsBinaryReader.readLength(in);
+			ArrayList<String> notes = new ArrayList<String>(noteCount);
+			for (int i = 0; i < noteCount; i++) {
+				notes.add(ProductsBinaryReader.readNote(in));
+			}
+			return new Task(taskId, state, title, type, creator, owner, verified, notes);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Helper method that rewrites the log with only the tasks that are still in the store once more than half of it is unused.
+	 * The tasks are copied in store order into a new log that only this store uses, and the old log is released,
+	 * which deletes it unless a snapshot still uses it. Bytes the snapshots of the store use count as unused here.
+	 * @throws UncheckedIOException if the log cannot be rewritten
+	 */
+	private void compactIfNeeded() {
+		long logSize = log.size();
+		long unusedBytes = logSize - usedBytes;
+		if (unusedBytes < MIN_COMPACTION_BYTES || unusedBytes * 2 < logSize) {
+			return;
+		}
+		Path compactedPath = Paths.get(path.toString() + "." + COMPACTIONS.incrementAndGet());
+		try {
+			FileChannel compacted = openLog(compactedPath);
+			long[] compactedPositions = new long[positions.length];
+			long compactedSize = 0;
+			try {
+				for (int i = 0; i < size; i++) {
+					log.transferTo(positions[i], lengths[i], compacted);
+					compactedPositions[i] = compactedSize;
+					compactedSize += lengths[i];
+				}
+			}
+			catch (IOException e) {
+				compacted.close();
+				throw e;
+			}
+			cleanable.clean();
+			useLog(new Log(compacted, compactedSize));
+			positions = compactedPositions;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Helper method that creates a log file that is deleted when it is closed.
+	 * @param logPath Name of the log file
+	 * @return channel of the log file
+	 * @throws IOException if the log file cannot be created
+	 */
+	private static FileChannel openLog(Path logPath) throws IOException {
+		return FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+	}
+	
+	/**
+	 * Class that is a log file shared by a store and its snapshots. Tasks are only ever appended to the log,
+	 * so each store reads its tasks from bytes that no other store writes over. A store and a snapshot can be used from different threads,
+	 * so appending and counting the stores that use the log are synchronized. The log is closed, which deletes it, once no store uses it.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Log {
+		
+		/** Channel of the log file **/
+		private FileChannel channel;
+		
+		/** Number of bytes in the log **/
+		private long size;
+		
+		/** Number of stores that use the log **/
+		private int users;
+		
+		/**
+		 * Constructs a Log with one user.
+		 * @param channel Channel of the log file
+		 * @param size Number of bytes already in the log
+		 */
+		private Log(FileChannel channel, long size) {
+			this.channel = channel;
+			this.size = size;
+			users = 1;
+		}
+		
+		/**
+		 * Gets the number of bytes in the log.
+		 * @return the size of the log
+		 */
+		private synchronized long size() {
+			return size;
+		}
+		
+		/**
+		 * Adds a store that uses the log.
+		 */
+		private synchronized void retain() {
+			users++;
+		}
+		
+		/**
+		 * Removes a store that uses the log, closing the log once no store uses it.
+		 * @throws UncheckedIOException if the log cannot be closed
+		 */
+		private synchronized void release() {
+			users--;
+			if (users == 0) {
+				try {
+					channel.close();
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+		
+		/**
+		 * Appends bytes to the end of the log.
+		 * @param bytes Bytes that are appended
+		 * @throws IOException if the bytes cannot be written
+		 */
+		private synchronized void append(ByteBuffer bytes) throws IOException {
+			while (bytes.hasRemaining()) {
+				size += channel.write(bytes, size);
+			}
+		}
+		
+		/**
+		 * Reads bytes from the log until the buffer is full.
+		 * @param bytes Buffer the bytes are read into
+		 * @param position Position in the log of the first byte
+		 * @throws IOException if the bytes cannot be read
+		 */
+		private void read(ByteBuffer bytes, long position) throws IOException {
+			while (bytes.hasRemaining()) {
+				if (channel.read(bytes, position + bytes.position()) < 0) {
+					throw new IOException("Task is no longer in the log.");
+				}
+			}
+		}
+		
+		/**
+		 * Copies bytes of the log to the end of another file without reading them into memory.
+		 * @param position Position in the log of the first byte
+		 * @param count Number of bytes that are copied
+		 * @param target Channel of the file the bytes are copied to
+		 * @throws IOException if the bytes cannot be copied
+		 */
+		private void transferTo(long position, long count, FileChannel target) throws IOException {
+			long copied = 0;
+			while (copied < count) {
+				copied += channel.transferTo(position + copied, count - copied, target);
+			}
+		}
+	}
+}
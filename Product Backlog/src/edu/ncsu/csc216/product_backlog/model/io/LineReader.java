@@ -0,0 +1,18 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.IOException;
+
+/**
+ * Interface for the different sources that ProductsReader can read the lines of a file from.
+ * @author Daniel Avisse
+ *
+ */
+interface LineReader {
+	
+	/**
+	 * Reads the next line without its line terminator.
+	 * @return the next line, or null if there are no more lines
+	 * @throws IOException if the line cannot be read
+	 */
+	String readLine() throws IOException;
+}
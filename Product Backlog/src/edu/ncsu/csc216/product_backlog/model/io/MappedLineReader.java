@@ -0,0 +1,240 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class that reads the lines of a file by memory mapping it instead of reading it through a stream.
+ * Line breaks are found by looking directly at the bytes of the mapped file and a String is only created for the bytes of each line.
+ * Files larger than a single mapping are read one section at a time.
+ * A reader can also be limited to a range of bytes of a file so that different parts of the same file can be read separately.
+ * @author Daniel Avisse
+ *
+ */
+class MappedLineReader implements LineReader, Closeable {
+	
+	/** Largest number of bytes of the file that is mapped at one time **/
+	static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+	
+	/** Channel of the file that is being read **/
+	private FileChannel channel;
+	
+	/** True if the channel was opened by this reader and should be closed with it **/
+	private boolean ownsChannel;
+	
+	/** Position in the file where this reader stops reading **/
+	private long end;
+	
+	/** Position in the file where the current mapped section starts **/
+	private long mappedStart;
+	
+	/** Largest number of bytes that this reader maps at one time **/
+	private long mappedSize;
+	
+	/** Currently mapped section of the file **/
+	private MappedByteBuffer buffer;
+	
+	/** Index in the buffer of the first byte of the line that was found last **/
+	private int lineStart;
+	
+	/** Index in the buffer after the last byte of the line that was found last **/
+	private int lineEnd;
+	
+	/** Index in the buffer where the line after the one that was found last starts **/
+	private int lineNext;
+	
+	/** Reusable array that holds the bytes of the line being decoded **/
+	private byte[] lineBytes;
+	
+	/** Charset used to decode the lines, which is the same one a Reader would use by default **/
+	private Charset charset;
+	
+	/**
+	 * Constructs a MappedLineReader that maps the given file.
+	 * @param fileName Name of the file
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	MappedLineReader(String fileName) throws IOException {
+		this(fileName, MAX_MAPPED_SIZE);
+	}
+	
+	/**
+	 * Constructs a MappedLineReader that maps the given file in sections no larger than mappedSize.
+	 * @param fileName Name of the file
+	 * @param mappedSize Largest number of bytes that is mapped at one time
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	MappedLineReader(String fileName, long mappedSize) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		ownsChannel = true;
+		this.mappedSize = mappedSize;
+		end = channel.size();
+		lineBytes = new byte[256];
+		charset = Charset.defaultCharset();
+		map(0);
+	}
+	
+	/**
+	 * Constructs a MappedLineReader that reads the bytes of an open channel between start and end.
+	 * The channel is not closed when this reader is closed, so many readers can share it.
+	 * @param channel Channel of the file
+	 * @param start Position in the file where the first line starts
+	 * @param end Position in the file where reading stops
+	 * @throws IOException if the range cannot be mapped
+	 */
+	MappedLineReader(FileChannel channel, long start, long end) throws IOException {
+		this.channel = channel;
+		ownsChannel = false;
+		mappedSize = MAX_MAPPED_SIZE;
+		this.end = end;
+		lineBytes = new byte[256];
+		charset = Charset.defaultCharset();
+		map(start);
+	}
+	
+	/**
+	 * Maps the section of the file that starts at the given position.
+	 * @param position Position in the file where the section starts
+	 * @throws IOException if the section cannot be mapped
+	 */
+	private void map(long position) throws IOException {
+		mappedStart = position;
+		buffer = channel.map(MapMode.READ_ONLY, position, Math.min(mappedSize, end - position));
+	}
+	
+	/**
+	 * Gets the position in the file where the next line starts.
+	 * @return position of the next line
+	 */
+	long getPosition() {
+		return mappedStart + buffer.position();
+	}
+	
+	/**
+	 * Gets the first byte of the next line without reading the line.
+	 * @return the first byte of the next line, or -1 if there are no more lines
+	 */
+	int peek() {
+		if (getPosition() >= end) {
+			return -1;
+		}
+		return buffer.get(buffer.position()) & 0xFF;
+	}
+	
+	/**
+	 * Reads the next line from the mapped file without its line terminator.
+	 * Lines may end with \n, \r or \r\n.
+	 * @return the next line, or null if there are no more lines
+	 * @throws IOException if a line is longer than the largest section that can be mapped
+	 */
+	@Override
+	public String readLine() throws IOException {
+		if (!findLine()) {
+			return null;
+		}
+		String line = decode(lineStart, lineEnd);
+		buffer.position(lineNext);
+		return line;
+	}
+	
+	/**
+	 * Moves past the next line without creating a String for it.
+	 * @return true if a line was skipped, or false if there are no more lines
+	 * @throws IOException if a line is longer than the largest section that can be mapped
+	 */
+	boolean skipLine() throws IOException {
+		if (!findLine()) {
+			return false;
+		}
+		buffer.position(lineNext);
+		return true;
+	}
+	
+	/**
+	 * Finds where the next line starts and ends, mapping the next section of the file if the line does not end in the current one.
+	 * @return true if a line was found, or false if there are no more lines
+	 * @throws IOException if a line is longer than the largest section that can be mapped
+	 */
+	private boolean findLine() throws IOException {
+		if (getPosition() >= end) {
+			return false;
+		}
+		int start = buffer.position();
+		int terminator = findLineEnd(start);
+		if (terminator == -1 && mappedStart + buffer.limit() < end) {
+			map(mappedStart + start);
+			start = 0;
+			terminator = findLineEnd(start);
+			if (terminator == -1 && mappedStart + buffer.limit() < end) {
+				throw new IOException("Line is too long to be mapped.");
+			}
+		}
+		lineStart = start;
+		if (terminator == -1) {
+			lineEnd = buffer.limit();
+			lineNext = lineEnd;
+		}
+		else if (buffer.get(terminator) == '\r' && terminator + 1 < buffer.limit() && buffer.get(terminator + 1) == '\n') {
+			lineEnd = terminator;
+			lineNext = terminator + 2;
+		}
+		else {
+			lineEnd = terminator;
+			lineNext = terminator + 1;
+		}
+		return true;
+	}
+	
+	/**
+	 * Finds the index of the line terminator of the line that starts at the given index.
+	 * A \r that is the last byte of a section that is not the end of the file is not counted, since it might be followed by a \n in the next section.
+	 * @param start Index in the buffer where the line starts
+	 * @return index of the line terminator, or -1 if the line does not end in the mapped section
+	 */
+	private int findLineEnd(int start) {
+		boolean lastSection = mappedStart + buffer.limit() >= end;
+		for (int i = start; i < buffer.limit(); i++) {
+			byte b = buffer.get(i);
+			if (b == '\n') {
+				return i;
+			}
+			if (b == '\r') {
+				return i + 1 < buffer.limit() || lastSection ? i : -1;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Creates a String using the bytes of the mapped section between start and end.
+	 * @param start Index of the first byte of the line
+	 * @param end Index after the last byte of the line
+	 * @return the decoded line
+	 */
+	private String decode(int start, int end) {
+		int length = end - start;
+		if (length > lineBytes.length) {
+			lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+		}
+		buffer.position(start);
+		buffer.get(lineBytes, 0, length);
+		return new String(lineBytes, 0, length, charset);
+	}
+	
+	/**
+	 * Closes the channel of the mapped file if it was opened by this reader.
+	 * @throws IOException if the channel cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (ownsChannel) {
+			channel.close();
+		}
+	}
+}
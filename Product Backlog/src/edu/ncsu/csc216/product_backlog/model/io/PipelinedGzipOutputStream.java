@@ -0,0 +1,211 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class that gzip compresses the bytes written to it on a background thread, so the products are serialized while earlier bytes are compressed.
+ * Bytes are collected into blocks and handed to the compression thread through a small queue, so a writer that is faster than the
+ * compression waits instead of holding the whole file in memory.
+ * An error from the compression thread is thrown from the next write or from close.
+ * @author Daniel Avisse
+ *
+ */
+class PipelinedGzipOutputStream extends OutputStream {
+	
+	/** Number of bytes in each block that is handed to the compression thread **/
+	static final int BLOCK_SIZE = 64 * 1024;
+	
+	/** Number of blocks that can wait to be compressed before the writer waits **/
+	private static final int QUEUE_SIZE = 4;
+	
+	/** Block that tells the compression thread there are no more bytes **/
+	private static final byte[] END = new byte[0];
+	
+	/** Blocks waiting to be compressed **/
+	private BlockingQueue<byte[]> blocks;
+	
+	/** Block that bytes are being written to **/
+	private byte[] block;
+	
+	/** Number of bytes written to the current block **/
+	private int count;
+	
+	/** Thread that compresses the blocks **/
+	private Thread compressor;
+	
+	/** Error from the compression thread, or null if there has not been one **/
+	private volatile IOException failure;
+	
+	/** True once the stream has been closed **/
+	private boolean closed;
+	
+	/**
+	 * Constructs a PipelinedGzipOutputStream that writes the compressed bytes to out and starts its compression thread.
+	 * The stream that is given is closed when this stream is closed.
+	 * @param out Stream the compressed bytes are written to
+	 * @throws IOException if the gzip header cannot be written
+	 */
+	PipelinedGzipOutputStream(OutputStream out) throws IOException {
+		GZIPOutputStream gzip = new GZIPOutputStream(out, BLOCK_SIZE);
+		blocks = new ArrayBlockingQueue<byte[]>(QUEUE_SIZE);
+		block = new byte[BLOCK_SIZE];
+		compressor = new Thread(() -> compress(gzip), "Product Backlog Compression");
+		compressor.setDaemon(true);
+		compressor.start();
+	}
+	
+	/**
+	 * Compresses blocks until the end block is reached and then finishes the gzip stream.
+	 * After an error the remaining blocks are still taken from the queue so the writer is never left waiting.
+	 * @param gzip Stream the blocks are compressed with
+	 */
+	private void compress(GZIPOutputStream gzip) {
+		try {
+			byte[] next = blocks.take();
+			while (next != END) {
+				if (failure == null) {
+					try {
+						gzip.write(next);
+					}
+					catch (IOException e) {
+						failure = e;
+					}
+				}
+				next = blocks.take();
+			}
+		}
+		catch (InterruptedException e) {
+			failure = new InterruptedIOException("Compression was interrupted.");
+		}
+		try {
+			gzip.close();
+		}
+		catch (IOException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+	}
+	
+	/**
+	 * Writes a single byte.
+	 * @param b Byte that is written
+	 * @throws IOException if the stream is closed or the compression thread has failed
+	 */
+	@Override
+	public void write(int b) throws IOException {
+		if (count == block.length || closed) {
+			handOff();
+		}
+		block[count++] = (byte) b;
+	}
+	
+	/**
+	 * Writes part of an array of bytes.
+	 * @param bytes Array that is written from
+	 * @param off Index of the first byte that is written
+	 * @param len Number of bytes that are written
+	 * @throws IOException if the stream is closed or the compression thread has failed
+	 */
+	@Override
+	public void write(byte[] bytes, int off, int len) throws IOException {
+		if (closed) {
+			checkOpen();
+		}
+		while (len > 0) {
+			if (count == block.length) {
+				handOff();
+			}
+			int copied = Math.min(len, block.length - count);
+			System.arraycopy(bytes, off, block, count, copied);
+			count += copied;
+			off += copied;
+			len -= copied;
+		}
+	}
+	
+	/**
+	 * Hands the bytes that have been written to the compression thread.
+	 * Bytes are not forced out of the compressor, since doing so would make the file larger.
+	 * @throws IOException if the stream is closed or the compression thread has failed
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (count > 0) {
+			handOff();
+		}
+	}
+	
+	/**
+	 * Hands the current block to the compression thread and starts a new one.
+	 * @throws IOException if the stream is closed or the compression thread has failed
+	 */
+	private void handOff() throws IOException {
+		checkOpen();
+		put(count == block.length ? block : Arrays.copyOf(block, count));
+		block = new byte[BLOCK_SIZE];
+		count = 0;
+	}
+	
+	/**
+	 * Adds a block to the queue, waiting if the compression thread is behind.
+	 * @param next Block that is added
+	 * @throws IOException if the thread is interrupted while it waits
+	 */
+	private void put(byte[] next) throws IOException {
+		try {
+			blocks.put(next);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Compression was interrupted.");
+		}
+	}
+	
+	/**
+	 * Checks that the stream is open and the compression thread has not failed.
+	 * @throws IOException if the stream is closed or the compression thread has failed
+	 */
+	private void checkOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream is closed.");
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+	
+	/**
+	 * Hands the last bytes to the compression thread and waits for it to finish writing the file.
+	 * @throws IOException if the compression thread failed or the thread is interrupted while it waits
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+		}
+		finally {
+			closed = true;
+			put(END);
+		}
+		try {
+			compressor.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Compression was interrupted.");
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Class that keeps the products parsed from sections of files, keyed by a hash of the bytes of each section,
+ * so a section that has not changed since it was last read is not parsed again, even if the file was edited somewhere else.
+ * The cache keeps products made with Product.share and gives out more of them, so the store of a section's products is only copied
+ * when one of them is about to change, and products that are changed after they are loaded never change what is cached. The cache is bounded by the total size of the sections it holds, removing the least recently used sections
+ * once it is over that size, and the products are held with soft references so the cache gives up its memory before the program runs out.
+ * @author Daniel Avisse
+ *
+ */
+class ProductCache {
+	
+	/** Largest total number of bytes of the sections that are cached before the least recently used ones are removed **/
+	private long maxBytes;
+	
+	/** Total number of bytes of the sections that are cached **/
+	private long bytes;
+	
+	/** Cached products of each section, keyed by the hash of the section, in least recently used order **/
+	private LinkedHashMap<Long, Entry> entries;
+	
+	/** Number of sections that were found in the cache **/
+	private int hits;
+	
+	/** Number of sections that were not found in the cache **/
+	private int misses;
+	
+	/**
+	 * Constructs a ProductCache that holds sections up to a total of maxBytes bytes.
+	 * @param maxBytes Largest total number of bytes of the sections that are cached
+	 */
+	ProductCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Computes a 64 bit hash of the bytes of a section of a file, made from the CRC32C and CRC32 of the bytes.
+	 * Both checksums are computed directly on the mapped bytes of the file.
+	 * @param channel Channel of the file
+	 * @param start Position in the file where the section starts
+	 * @param end Position in the file where the section ends
+	 * @return the hash of the section
+	 * @throws IOException if the section cannot be mapped
+	 */
+	static long hash(FileChannel channel, long start, long end) throws IOException {
+		CRC32C crc32c = new CRC32C();
+		CRC32 crc32 = new CRC32();
+		long position = start;
+		while (position < end) {
+			long size = Math.min(end - position, MappedLineReader.MAX_MAPPED_SIZE);
+			MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, position, size);
+			crc32c.update(bytes);
+			bytes.rewind();
+			crc32.update(bytes);
+			position += size;
+		}
+		return crc32c.getValue() << 32 | crc32.getValue();
+	}
+	
+	/**
+	 * Gets products that share the stores of the products that were cached for a section with the same hash and length.
+	 * @param hash Hash of the section
+	 * @param length Number of bytes in the section
+	 * @return products that share the cached products, or null if the section is not cached
+	 */
+	synchronized ArrayList<Product> get(long hash, long length) {
+		Entry entry = entries.get(hash);
+		ArrayList<Product> products = entry == null || entry.length != length ? null : entry.products.get();
+		if (products == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return share(products);
+	}
+	
+	/**
+	 * Caches products that share the stores of the products that were parsed from a section, removing the least recently used sections
+	 * until the cache is no larger than maxBytes. A section larger than maxBytes is not cached.
+	 * @param hash Hash of the section
+	 * @param length Number of bytes in the section
+	 * @param products Products that were parsed from the section
+	 */
+	synchronized void put(long hash, long length, ArrayList<Product> products) {
+		if (length > maxBytes) {
+			return;
+		}
+		Entry old = entries.put(hash, new Entry(length, share(products)));
+		bytes += length - (old == null ? 0 : old.length);
+		removeEldest();
+	}
+	
+	/**
+	 * Sets the largest total number of bytes of the sections that are cached, removing the least recently used sections
+	 * until the cache is no larger than that.
+	 * @param maxBytes Largest total number of bytes of the sections that are cached, or 0 to cache nothing
+	 * @throws IllegalArgumentException if maxBytes is negative
+	 */
+	synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Invalid cache size.");
+		}
+		this.maxBytes = maxBytes;
+		removeEldest();
+	}
+	
+	/**
+	 * Gets the largest total number of bytes of the sections that are cached.
+	 * @return the size of the cache
+	 */
+	synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+	
+	/**
+	 * Gets the total number of bytes of the sections that are cached.
+	 * @return the number of bytes
+	 */
+	synchronized long getBytes() {
+		return bytes;
+	}
+	
+	/**
+	 * Removes every section from the cache and resets its counts.
+	 */
+	synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+		hits = 0;
+		misses = 0;
+	}
+	
+	/**
+	 * Gets the number of sections that were found in the cache.
+	 * @return the number of hits
+	 */
+	synchronized int getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Gets the number of sections that were not found in the cache.
+	 * @return the number of misses
+	 */
+	synchronized int getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Helper method that removes the least recently used sections until the cache is no larger than maxBytes.
+	 */
+	private void removeEldest() {
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (bytes > maxBytes) {
+			bytes -= eldest.next().length;
+			eldest.remove();
+		}
+	}
+	
+	/**
+	 * Helper method that makes a product with Product.share for each product, so no task is copied.
+	 * @param products Products whose stores are shared
+	 * @return the products that share them, in the same order
+	 */
+	private static ArrayList<Product> share(ArrayList<Product> products) {
+		ArrayList<Product> shared = new ArrayList<Product>(products.size());
+		for (int i = 0; i < products.size(); i++) {
+			shared.add(products.get(i).share());
+		}
+		return shared;
+	}
+	
+	/**
+	 * Class that holds the cached products of a section and the length of the section.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Entry {
+		
+		/** Number of bytes in the section **/
+		private long length;
+		
+		/** Products of the section, which are released if memory runs low **/
+		private SoftReference<ArrayList<Product>> products;
+		
+		/**
+		 * Constructs an Entry for the products of a section.
+		 * @param length Number of bytes in the section
+		 * @param products Products of the section
+		 */
+		private Entry(long length, ArrayList<Product> products) {
+			this.length = length;
+			this.products = new SoftReference<ArrayList<Product>>(products);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+/**
+ * Class that records where the lines of a product are found in a file.
+ * A section starts at the line with the name of the product and ends where the next section starts, so it can be read without reading the rest of the file.
+ * @author Daniel Avisse
+ *
+ */
+public class ProductSection {
+	
+	/** Name of the product at the start of the section **/
+	private String productName;
+	
+	/** Position in the file where the section starts **/
+	private long start;
+	
+	/** Position in the file where the section ends **/
+	private long end;
+	
+	/**
+	 * Constructs a ProductSection with the name of its product and the range of the file it covers.
+	 * @param productName Name of the product at the start of the section, or null if the section does not have a product name
+	 * @param start Position in the file where the section starts
+	 * @param end Position in the file where the section ends
+	 */
+	ProductSection(String productName, long start, long end) {
+		this.productName = productName;
+		this.start = start;
+		this.end = end;
+	}
+	
+	/**
+	 * Gets the name of the product at the start of the section
+	 * @return the name of the product, or null if the section does not have a product name
+	 */
+	public String getProductName() {
+		return productName;
+	}
+	
+	/**
+	 * Gets the position in the file where the section starts
+	 * @return the position where the section starts
+	 */
+	public long getStart() {
+		return start;
+	}
+	
+	/**
+	 * Gets the position in the file where the section ends
+	 * @return the position where the section ends
+	 */
+	public long getEnd() {
+		return end;
+	}
+	
+	/**
+	 * Sets the position in the file where the section ends
+	 * @param end the position where the section ends
+	 */
+	void setEnd(long end) {
+		this.end = end;
+	}
+}
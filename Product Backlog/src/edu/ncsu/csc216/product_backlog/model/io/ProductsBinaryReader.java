@@ -0,0 +1,191 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that reads a binary file written by ProductsBinaryWriter and creates products and tasks using that file.
+ * The products that are returned are the same as the ones ProductsReader returns for the text file of the same products.
+ * @author Daniel Avisse
+ *
+ */
+public class ProductsBinaryReader {
+	
+	/** Largest length of a String or number of items in a list that is read, so a damaged file cannot ask for a huge array **/
+	static final int MAX_LENGTH = 1 << 24;
+	
+	/**
+	 * Checks if a file starts with the bytes of a binary backlog file.
+	 * @param fileName Name of the file
+	 * @return true if the file is a binary backlog file, or false if it is not or cannot be read
+	 */
+	public static boolean isBinaryFile(String fileName) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+			return in.readInt() == ProductsBinaryWriter.MAGIC;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Reads in the binary file that will be used to import products and tasks.
+	 * @param fileName Name of the file
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file or the file is not a valid binary backlog file
+	 */
+	public static ArrayList<Product> readProductsFile(String fileName) {
+		ArrayList<Product> products;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+			if (in.readInt() != ProductsBinaryWriter.MAGIC) {
+				throw new IllegalArgumentException("Unable to read file.");
+			}
+			products = readProducts(in);
+		}
+		catch (FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException | UncheckedIOException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		ProductsReader.removeInvalidProducts(products);
+		return products;
+	}
+	
+	/**
+	 * Reads the dictionary and then every product and its tasks, which is everything in a binary file after MAGIC.
+	 * Invalid products are not removed. Every length and count is checked with readLength before it is used,
+	 * and lists are grown as their items are read, so a count that is too large fails at the end of the stream instead of allocating.
+	 * @param in Stream of the file
+	 * @return the products that were read
+	 * @throws IOException if the products cannot be read
+	 * @throws IndexOutOfBoundsException if a code or index of a task is invalid
+	 * @throws IllegalArgumentException if a task, length or count is invalid
+	 */
+	static ArrayList<Product> readProducts(DataInputStream in) throws IOException {
+		int dictionarySize = readLength(in);
+		ArrayList<String> dictionary = new ArrayList<String>();
+		for (int i = 0; i < dictionarySize; i++) {
+			dictionary.add(readString(in));
+		}
+		int productCount = readLength(in);
+		ArrayList<Product> products = new ArrayList<Product>();
+		for (int i = 0; i < productCount; i++) {
+			Product product = ProductsReader.createProduct(dictionary.get(readVarInt(in)));
+			int taskCount = readLength(in);
+			ArrayList<Task> tasks = new ArrayList<Task>();
+			for (int j = 0; j < taskCount; j++) {
+				tasks.add(readTask(in, dictionary));
+			}
+			product.addTasks(tasks);
+			products.add(product);
+		}
+		return products;
+	}
+	
+	/**
+	 * Helper method that reads a single task and its notes.
+	 * @param in Stream of the file
+	 * @param dictionary Strings of the dictionary in the order they were written
+	 * @return the task that was read
+	 * @throws IOException if the task cannot be read
+	 * @throws IndexOutOfBoundsException if a code or index of the task is invalid
+	 * @throws IllegalArgumentException if the task or the number of its notes is invalid
+	 */
+	private static Task readTask(DataInputStream in, ArrayList<String> dictionary) throws IOException {
+		int taskId = readVarInt(in);
+		String state = Task.getStateNameOf(in.readUnsignedByte());
+		String type = ProductsBinaryWriter.TYPE_NAMES[in.readUnsignedByte()];
+		String verified = String.valueOf(in.readBoolean());
+		String title = readString(in);
+		String creator = dictionary.get(readVarInt(in));
+		String owner = dictionary.get(readVarInt(in));
+		int noteCount = readLength(in);
+		ArrayList<String> notes = new ArrayList<String>();
+		for (int i = 0; i < noteCount; i++) {
+			notes.add(readNote(in));
+		}
+		if (notes.isEmpty()) {
+			//The product of a task without notes is removed as invalid.
+			return Task.createWithoutNotes(taskId, state, title, type, creator, owner, verified);
+		}
+		return new Task(taskId, state, title, type, creator, owner, verified, notes);
+	}
+	
+	/**
+	 * Helper method that reads a note written with ProductsBinaryWriter.writeNote, adding back its [State] prefix if it had one.
+	 * @param in Stream of the file
+	 * @return the note that was read
+	 * @throws IOException if the note cannot be read
+	 * @throws IndexOutOfBoundsException if the code of the note is invalid
+	 * @throws IllegalArgumentException if the length of the note is invalid
+	 */
+	static String readNote(DataInputStream in) throws IOException {
+		int code = in.readUnsignedByte();
+		String note = readString(in);
+		if (code == ProductsBinaryWriter.NOTE_RAW) {
+			return note;
+		}
+		return "[" + Task.getStateNameOf(code - 1) + "] " + note;
+	}
+	
+	/**
+	 * Helper method that reads a String written as a varint length followed by its UTF-8 bytes.
+	 * @param in Stream of the file
+	 * @return the String that was read
+	 * @throws IOException if the String cannot be read
+	 * @throws IllegalArgumentException if the length of the String is invalid
+	 */
+	static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Helper method that reads a length or count written as a varint and checks it before anything is allocated with it.
+	 * A value that is more than MAX_LENGTH cannot have been written by ProductsBinaryWriter. A smaller value that is more than
+	 * what is left in the stream is caught when reading the bytes or items it counts runs past the end of the stream.
+	 * @param in Stream of the file
+	 * @return the length that was read
+	 * @throws IOException if the length cannot be read
+	 * @throws IllegalArgumentException if the length is more than MAX_LENGTH
+	 */
+	static int readLength(DataInputStream in) throws IOException {
+		int length = readVarInt(in);
+		if (length > MAX_LENGTH) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		return length;
+	}
+	
+	/**
+	 * Helper method that reads a non-negative int written with ProductsBinaryWriter.writeVarInt.
+	 * @param in Stream of the file
+	 * @return the value that was read
+	 * @throws IOException if the value cannot be read or is not a non-negative int
+	 */
+	static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					throw new IOException("Invalid varint.");
+				}
+				return value;
+			}
+		}
+		throw new IOException("Invalid varint.");
+	}
+}
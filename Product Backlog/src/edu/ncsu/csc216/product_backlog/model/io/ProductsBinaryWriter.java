@@ -0,0 +1,169 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that outputs a ProductBacklog to a new file in a compact binary format.
+ * The file starts with MAGIC and a dictionary of the product names, creators and owners so that each one is only stored once
+ * and tasks refer to them by their index in the dictionary.
+ * Task ids, counts and indexes are stored as varints, the state and type of a task are stored as one byte codes,
+ * and notes are stored as length prefixed UTF-8 without the [State] prefix when it matches one of the states.
+ * Files written by this class are read with ProductsBinaryReader.
+ * @author Daniel Avisse
+ *
+ */
+public class ProductsBinaryWriter {
+	
+	/** Bytes at the start of every binary backlog file **/
+	public static final int MAGIC = 0x50424B31;
+	
+	/** Short names of the types in the order of their one byte codes, which is the order of Task.Type **/
+	static final String[] TYPE_NAMES = {Task.T_FEATURE, Task.T_BUG, Task.T_TECHNICAL_WORK, Task.T_KNOWLEDGE_ACQUISITION};
+	
+	/** Note code for a note that is stored with its whole text **/
+	static final int NOTE_RAW = 0;
+	
+	/**
+	 * Outputs the current ProductBacklog with all the tasks and products to a new binary file.
+	 * The file is written to a temporary file first and then moved over filename, so a failed save leaves the old file in place.
+	 * @param filename Name of the file.
+	 * @param products ArrayList containing the products that will be outputted.
+	 * @throws IllegalArgumentException if unable to output to a new file
+	 */
+	public static void writeProductsToFile(String filename, ArrayList<Product> products) {
+		String tempFileName = filename + ".tmp";
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFileName)))) {
+			out.writeInt(MAGIC);
+			writeProducts(out, products);
+		}
+		catch (IOException e) {
+			new File(tempFileName).delete();
+			throw new IllegalArgumentException("Cannont save file");
+		}
+		ProductsWriter.replaceFile(tempFileName, filename);
+	}
+	
+	/**
+	 * Writes the dictionary and then every product and its tasks, which is everything in a binary file after MAGIC.
+	 * @param out Stream of the file
+	 * @param products ArrayList containing the products that will be outputted.
+	 * @throws IOException if the products cannot be written
+	 */
+	static void writeProducts(DataOutputStream out, ArrayList<Product> products) throws IOException {
+		ArrayList<String> dictionary = new ArrayList<String>();
+		HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+		for (int i = 0; i < products.size(); i++) {
+			addToDictionary(products.get(i).getProductName(), dictionary, indexes);
+			List<Task> tasks = products.get(i).getTasks();
+			for (int j = 0; j < tasks.size(); j++) {
+				addToDictionary(tasks.get(j).getCreator(), dictionary, indexes);
+				addToDictionary(tasks.get(j).getOwner(), dictionary, indexes);
+			}
+		}
+		writeVarInt(out, dictionary.size());
+		for (int i = 0; i < dictionary.size(); i++) {
+			writeString(out, dictionary.get(i));
+		}
+		writeVarInt(out, products.size());
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			writeVarInt(out, indexes.get(product.getProductName()));
+			List<Task> tasks = product.getTasks();
+			writeVarInt(out, tasks.size());
+			for (int j = 0; j < tasks.size(); j++) {
+				writeTask(out, tasks.get(j), indexes);
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that adds a String to the dictionary if it is not already in it.
+	 * @param value String that is added
+	 * @param dictionary Strings in the order they are written to the file
+	 * @param indexes Index of each String in the dictionary
+	 */
+	private static void addToDictionary(String value, ArrayList<String> dictionary, HashMap<String, Integer> indexes) {
+		if (!indexes.containsKey(value)) {
+			indexes.put(value, dictionary.size());
+			dictionary.add(value);
+		}
+	}
+	
+	/**
+	 * Helper method that writes a single task and its notes.
+	 * @param out Stream of the file
+	 * @param task Task that is written
+	 * @param indexes Index of each String in the dictionary
+	 * @throws IOException if the task cannot be written
+	 */
+	private static void writeTask(DataOutputStream out, Task task, HashMap<String, Integer> indexes) throws IOException {
+		writeVarInt(out, task.getTaskId());
+		out.writeByte(Task.getStateCode(task.getStateName()));
+		out.writeByte(task.getType().ordinal());
+		out.writeBoolean(task.isVerified());
+		writeString(out, task.getTitle());
+		writeVarInt(out, indexes.get(task.getCreator()));
+		writeVarInt(out, indexes.get(task.getOwner()));
+		writeVarInt(out, task.getNoteCount());
+		for (int i = 0; i < task.getNoteCount(); i++) {
+			writeNote(out, task.getNote(i));
+		}
+	}
+	
+	/**
+	 * Helper method that writes a note, replacing its [State] prefix with the code of the state when it has one.
+	 * The code is one more than the index of the state, and NOTE_RAW means the whole note follows.
+	 * @param out Stream of the file
+	 * @param note Note that is written
+	 * @throws IOException if the note cannot be written
+	 */
+	static void writeNote(DataOutputStream out, String note) throws IOException {
+		for (int i = 0; i < Task.STATE_COUNT; i++) {
+			String prefix = "[" + Task.getStateNameOf(i) + "] ";
+			if (note.startsWith(prefix)) {
+				out.writeByte(i + 1);
+				writeString(out, note.substring(prefix.length()));
+				return;
+			}
+		}
+		out.writeByte(NOTE_RAW);
+		writeString(out, note);
+	}
+	
+	/**
+	 * Helper method that writes a String as a varint length followed by its UTF-8 bytes.
+	 * @param out Stream of the file
+	 * @param value String that is written
+	 * @throws IOException if the String cannot be written
+	 */
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+	
+	/**
+	 * Helper method that writes a non-negative int using seven bits per byte, with the high bit set on every byte except the last.
+	 * @param out Stream of the file
+	 * @param value Value that is written
+	 * @throws IOException if the value cannot be written
+	 */
+	static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+}
@@ -0,0 +1,347 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Class that reads and writes a ProductBacklog stored as a directory with one shard file for each product.
+ * The manifest file of the directory lists the shard files in the order of the products, and each shard is a file in the
+ * same format as ProductsWriter writes with only one product in it.
+ * Shards are read and written at the same time on a ForkJoinPool, and a product that has not changed keeps its shard so it is not written again.
+ * A changed product is always written to a new shard, so the old manifest and its shards stay valid until the new manifest replaces it.
+ * The new manifest is only written once every new shard has been written without an error.
+ * @author Daniel Avisse
+ *
+ */
+public class ProductsDirectory {
+	
+	/** Name of the file in the directory that lists the shards **/
+	public static final String MANIFEST_NAME = "manifest.txt";
+	
+	/** Start of the name of every shard file **/
+	private static final String SHARD_PREFIX = "product-";
+	
+	/** End of the name of every shard file **/
+	private static final String SHARD_EXTENSION = ".txt";
+	
+	/**
+	 * Checks if a name is a directory that has a manifest.
+	 * @param directoryName Name of the directory
+	 * @return true if the directory exists and has a manifest
+	 */
+	public static boolean isProductsDirectory(String directoryName) {
+		return Files.isRegularFile(Paths.get(directoryName, MANIFEST_NAME));
+	}
+	
+	/**
+	 * Reads the products of every shard listed in the manifest of a directory.
+	 * The products are returned in the order of the manifest and each one is read the same way ProductsReader reads a file.
+	 * @param directoryName Name of the directory
+	 * @param shards Map that the shard of each product is added to, for products that are the only product in their shard
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read the manifest or a shard
+	 */
+	public static ArrayList<Product> readProductsDirectory(String directoryName, Map<Product, String> shards) {
+		ArrayList<String> shardNames = readManifest(directoryName);
+		if (shardNames == null) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		ArrayList<ArrayList<Product>> shardProducts = new ArrayList<ArrayList<Product>>();
+		for (int i = 0; i < shardNames.size(); i++) {
+			shardProducts.add(null);
+		}
+		ForkJoinPool.commonPool().invoke(new ReadShardsTask(directoryName, shardNames, shardProducts, 0, shardNames.size()));
+		ArrayList<Product> products = new ArrayList<Product>();
+		for (int i = 0; i < shardNames.size(); i++) {
+			ArrayList<Product> read = shardProducts.get(i);
+			if (read.size() == 1) {
+				shards.put(read.get(0), shardNames.get(i));
+			}
+			products.addAll(read);
+		}
+		return products;
+	}
+	
+	/**
+	 * Writes the products to a directory, creating it if it does not exist.
+	 * A product that has a shard in previousShards is not written again, and every other product is written to a new shard.
+	 * The manifest is replaced once every shard has been written, and the shards of the old manifest that are no longer used are deleted.
+	 * @param directoryName Name of the directory
+	 * @param products ArrayList containing the products that will be outputted.
+	 * @param previousShards Shards in the directory that hold the current contents of a product
+	 * @return the shard of each product
+	 * @throws IllegalArgumentException if unable to write the directory
+	 */
+	public static HashMap<Product, String> writeProductsDirectory(String directoryName, ArrayList<Product> products, Map<Product, String> previousShards) {
+		ArrayList<String> oldShardNames;
+		try {
+			Files.createDirectories(Paths.get(directoryName));
+			oldShardNames = readManifest(directoryName);
+		}
+		catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Cannont save file");
+		}
+		HashSet<String> used = new HashSet<String>();
+		if (oldShardNames != null) {
+			used.addAll(oldShardNames);
+		}
+		used.addAll(previousShards.values());
+		
+		HashMap<Product, String> shards = new HashMap<Product, String>();
+		ArrayList<String> shardNames = new ArrayList<String>();
+		ArrayList<Product> changed = new ArrayList<Product>();
+		ArrayList<String> changedNames = new ArrayList<String>();
+		int next = 1;
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			String shardName = previousShards.get(product);
+			if (shardName == null) {
+				while (used.contains(SHARD_PREFIX + next + SHARD_EXTENSION)) {
+					next++;
+				}
+				shardName = SHARD_PREFIX + next + SHARD_EXTENSION;
+				used.add(shardName);
+				changed.add(product);
+				changedNames.add(shardName);
+			}
+			shards.put(product, shardName);
+			shardNames.add(shardName);
+		}
+		if (!changed.isEmpty()) {
+			try {
+				ForkJoinPool.commonPool().invoke(new WriteShardsTask(directoryName, changed, changedNames, 0, changed.size()));
+			}
+			catch (IllegalArgumentException e) {
+				deleteShards(directoryName, changedNames);
+				throw new IllegalArgumentException("Cannont save file");
+			}
+		}
+		try {
+			writeManifest(directoryName, shardNames);
+		}
+		catch (IllegalArgumentException e) {
+			deleteShards(directoryName, changedNames);
+			throw e;
+		}
+		
+		if (oldShardNames != null) {
+			HashSet<String> current = new HashSet<String>(shardNames);
+			ArrayList<String> removed = new ArrayList<String>();
+			for (int i = 0; i < oldShardNames.size(); i++) {
+				if (!current.contains(oldShardNames.get(i))) {
+					removed.add(oldShardNames.get(i));
+				}
+			}
+			deleteShards(directoryName, removed);
+		}
+		return shards;
+	}
+	
+	/**
+	 * Helper method that deletes shards that are not listed in the manifest. Anything with the name of a shard that is not a file is left alone.
+	 * @param directoryName Name of the directory
+	 * @param shardNames Names of the shards that are deleted
+	 */
+	private static void deleteShards(String directoryName, ArrayList<String> shardNames) {
+		for (int i = 0; i < shardNames.size(); i++) {
+			Path shard = Paths.get(directoryName, shardNames.get(i));
+			try {
+				if (Files.isRegularFile(shard)) {
+					Files.delete(shard);
+				}
+			}
+			catch (IOException e) {
+				//The shard is not listed in the manifest, so leaving it behind does not change the products
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that reads the names of the shards in the manifest of a directory, skipping blank lines.
+	 * @param directoryName Name of the directory
+	 * @return the names of the shards in product order, or null if the directory does not have a manifest
+	 * @throws IllegalArgumentException if the manifest cannot be read or lists a file outside the directory
+	 */
+	private static ArrayList<String> readManifest(String directoryName) {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(Paths.get(directoryName, MANIFEST_NAME), Charset.defaultCharset());
+		}
+		catch (NoSuchFileException e) {
+			return null;
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		ArrayList<String> shardNames = new ArrayList<String>();
+		for (int i = 0; i < lines.size(); i++) {
+			String shardName = lines.get(i).trim();
+			if (shardName.isEmpty()) {
+				continue;
+			}
+			Path shard = Paths.get(shardName);
+			if (shard.isAbsolute() || shard.getNameCount() != 1 || "..".equals(shardName)) {
+				throw new IllegalArgumentException("Unable to read file.");
+			}
+			shardNames.add(shardName);
+		}
+		return shardNames;
+	}
+	
+	/**
+	 * Helper method that writes the manifest to a temporary file and then moves it over the old manifest.
+	 * @param directoryName Name of the directory
+	 * @param shardNames Names of the shards in product order
+	 * @throws IllegalArgumentException if the manifest cannot be written
+	 */
+	private static void writeManifest(String directoryName, ArrayList<String> shardNames) {
+		String manifestName = Paths.get(directoryName, MANIFEST_NAME).toString();
+		try (PrintStream manifest = new PrintStream(manifestName + ".tmp")) {
+			for (int i = 0; i < shardNames.size(); i++) {
+				manifest.println(shardNames.get(i));
+			}
+			if (manifest.checkError()) {
+				throw new IllegalArgumentException("Cannont save file");
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Cannont save file");
+		}
+		ProductsWriter.replaceFile(manifestName + ".tmp", manifestName);
+	}
+	
+	/**
+	 * Class that reads a range of the shards of a directory, splitting the range in half until there is one shard to read.
+	 * Each shard stores its products at its own index, so the products stay in the order of the manifest.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class ReadShardsTask extends RecursiveAction {
+		
+		/** ID used for serialization **/
+		private static final long serialVersionUID = 1L;
+		
+		/** Name of the directory **/
+		private String directoryName;
+		
+		/** Names of the shards in product order **/
+		private transient ArrayList<String> shardNames;
+		
+		/** Products of each shard, at the index of the shard **/
+		private transient ArrayList<ArrayList<Product>> shardProducts;
+		
+		/** Index of the first shard read by this task **/
+		private int low;
+		
+		/** Index after the last shard read by this task **/
+		private int high;
+		
+		/**
+		 * Constructs a ReadShardsTask for the shards from low up to high.
+		 * @param directoryName Name of the directory
+		 * @param shardNames Names of the shards in product order
+		 * @param shardProducts Products of each shard, at the index of the shard
+		 * @param low Index of the first shard
+		 * @param high Index after the last shard
+		 */
+		private ReadShardsTask(String directoryName, ArrayList<String> shardNames, ArrayList<ArrayList<Product>> shardProducts, int low, int high) {
+			this.directoryName = directoryName;
+			this.shardNames = shardNames;
+			this.shardProducts = shardProducts;
+			this.low = low;
+			this.high = high;
+		}
+		
+		/**
+		 * Reads the shards of this task, splitting the work if there is more than one shard.
+		 * @throws IllegalArgumentException if a shard cannot be read
+		 */
+		@Override
+		protected void compute() {
+			if (high - low == 1) {
+				shardProducts.set(low, ProductsReader.readProductsFile(Paths.get(directoryName, shardNames.get(low)).toString()));
+			}
+			else if (high - low > 1) {
+				int middle = (low + high) / 2;
+				invokeAll(new ReadShardsTask(directoryName, shardNames, shardProducts, low, middle),
+						new ReadShardsTask(directoryName, shardNames, shardProducts, middle, high));
+			}
+		}
+	}
+	
+	/**
+	 * Class that writes a range of products to their shards, splitting the range in half until there is one product to write.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class WriteShardsTask extends RecursiveAction {
+		
+		/** ID used for serialization **/
+		private static final long serialVersionUID = 1L;
+		
+		/** Name of the directory **/
+		private String directoryName;
+		
+		/** Products that are written **/
+		private transient ArrayList<Product> products;
+		
+		/** Name of the shard of each product, at the index of the product **/
+		private transient ArrayList<String> shardNames;
+		
+		/** Index of the first product written by this task **/
+		private int low;
+		
+		/** Index after the last product written by this task **/
+		private int high;
+		
+		/**
+		 * Constructs a WriteShardsTask for the products from low up to high.
+		 * @param directoryName Name of the directory
+		 * @param products Products that are written
+		 * @param shardNames Name of the shard of each product
+		 * @param low Index of the first product
+		 * @param high Index after the last product
+		 */
+		private WriteShardsTask(String directoryName, ArrayList<Product> products, ArrayList<String> shardNames, int low, int high) {
+			this.directoryName = directoryName;
+			this.products = products;
+			this.shardNames = shardNames;
+			this.low = low;
+			this.high = high;
+		}
+		
+		/**
+		 * Writes the products of this task, splitting the work if there is more than one product.
+		 * Each shard is written through a FileChannel, which throws on any error instead of hiding it the way a PrintStream does.
+		 * @throws IllegalArgumentException if a shard cannot be written
+		 */
+		@Override
+		protected void compute() {
+			if (high - low == 1) {
+				ArrayList<Product> shard = new ArrayList<Product>();
+				shard.add(products.get(low));
+				ProductsWriter.writeProductsToFile(Paths.get(directoryName, shardNames.get(low)).toString(), shard, null,
+						new HashMap<Product, ProductSection>(), false);
+			}
+			else if (high - low > 1) {
+				int middle = (low + high) / 2;
+				invokeAll(new WriteShardsTask(directoryName, products, shardNames, low, middle),
+						new WriteShardsTask(directoryName, products, shardNames, middle, high));
+			}
+		}
+	}
+}
@@ -0,0 +1,565 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Class that keeps a ProductBacklog saved by appending a short record for every change to a journal file instead of rewriting every product.
+ * The products are rebuilt by reading the last snapshot file and then replaying the records in the journal.
+ * Compacting the journal writes a new snapshot with ProductsWriter and empties the journal.
+ * The journal starts with a record that names the snapshot it applies to by a hash of the bytes of the snapshot, so if the program stops
+ * after a new snapshot is moved into place but before the old journal is replaced, the old records are not applied to the new snapshot again.
+ * Records are written in batches and each batch is forced to disk when it is flushed, so if the program or the system stops unexpectedly
+ * only the records that have not been flushed yet are lost. A record at the end of the journal that was only partly written is removed
+ * when the journal is opened.
+ * @author Daniel Avisse
+ *
+ */
+public class ProductsJournal {
+	
+	/** Separates the fields of a record **/
+	private static final char DELIMITER = '\t';
+	
+	/** Record for adding a product **/
+	private static final String ADD_PRODUCT = "P";
+	
+	/** Record for editing the name of a product **/
+	private static final String EDIT_PRODUCT = "R";
+	
+	/** Record for deleting a product **/
+	private static final String DELETE_PRODUCT = "D";
+	
+	/** Record for adding a task to a product **/
+	private static final String ADD_TASK = "A";
+	
+	/** Record for deleting a task from a product **/
+	private static final String DELETE_TASK = "X";
+	
+	/** Record for executing a command on a task **/
+	private static final String COMMAND = "C";
+	
+	/** Record at the start of the journal with the hash of the snapshot the journal applies to **/
+	private static final String SNAPSHOT = "S";
+	
+	/** Number of bytes read at a time when looking for the end of the last whole record **/
+	private static final int SCAN_BUFFER_SIZE = 4096;
+	
+	/** Name of the snapshot file **/
+	private String snapshotFileName;
+	
+	/** Name of the journal file **/
+	private String journalFileName;
+	
+	/** Writer that appends records to the journal file **/
+	private BufferedWriter journalWriter;
+	
+	/** Stream under journalWriter, whose channel is forced to disk when the journal is flushed **/
+	private FileOutputStream journalStream;
+	
+	/** Number of records that are written before the journal is flushed **/
+	private int batchSize;
+	
+	/** Number of records that have been written but not flushed **/
+	private int unflushedRecords;
+	
+	/** Number of records in the journal after which it should be compacted **/
+	private int compactionThreshold;
+	
+	/** Number of records in the journal since the last snapshot **/
+	private int journalRecords;
+	
+	/**
+	 * Constructs a ProductsJournal that uses the given snapshot and journal files.
+	 * @param snapshotFileName Name of the snapshot file
+	 * @param journalFileName Name of the journal file
+	 * @param batchSize Number of records that are written before the journal is flushed
+	 * @param compactionThreshold Number of records in the journal after which it should be compacted
+	 * @throws IllegalArgumentException if the file names are invalid or the sizes are not positive
+	 */
+	public ProductsJournal(String snapshotFileName, String journalFileName, int batchSize, int compactionThreshold) {
+		if (snapshotFileName == null || "".equals(snapshotFileName) || journalFileName == null || "".equals(journalFileName)
+				|| snapshotFileName.equals(journalFileName) || batchSize <= 0 || compactionThreshold <= 0) {
+			throw new IllegalArgumentException("Invalid journal.");
+		}
+		this.snapshotFileName = snapshotFileName;
+		this.journalFileName = journalFileName;
+		this.batchSize = batchSize;
+		this.compactionThreshold = compactionThreshold;
+	}
+	
+	/**
+	 * Rebuilds the products from the snapshot file and the records in the journal, then opens the journal so new records can be added.
+	 * Missing files are treated as empty and records that cannot be applied are skipped. A last record that does not end with a line separator
+	 * was only partly written, so it is cut from the journal before the records are replayed.
+	 * A journal that names a different snapshot than the one on disk was replaced by a compaction that did not finish, so its records
+	 * are already in the snapshot and are skipped. A new journal left by that compaction is moved into place if it names the snapshot.
+	 * @return returns an ArrayList containing the products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read the files
+	 */
+	public ArrayList<Product> open() {
+		ArrayList<Product> products = new ArrayList<Product>();
+		if (new File(snapshotFileName).exists()) {
+			products = ProductsReader.readProductsFile(snapshotFileName);
+		}
+		String snapshotHash = hashSnapshot(snapshotFileName);
+		journalRecords = 0;
+		boolean current = true;
+		boolean empty = true;
+		try {
+			finishCompaction(snapshotHash);
+			if (new File(journalFileName).exists()) {
+				truncatePartialRecord();
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFileName)))) {
+					String line = reader.readLine();
+					if (line != null && line.startsWith(SNAPSHOT + DELIMITER)) {
+						current = snapshotHash.equals(split(line)[1]);
+						line = reader.readLine();
+					}
+					while (line != null && current) {
+						empty = false;
+						replay(products, line);
+						journalRecords++;
+						line = reader.readLine();
+					}
+				}
+			}
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		openWriter(current && !empty);
+		if (!current || empty) {
+			write(SNAPSHOT, snapshotHash);
+			journalRecords = 0;
+			flush();
+		}
+		return products;
+	}
+	
+	/**
+	 * Records that a product was added.
+	 * @param productName Name of the product
+	 */
+	public void recordAddProduct(String productName) {
+		write(ADD_PRODUCT, productName);
+	}
+	
+	/**
+	 * Records that a product was given a new name.
+	 * @param productName Name of the product before it was edited
+	 * @param updateName The new name of the product
+	 */
+	public void recordEditProduct(String productName, String updateName) {
+		write(EDIT_PRODUCT, productName, updateName);
+	}
+	
+	/**
+	 * Records that a product was deleted.
+	 * @param productName Name of the product
+	 */
+	public void recordDeleteProduct(String productName) {
+		write(DELETE_PRODUCT, productName);
+	}
+	
+	/**
+	 * Records that a task was added to a product.
+	 * @param productName Name of the product
+	 * @param id Id that the product gave the task
+	 * @param title Title of the task
+	 * @param type Type for the task
+	 * @param creator Creator of the task
+	 * @param note Note for the task
+	 */
+	public void recordAddTask(String productName, int id, String title, Type type, String creator, String note) {
+		write(ADD_TASK, productName, String.valueOf(id), title, type.name(), creator, note);
+	}
+	
+	/**
+	 * Records that a task was deleted from a product.
+	 * @param productName Name of the product
+	 * @param id Id of the task
+	 */
+	public void recordDeleteTask(String productName, int id) {
+		write(DELETE_TASK, productName, String.valueOf(id));
+	}
+	
+	/**
+	 * Records that a command was executed on a task.
+	 * @param productName Name of the product
+	 * @param id Id of the task
+	 * @param c Command that was executed
+	 */
+	public void recordCommand(String productName, int id, Command c) {
+		String owner = c.getOwner() == null ? "" : c.getOwner();
+		write(COMMAND, productName, String.valueOf(id), c.getCommand().name(), owner, c.getNoteText());
+	}
+	
+	/**
+	 * Checks if the journal has enough records that it should be compacted.
+	 * @return true if the journal should be compacted
+	 */
+	public boolean needsCompaction() {
+		return journalRecords >= compactionThreshold;
+	}
+	
+	/**
+	 * Writes the products to a new snapshot file and empties the journal.
+	 * The snapshot and the new journal are written to temporary files first. The snapshot is moved over the old snapshot and then the
+	 * new journal over the old journal, so a failed compaction keeps the old snapshot and journal, and one that stops between the two moves
+	 * is finished the next time the journal is opened.
+	 * Products without tasks are skipped when a snapshot is read, so a record is added to the new journal for each of them.
+	 * @param products ArrayList containing the products
+	 * @throws IllegalArgumentException if unable to write the files
+	 */
+	public void compact(ArrayList<Product> products) {
+		String tempFileName = snapshotFileName + ".tmp";
+		String tempJournalName = journalFileName + ".tmp";
+		ProductsWriter.writeProductsToFile(tempFileName, products);
+		int emptyProducts = 0;
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempJournalName)))) {
+			writeRecord(writer, SNAPSHOT, hashSnapshot(tempFileName));
+			for (int i = 0; i < products.size(); i++) {
+				if (products.get(i).getTasks().isEmpty()) {
+					writeRecord(writer, ADD_PRODUCT, products.get(i).getProductName());
+					emptyProducts++;
+				}
+			}
+		}
+		catch (IOException e) {
+			new File(tempFileName).delete();
+			new File(tempJournalName).delete();
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		try {
+			closeWriter();
+			Files.move(Paths.get(tempFileName), Paths.get(snapshotFileName), StandardCopyOption.REPLACE_EXISTING);
+			Files.move(Paths.get(tempJournalName), Paths.get(journalFileName), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		openWriter(true);
+		journalRecords = emptyProducts;
+	}
+	
+	/**
+	 * Flushes any records that have not been written to the journal file yet and forces them to disk.
+	 * @throws IllegalArgumentException if unable to write to the journal
+	 */
+	public void flush() {
+		try {
+			journalWriter.flush();
+			journalStream.getChannel().force(false);
+			unflushedRecords = 0;
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Flushes and closes the journal file.
+	 * @throws IllegalArgumentException if unable to write to the journal
+	 */
+	public void close() {
+		try {
+			closeWriter();
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Helper method that moves the new journal of a compaction that stopped after its snapshot was moved into place over the old journal.
+	 * A new journal that names another snapshot is from a compaction that stopped before its snapshot was moved, so it is deleted.
+	 * @param snapshotHash Hash of the snapshot on disk
+	 * @throws IOException if the new journal cannot be read or moved
+	 */
+	private void finishCompaction(String snapshotHash) throws IOException {
+		File tempJournal = new File(journalFileName + ".tmp");
+		if (!tempJournal.exists()) {
+			return;
+		}
+		String header;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(tempJournal)))) {
+			header = reader.readLine();
+		}
+		if (header != null && header.startsWith(SNAPSHOT + DELIMITER) && snapshotHash.equals(split(header)[1])) {
+			Files.move(tempJournal.toPath(), Paths.get(journalFileName), StandardCopyOption.REPLACE_EXISTING);
+		}
+		else {
+			tempJournal.delete();
+		}
+	}
+	
+	/**
+	 * Helper method that cuts the journal back to the end of its last whole record, which is the last line separator in the file.
+	 * Without this, the first record written after opening the journal would be added to the end of the partial record.
+	 * @throws IOException if the journal cannot be read or truncated
+	 */
+	private void truncatePartialRecord() throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(journalFileName), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long end = findRecordsEnd(channel);
+			if (end < channel.size()) {
+				channel.truncate(end);
+				channel.force(false);
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that finds the end of the last whole record by reading the journal backwards until a line separator is found.
+	 * @param channel Channel of the journal
+	 * @return the position just after the last '\n' in the journal, or 0 if there is none
+	 * @throws IOException if the journal cannot be read
+	 */
+	private static long findRecordsEnd(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long end = channel.size();
+		while (end > 0) {
+			int length = (int) Math.min(SCAN_BUFFER_SIZE, end);
+			long start = end - length;
+			buffer.clear();
+			buffer.limit(length);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start + buffer.position()) < 0) {
+					throw new IOException("Journal is shorter than its size.");
+				}
+			}
+			for (int i = length - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Helper method that gets the hash of the bytes of a snapshot file as text.
+	 * @param fileName Name of the snapshot file
+	 * @return the hash in hexadecimal, or an empty String if there is no snapshot
+	 * @throws IllegalArgumentException if the snapshot cannot be read
+	 */
+	private static String hashSnapshot(String fileName) {
+		if (!new File(fileName).exists()) {
+			return "";
+		}
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			return Long.toHexString(ProductCache.hash(channel, 0, channel.size()));
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+	
+	/**
+	 * Helper method that opens the writer for the journal file.
+	 * @param append True if records are added to the end of the journal, false if the journal is emptied
+	 * @throws IllegalArgumentException if unable to open the journal
+	 */
+	private void openWriter(boolean append) {
+		try {
+			journalStream = new FileOutputStream(journalFileName, append);
+			journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream));
+			unflushedRecords = 0;
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+	
+	/**
+	 * Helper method that forces the records of the journal file to disk and closes its writer if it is open.
+	 * @throws IOException if the writer cannot be closed
+	 */
+	private void closeWriter() throws IOException {
+		if (journalWriter != null) {
+			journalWriter.flush();
+			journalStream.getChannel().force(false);
+			journalWriter.close();
+			journalWriter = null;
+			journalStream = null;
+		}
+	}
+	
+	/**
+	 * Helper method that writes one record to the journal, flushing it if a full batch has been written.
+	 * @param fields Fields of the record, starting with the kind of record
+	 * @throws IllegalArgumentException if the journal is not open or unable to write to the journal
+	 */
+	private void write(String... fields) {
+		if (journalWriter == null) {
+			throw new IllegalArgumentException("Journal is not open.");
+		}
+		try {
+			writeRecord(journalWriter, fields);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		journalRecords++;
+		unflushedRecords++;
+		if (unflushedRecords >= batchSize) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Helper method that writes one record as a line, escaping each field.
+	 * @param writer Writer of a journal file
+	 * @param fields Fields of the record, starting with the kind of record
+	 * @throws IOException if the record cannot be written
+	 */
+	private static void writeRecord(BufferedWriter writer, String... fields) throws IOException {
+		StringBuilder record = new StringBuilder();
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				record.append(DELIMITER);
+			}
+			escape(record, fields[i]);
+		}
+		writer.write(record.toString());
+		writer.newLine();
+	}
+	
+	/**
+	 * Helper method that applies one record of the journal to the products.
+	 * @param products ArrayList containing the products
+	 * @param line Line of the journal containing the record
+	 */
+	private static void replay(ArrayList<Product> products, String line) {
+		String[] fields = split(line);
+		try {
+			Product product = findProduct(products, fields[1]);
+			if (ADD_PRODUCT.equals(fields[0]) && fields.length == 2 && product == null) {
+				products.add(ProductsReader.createProduct(fields[1]));
+			}
+			else if (product == null) {
+				return;
+			}
+			else if (EDIT_PRODUCT.equals(fields[0]) && fields.length == 3 && findProduct(products, fields[2]) == null) {
+				product.setProductName(fields[2]);
+			}
+			else if (DELETE_PRODUCT.equals(fields[0]) && fields.length == 2) {
+				products.remove(product);
+			}
+			else if (ADD_TASK.equals(fields[0]) && fields.length == 7) {
+				product.addTask(new Task(Integer.parseInt(fields[2]), fields[3], Type.valueOf(fields[4]), fields[5], fields[6]));
+			}
+			else if (DELETE_TASK.equals(fields[0]) && fields.length == 3) {
+				product.deleteTaskById(Integer.parseInt(fields[2]));
+			}
+			else if (COMMAND.equals(fields[0]) && fields.length == 6 && product.getTaskById(Integer.parseInt(fields[2])) != null) {
+				String owner = "".equals(fields[4]) ? null : fields[4];
+				product.executeCommand(Integer.parseInt(fields[2]), new Command(CommandValue.valueOf(fields[3]), owner, fields[5]));
+			}
+		}
+		catch (IllegalArgumentException | UnsupportedOperationException | ArrayIndexOutOfBoundsException e) {
+			//Skips a record that cannot be applied.
+		}
+	}
+	
+	/**
+	 * Helper method that finds a product using its name.
+	 * If several products have the name the last one is used, the same one BacklogManager indexes the name to, so a record
+	 * is replayed on the product the change was made to.
+	 * @param products ArrayList containing the products
+	 * @param productName Name of the product
+	 * @return the product, or null if there is no product with that name
+	 */
+	private static Product findProduct(ArrayList<Product> products, String productName) {
+		for (int i = products.size() - 1; i >= 0; i--) {
+			if (products.get(i).getProductName().equals(productName)) {
+				return products.get(i);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Helper method that adds a field to a record, escaping the characters that separate fields and records.
+	 * @param record Record the field is added to
+	 * @param field Field that is added
+	 */
+	private static void escape(StringBuilder record, String field) {
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == '\\') {
+				record.append("\\\\");
+			}
+			else if (c == DELIMITER) {
+				record.append("\\t");
+			}
+			else if (c == '\n') {
+				record.append("\\n");
+			}
+			else if (c == '\r') {
+				record.append("\\r");
+			}
+			else {
+				record.append(c);
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that splits a record into its fields and removes the escaping from each field.
+	 * @param line Line of the journal containing the record
+	 * @return the fields of the record
+	 */
+	private static String[] split(String line) {
+		ArrayList<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == DELIMITER) {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else if (c == '\\' && i + 1 < line.length()) {
+				i++;
+				char escaped = line.charAt(i);
+				if (escaped == 't') {
+					field.append(DELIMITER);
+				}
+				else if (escaped == 'n') {
+					field.append('\n');
+				}
+				else if (escaped == 'r') {
+					field.append('\r');
+				}
+				else {
+					field.append(escaped);
+				}
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields.toArray(new String[fields.size()]);
+	}
+}
@@ -0,0 +1,271 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that merges several backlog files into one file without reading any of them in full.
+ * Only the names and sections of the products of each file are read up front. The products are then read one section at a time
+ * in order of their names, so products with the same name in different files are merged together in a k-way merge, and their tasks
+ * are merged in order of their ids. At most one product of each file is held in memory at a time, apart from the products of a section
+ * that holds more than one product, which are read up front so each can be merged in order of its own name.
+ * The merged file lists the products in order of their names, in the same format as ProductsWriter.
+ * Gzip compressed files do not have sections that can be read on their own, so they cannot be merged.
+ * @author Daniel Avisse
+ *
+ */
+public class ProductsMerger {
+	
+	/** Orders the inputs by the name of their current product and then by the order they were given in **/
+	private static final Comparator<MergeInput> INPUT_ORDER = Comparator.comparing((MergeInput input) -> input.current.getProductName())
+			.thenComparingInt(input -> input.order);
+	
+	/**
+	 * Policies for tasks with the same id in products with the same name.
+	 */
+	public enum ConflictPolicy {
+		/** The task from the file that was given first is kept **/
+		KEEP_FIRST,
+		/** The task from the file that was given last is kept **/
+		KEEP_LAST,
+		/** The first task keeps its id and the others are given new ids after the largest id of the merged product **/
+		RENUMBER,
+		/** The merge fails **/
+		FAIL
+	}
+	
+	/**
+	 * Merges the products of several files into a new file.
+	 * The file is written to a temporary file first and then moved over filename, so filename may be one of the files that are merged.
+	 * @param fileNames Names of the files that are merged, in the order used by the conflict policy
+	 * @param filename Name of the merged file
+	 * @param policy Policy for tasks with the same id in products with the same name
+	 * @throws IllegalArgumentException if a file cannot be read or is gzip compressed, the merged file cannot be written,
+	 * or two tasks have the same id and the policy is FAIL
+	 */
+	public static void mergeProductsFiles(List<String> fileNames, String filename, ConflictPolicy policy) {
+		for (int i = 0; i < fileNames.size(); i++) {
+			if (ProductsReader.isCompressedFile(fileNames.get(i))) {
+				throw new IllegalArgumentException("Unable to read file.");
+			}
+		}
+		ArrayList<MergeInput> inputs = new ArrayList<MergeInput>();
+		String tempFileName = filename + ".tmp";
+		boolean merged = false;
+		try {
+			PriorityQueue<MergeInput> queue = new PriorityQueue<MergeInput>(Math.max(1, fileNames.size()), INPUT_ORDER);
+			for (int i = 0; i < fileNames.size(); i++) {
+				MergeInput input = new MergeInput(fileNames.get(i), i);
+				inputs.add(input);
+				if (input.advance()) {
+					queue.add(input);
+				}
+			}
+			try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFileName)))) {
+				ArrayList<Product> group = new ArrayList<Product>();
+				while (!queue.isEmpty()) {
+					String productName = queue.peek().current.getProductName();
+					group.clear();
+					while (!queue.isEmpty() && queue.peek().current.getProductName().equals(productName)) {
+						MergeInput input = queue.poll();
+						group.add(input.current);
+						if (input.advance()) {
+							queue.add(input);
+						}
+					}
+					writeMergedProduct(out, productName, group, policy);
+				}
+			}
+			merged = true;
+		}
+		catch (NoSuchFileException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		finally {
+			for (int i = 0; i < inputs.size(); i++) {
+				inputs.get(i).close();
+			}
+			if (!merged) {
+				new File(tempFileName).delete();
+			}
+		}
+		ProductsWriter.replaceFile(tempFileName, filename);
+	}
+	
+	/**
+	 * Helper method that merges the tasks of products with the same name in order of their ids and writes them as one product.
+	 * @param out Writer of the merged file
+	 * @param productName Name of the products
+	 * @param group Products with the name, in the order of the files they were read from
+	 * @param policy Policy for tasks with the same id
+	 * @throws IOException if the product cannot be written
+	 * @throws IllegalArgumentException if two tasks have the same id and the policy is FAIL
+	 */
+	private static void writeMergedProduct(Writer out, String productName, ArrayList<Product> group, ConflictPolicy policy) throws IOException {
+		out.append("# ").append(productName).append(System.lineSeparator());
+		int[] next = new int[group.size()];
+		ArrayList<Task> renumbered = new ArrayList<Task>();
+		int maxId = 0;
+		while (true) {
+			int id = Integer.MAX_VALUE;
+			for (int i = 0; i < group.size(); i++) {
+				if (next[i] < group.get(i).getTasks().size()) {
+					id = Math.min(id, group.get(i).getTasks().get(next[i]).getTaskId());
+				}
+			}
+			if (id == Integer.MAX_VALUE) {
+				break;
+			}
+			Task kept = null;
+			for (int i = 0; i < group.size(); i++) {
+				List<Task> tasks = group.get(i).getTasks();
+				if (next[i] < tasks.size() && tasks.get(next[i]).getTaskId() == id) {
+					Task task = tasks.get(next[i]);
+					next[i]++;
+					if (kept == null || policy == ConflictPolicy.KEEP_LAST) {
+						kept = task;
+					}
+					else if (policy == ConflictPolicy.RENUMBER) {
+						renumbered.add(task);
+					}
+					else if (policy == ConflictPolicy.FAIL) {
+						throw new IllegalArgumentException("Task " + id + " of " + productName + " is in more than one file.");
+					}
+				}
+			}
+			writeTask(out, kept);
+			maxId = id;
+		}
+		for (int i = 0; i < renumbered.size(); i++) {
+			Task task = renumbered.get(i);
+			maxId++;
+			writeTask(out, new Task(maxId, task.getStateName(), task.getTitle(), task.getTypeShortName(), task.getCreator(), task.getOwner(),
+					String.valueOf(task.isVerified()), task.getNotes()));
+		}
+	}
+	
+	/**
+	 * Helper method that writes a task in the same format as ProductsWriter.
+	 * @param out Writer of the merged file
+	 * @param task Task that is written
+	 * @throws IOException if the task cannot be written
+	 */
+	private static void writeTask(Writer out, Task task) throws IOException {
+		out.append("* ");
+		task.appendTo(out);
+		out.append(System.lineSeparator());
+	}
+	
+	/**
+	 * Class that reads the products of one of the files that are merged in order of their names.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class MergeInput {
+		
+		/** Index of the file in the files that are merged **/
+		private int order;
+		
+		/** Channel of the file **/
+		private FileChannel channel;
+		
+		/** Sections of the products of the file in order of their names **/
+		private ArrayList<ProductSection> sections;
+		
+		/** Products of the sections that hold more than one product, each under a section of its own that is not read **/
+		private HashMap<ProductSection, Product> splitProducts;
+		
+		/** Index of the next section that is read **/
+		private int nextSection;
+		
+		/** Products of the last section that was read that have not been merged yet **/
+		private ArrayList<Product> pending;
+		
+		/** Product of the file that is merged next, or null if every product has been merged **/
+		private Product current;
+		
+		/**
+		 * Constructs a MergeInput by finding the sections of the products of a file.
+		 * A section with more than one product line is read now and split into a section for each of its products,
+		 * so that the sections can be sorted by the name of the one product each of them holds.
+		 * Sections with the same name stay in file order.
+		 * @param fileName Name of the file
+		 * @param order Index of the file in the files that are merged
+		 * @throws IOException if the file cannot be read
+		 */
+		private MergeInput(String fileName, int order) throws IOException {
+			this.order = order;
+			channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+			ArrayList<ProductSection> fileSections = ProductsReader.findProductSections(channel);
+			sections = new ArrayList<ProductSection>(fileSections.size());
+			splitProducts = new HashMap<ProductSection, Product>();
+			for (int i = 0; i < fileSections.size(); i++) {
+				ProductSection section = fileSections.get(i);
+				if (ProductsReader.countProductLines(channel, section) > 1) {
+					ArrayList<Product> products = ProductsReader.readSection(channel, section);
+					for (int j = 0; j < products.size(); j++) {
+						ProductSection split = new ProductSection(products.get(j).getProductName(), section.getStart(), section.getEnd());
+						splitProducts.put(split, products.get(j));
+						sections.add(split);
+					}
+				}
+				else {
+					sections.add(section);
+				}
+			}
+			sections.sort(Comparator.comparing(ProductSection::getProductName));
+			pending = new ArrayList<Product>();
+		}
+		
+		/**
+		 * Moves to the next product of the file, reading the next section if every product of the last one has been merged.
+		 * @return true if there is a next product
+		 * @throws IOException if a section cannot be read
+		 */
+		private boolean advance() throws IOException {
+			while (pending.isEmpty() && nextSection < sections.size()) {
+				ProductSection section = sections.get(nextSection);
+				if (splitProducts.containsKey(section)) {
+					pending.add(splitProducts.remove(section));
+				}
+				else {
+					pending = ProductsReader.readSection(channel, section);
+				}
+				nextSection++;
+			}
+			current = pending.isEmpty() ? null : pending.remove(0);
+			return current != null;
+		}
+		
+		/**
+		 * Closes the file.
+		 */
+		private void close() {
+			try {
+				channel.close();
+			}
+			catch (IOException e) {
+				//The file was only read, so nothing is lost
+			}
+		}
+	}
+}
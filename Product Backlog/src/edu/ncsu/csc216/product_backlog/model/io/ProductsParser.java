@@ -0,0 +1,312 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that builds products and tasks from the lines of a file without using exceptions to skip invalid lines.
+ * Every line is checked before a product, task or note is created from it, so an invalid line costs no more to read than a valid one.
+ * The products are the same as the ones the reader has always loaded, including the lines it skips, such as a line right after a product or task line
+ * that is not a task or a note.
+ * Lines that are not loaded can be recorded as RejectedLines with the reason they were rejected.
+ * @author Daniel Avisse
+ *
+ */
+class ProductsParser {
+	
+	/** Reason given for a line that is skipped without being read **/
+	private static final String SKIPPED_REASON = "Line is not a product, task or note that can be read here.";
+	
+	/** Reader containing the lines of the file **/
+	private LineReader fileReader;
+	
+	/** ArrayList the rejected lines are added to, or null if they are not recorded **/
+	private ArrayList<RejectedLine> rejectedLines;
+	
+	/** Products that have been read **/
+	private ArrayList<Product> products;
+	
+	/** Line number of the line each product was read from **/
+	private HashMap<Product, Integer> productLines;
+	
+	/** Product that tasks are added to, which is the last product that was read **/
+	private Product product;
+	
+	/** Id of the last task that was read **/
+	private int taskId;
+	
+	/** Index of the last note that was added **/
+	private int noteIdx;
+	
+	/** True if the notes after a task are skipped because the task has the same id as another task **/
+	private boolean invalidNote;
+	
+	/** Line that is being read, which is trimmed once it is read as a note **/
+	private String line;
+	
+	/** Line that is being read as it is in the file **/
+	private String rawLine;
+	
+	/** Number of the line that is being read **/
+	private int lineNumber;
+	
+	/** True if the line that is being read was loaded or has already been rejected **/
+	private boolean handled;
+	
+	/** Reason the line that is being read is rejected if it is not loaded **/
+	private String skipReason;
+	
+	/**
+	 * Constructs a ProductsParser that reads the lines of a reader.
+	 * @param fileReader Reader containing the lines of the file
+	 * @param rejectedLines ArrayList the rejected lines are added to, or null if they are not recorded
+	 */
+	ProductsParser(LineReader fileReader, ArrayList<RejectedLine> rejectedLines) {
+		this.fileReader = fileReader;
+		this.rejectedLines = rejectedLines;
+		products = new ArrayList<Product>();
+		productLines = new HashMap<Product, Integer>();
+	}
+	
+	/**
+	 * Reads every line of the reader and builds the products and tasks.
+	 * A line after a product or task line is read together with it, so it is only read as a task, note or the rest of a note.
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IOException if the reader is unable to read the next line
+	 */
+	ArrayList<Product> parse() throws IOException {
+		nextLine();
+		while (line != null) {
+			if (readProduct() && readTask() && readNote()) {
+				readNoteContinuation();
+			}
+			nextLine();
+		}
+		return products;
+	}
+	
+	/**
+	 * Gets the line number of the line a product was read from.
+	 * @param readProduct Product that was read by this parser
+	 * @return the line number of the product, or 0 if the product was not read by this parser
+	 */
+	int getProductLine(Product readProduct) {
+		Integer productLine = productLines.get(readProduct);
+		return productLine == null ? 0 : productLine;
+	}
+	
+	/**
+	 * Moves to the next line, rejecting the current line if it was not loaded and is not blank.
+	 * @return true if there is a next line
+	 * @throws IOException if the reader is unable to read the next line
+	 */
+	private boolean nextLine() throws IOException {
+		if (line != null && !handled && !rawLine.trim().isEmpty()) {
+			reject(lineNumber, rawLine, skipReason);
+		}
+		line = fileReader.readLine();
+		rawLine = line;
+		lineNumber++;
+		handled = false;
+		skipReason = SKIPPED_REASON;
+		return line != null;
+	}
+	
+	/**
+	 * Reads the current line as a product if it starts with #.
+	 * @return true if the rest of the line and the line after it should be read, or false if reading them stops here
+	 * @throws IOException if the reader is unable to read the next line
+	 */
+	private boolean readProduct() throws IOException {
+		if (!line.startsWith("#")) {
+			return true;
+		}
+		String productName = line.substring(1, line.length()).trim();
+		if (productName.isEmpty()) {
+			rejectLine("Product name is empty.");
+			return false;
+		}
+		product = ProductsReader.createProduct(productName);
+		products.add(product);
+		productLines.put(product, lineNumber);
+		handled = true;
+		return nextLine();
+	}
+	
+	/**
+	 * Reads the current line as a task if it starts with *, and adds it to the product once the line after it has been read.
+	 * @return true if the line after the task should be read, or false if reading stops here
+	 * @throws IOException if the reader is unable to read the next line
+	 */
+	private boolean readTask() throws IOException {
+		if (!line.startsWith("*")) {
+			return true;
+		}
+		String[] fields = new String[] {"", "", "", "", "", "", ""};
+		splitTask(line.substring(1, line.length()).trim(), fields);
+		int id = parseInt(fields[0]);
+		String reason;
+		if (id == Integer.MIN_VALUE) {
+			reason = "Task id is not a number.";
+		}
+		else {
+			reason = Task.validate(id, fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+		}
+		if (reason != null) {
+			rejectLine(reason);
+			return false;
+		}
+		taskId = id;
+		int taskLineNumber = lineNumber;
+		String taskLine = rawLine;
+		handled = true;
+		if (!nextLine()) {
+			reject(taskLineNumber, taskLine, "Task does not have any notes.");
+			return false;
+		}
+		if (product == null) {
+			reject(taskLineNumber, taskLine, "Task is not in a product.");
+		}
+		else if (product.getTaskById(id) != null) {
+			//The notes of a task with a duplicate id are skipped.
+			invalidNote = true;
+			reject(taskLineNumber, taskLine, "Task id is the same as another task in the product.");
+		}
+		else {
+			product.addTask(Task.createWithoutNotes(id, fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]));
+			invalidNote = false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads the current line as a note of the last task if it starts with -.
+	 * The line is trimmed so it can also be read as the rest of a note afterwards.
+	 * @return true if the line should be read as the rest of a note, or false if reading stops here
+	 */
+	private boolean readNote() {
+		if (!line.startsWith("-")) {
+			return true;
+		}
+		line = line.substring(1, line.length()).trim();
+		if (product != null && !product.getTasks().isEmpty() && !invalidNote) {
+			Task task = product.getTaskById(taskId);
+			if (task == null) {
+				rejectLine("Note is not for a task in the product.");
+				return false;
+			}
+			if (line.isEmpty()) {
+				rejectLine("Note is empty.");
+				return false;
+			}
+			noteIdx = task.addNoteToList(line);
+			handled = true;
+		}
+		else {
+			skipReason = "Note is not for a valid task.";
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads the current line as the rest of the last note if it starts with a letter.
+	 */
+	private void readNoteContinuation() {
+		if (line.isEmpty() || !Character.isLetter(line.charAt(0)) || product == null || product.getTasks().isEmpty()) {
+			return;
+		}
+		Task task = product.getTaskById(taskId);
+		if (task == null) {
+			rejectLine("Note is not for a task in the product.");
+			return;
+		}
+		if (task.getNoteCount() == 0) {
+			return;
+		}
+		if (noteIdx >= task.getNoteCount()) {
+			rejectLine("Note is not for a task in the product.");
+			return;
+		}
+		task.appendToNote(noteIdx, "\n" + line);
+		handled = true;
+	}
+	
+	/**
+	 * Splits the fields of a task line on commas the same way a Scanner using a comma delimiter does.
+	 * A comma at the start of the remaining text is skipped before each field, so two commas in a row give an empty field.
+	 * @param taskString Text of the task line without the *
+	 * @param fields Array the fields are stored in, which keeps its values for fields that are missing
+	 */
+	private static void splitTask(String taskString, String[] fields) {
+		int position = 0;
+		for (int i = 0; i < fields.length; i++) {
+			if (position < taskString.length() && taskString.charAt(position) == ',') {
+				position++;
+			}
+			if (position >= taskString.length()) {
+				break;
+			}
+			int end = taskString.indexOf(',', position);
+			if (end == -1) {
+				end = taskString.length();
+			}
+			fields[i] = taskString.substring(position, end);
+			position = end;
+		}
+	}
+	
+	/**
+	 * Parses a task id the same way a Scanner reads an int, with an optional sign and any decimal digits.
+	 * @param value Text of the id
+	 * @return the id, 0 if the text is missing, or Integer.MIN_VALUE if the text is not an int
+	 */
+	private static int parseInt(String value) {
+		if (value.isEmpty()) {
+			return 0;
+		}
+		int start = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+		if (start == value.length()) {
+			return Integer.MIN_VALUE;
+		}
+		long result = 0;
+		for (int i = start; i < value.length(); i++) {
+			int digit = Character.digit(value.charAt(i), 10);
+			if (digit == -1) {
+				return Integer.MIN_VALUE;
+			}
+			result = result * 10 + digit;
+			if (result > Integer.MAX_VALUE + 1L) {
+				return Integer.MIN_VALUE;
+			}
+		}
+		if (value.charAt(0) == '-') {
+			result = -result;
+		}
+		return result > Integer.MAX_VALUE || result <= Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) result;
+	}
+	
+	/**
+	 * Rejects the line that is being read.
+	 * @param reason Reason the line was rejected
+	 */
+	private void rejectLine(String reason) {
+		reject(lineNumber, rawLine, reason);
+		handled = true;
+	}
+	
+	/**
+	 * Records a rejected line if rejected lines are being recorded.
+	 * @param rejectedLineNumber Number of the line
+	 * @param rejectedLine Text of the line
+	 * @param reason Reason the line was rejected
+	 */
+	private void reject(int rejectedLineNumber, String rejectedLine, String reason) {
+		if (rejectedLines != null) {
+			rejectedLines.add(new RejectedLine(rejectedLineNumber, rejectedLine, reason));
+		}
+	}
+}
@@ -1,13 +1,28 @@
 package edu.ncsu.csc216.product_backlog.model.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.InputMismatchException;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
+import edu.ncsu.csc216.product_backlog.model.product.MemoryTaskStore;
 import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.product.TaskStore;
 import edu.ncsu.csc216.product_backlog.model.task.Task;
 
 /**
@@ -18,174 +33,527 @@ import edu.ncsu.csc216.product_backlog.model.task.Task;
  *
  */
 public class ProductsReader {
+	
+	/** First byte of every gzip file **/
+	private static final int GZIP_MAGIC_1 = 0x1F;
+	
+	/** Second byte of every gzip file **/
+	private static final int GZIP_MAGIC_2 = 0x8B;
+	
+	/** Size of the buffer used to decompress a gzip file **/
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+	
+	/** Largest total size in bytes of the sections whose products are kept in the cache unless another size is set **/
+	public static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
+	
+	/** Products parsed from the sections of files that were read with the cache, so unchanged sections are not parsed again when a file is reloaded **/
+	static final ProductCache CACHE = new ProductCache(DEFAULT_CACHE_BYTES);
+	
+	/** Creates the store of each product that is read, which is a MemoryTaskStore unless another store is set **/
+	private static volatile Supplier<TaskStore> taskStoreFactory = MemoryTaskStore::new;
+	
+	/**
+	 * Sets the largest total size in bytes of the sections whose products are kept in the cache, removing the least recently used
+	 * sections if the cache is larger than that. The size should be raised for backlogs whose files are larger than the default size.
+	 * @param maxBytes Largest total size in bytes of the cached sections, or 0 to cache nothing
+	 * @throws IllegalArgumentException if maxBytes is negative
+	 */
+	public static void setSectionCacheSize(long maxBytes) {
+		CACHE.setMaxBytes(maxBytes);
+	}
+	
+	/**
+	 * Sets how the store of each product that is read by this class, ProductsBinaryReader and ProductsJournal is created,
+	 * so large files can be loaded into a ColumnarTaskStore or a DiskTaskStore instead of keeping every task on the heap.
+	 * A store that cannot be created or written to should throw an UncheckedIOException, which makes the file unable to be read.
+	 * @param factory Creates a new empty store for each product, or null to go back to a MemoryTaskStore
+	 */
+	public static void setTaskStoreFactory(Supplier<TaskStore> factory) {
+		taskStoreFactory = factory == null ? MemoryTaskStore::new : factory;
+	}
+	
+	/**
+	 * Creates an empty product whose tasks are kept in a store from the factory set with setTaskStoreFactory.
+	 * @param productName Name of the product
+	 * @return the new product
+	 * @throws IllegalArgumentException if productName is invalid
+	 * @throws UncheckedIOException if the store cannot be created
+	 */
+	public static Product createProduct(String productName) {
+		return new Product(productName, taskStoreFactory.get());
+	}
 		
+	/**
+	 * Checks if a file starts with the bytes of a gzip file.
+	 * @param fileName Name of the file
+	 * @return true if the file is gzip compressed, or false if it is not or cannot be read
+	 */
+	public static boolean isCompressedFile(String fileName) {
+		try (InputStream in = new FileInputStream(fileName)) {
+			return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+	
 	/**
 	 * Reads in the file that will be used to import products and tasks.
+	 * The file is streamed line by line in a single pass so the time it takes to load is linear in the size of the file.
+	 * A gzip compressed file is found by its first bytes and decompressed as it is read.
 	 * @param fileName Name of the file
 	 * @return returns an ArrayList containing products and their associated tasks
 	 * @throws IllegalArgumentException if unable to read file
 	 */
 	public static ArrayList<Product> readProductsFile(String fileName) {
+		ArrayList<Product> products = null;
+		try (BufferedReader fileReader = openFile(fileName)) {
+			products = readProducts(fileReader::readLine);
+		}
+		catch (FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		removeInvalidProducts(products);
+		return products;
+	}
+	
+	/**
+	 * Reads in the file that will be used to import products and tasks and reports every line that was not loaded.
+	 * The products that are returned are the same as the ones returned by readProductsFile, and a gzip compressed file is read the same way.
+	 * A product that is removed because it has no valid tasks is reported at the line of its name.
+	 * @param fileName Name of the file
+	 * @param rejectedLines ArrayList that the rejected lines are added to in the order they are found
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductsFileWithReport(String fileName, ArrayList<RejectedLine> rejectedLines) {
+		ArrayList<Product> products = null;
+		ProductsParser parser;
+		try (BufferedReader fileReader = openFile(fileName)) {
+			parser = new ProductsParser(fileReader::readLine, rejectedLines);
+			products = parser.parse();
+		}
+		catch (FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		ArrayList<Product> removed = removeInvalidProducts(products);
+		for (int i = 0; i < removed.size(); i++) {
+			int productLine = parser.getProductLine(removed.get(i));
+			rejectedLines.add(new RejectedLine(productLine, "# " + removed.get(i).getProductName(), "Product does not have any tasks with notes."));
+		}
+		return products;
+	}
+	
+	/**
+	 * Reads in the file that will be used to import products and tasks and records the section of the file that each product was read from.
+	 * A product is only given a section if it is the only product in that section, so the section can be copied as-is when the product has not changed.
+	 * The products that are returned are the same as the ones returned by readProductsFile.
+	 * A gzip compressed file has no sections that can be copied, so it is read with readProductsFile and no sections are added.
+	 * @param fileName Name of the file
+	 * @param sections Map that the section of each product is added to
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductsFile(String fileName, Map<Product, ProductSection> sections) {
+		return readProductsFile(fileName, sections, false);
+	}
+	
+	/**
+	 * Reads in the file that will be used to import products and tasks and records the section of the file that each product was read from.
+	 * The products and sections are the same as the ones from readProductsFile without the cache.
+	 * If useCache is true each section is hashed, and a section that was parsed before with the cache is copied from it instead of being parsed again.
+	 * @param fileName Name of the file
+	 * @param sections Map that the section of each product is added to
+	 * @param useCache True if the sections are looked up in and added to the cache
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductsFile(String fileName, Map<Product, ProductSection> sections, boolean useCache) {
+		if (isCompressedFile(fileName)) {
+			return readProductsFile(fileName);
+		}
 		ArrayList<Product> products = new ArrayList<Product>();
-		try {
-			Scanner fileReader = new Scanner(new FileInputStream(fileName));
-			String contentsOfFile = "";
-			int indexOfProduct = 0;
-			int taskId = 0;
-			int noteIdx = 0;
-			//Is used to avoid notes of a task with a duplicate id.
-			boolean invalidNote = false;
-
-			while (fileReader.hasNextLine()) {
-				try {
-					contentsOfFile += fileReader.nextLine() + "\n";
-				}
-				catch(IllegalArgumentException e){
-					fileReader.close();
-					throw new IllegalArgumentException("Unable to read file.");
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ArrayList<ProductSection> fileSections = findSections(channel);
+			for (int i = 0; i < fileSections.size(); i++) {
+				ProductSection section = fileSections.get(i);
+				ArrayList<Product> sectionProducts = readSection(channel, section.getStart(), section.getEnd(), useCache);
+				if (sectionProducts.size() == 1) {
+					sections.put(sectionProducts.get(0), section);
 				}
+				products.addAll(sectionProducts);
 			}
-			Scanner scanner = new Scanner(contentsOfFile);
-			String nextLine = "";
-			while (scanner.hasNext()) {
-				try {
-					nextLine = scanner.nextLine();
-					if(nextLine.startsWith("#")) {
-						Product product = processProduct(nextLine);
-						products.add(product);
-						indexOfProduct = products.size() - 1;
-						nextLine = scanner.nextLine();
-					}
-					if (nextLine.startsWith("*")) {
-						Task task = processTask(nextLine);
-						taskId = task.getTaskId();
-						nextLine = scanner.nextLine();
-						try {
-							if (!products.isEmpty()) {
-								products.get(indexOfProduct).addTask(task);
-								task.getNotes().remove("Temp String");
-								invalidNote = false;
-							}							
-						}
-						catch (IllegalArgumentException e) {
-							//Catches an IllegalArgumentException that is thrown when a duplicate task is added and skips it.
-							//Sets invalidNote boolean to true which will skip the notes of the invalid task.
-							invalidNote = true;
-						}
-						 
-					}
-					 if (nextLine.startsWith("-")) {
-						 nextLine = nextLine.substring(1, nextLine.length()).trim();
-						 if (!products.isEmpty() && !products.get(indexOfProduct).getTasks().isEmpty() && !invalidNote) {
-							noteIdx = products.get(indexOfProduct).getTaskById(taskId).addNoteToList(nextLine);
-						 }						
-
-					 }
-					 if (Character.isLetter(nextLine.charAt(0)) && !products.isEmpty() && !products.get(indexOfProduct).getTasks().isEmpty() 
-							 && !products.get(indexOfProduct).getTaskById(taskId).getNotes().isEmpty()) {
-						String note = products.get(indexOfProduct).getTaskById(taskId).getNotes().get(noteIdx);
-						products.get(indexOfProduct).getTaskById(taskId).getNotes().remove(note);
-						note += "\n" + nextLine;
-						products.get(indexOfProduct).getTaskById(taskId).addNoteToList(note);						 
-					 }
-				 }
-				catch (InputMismatchException e) {
-					//Do nothing 
-				}
-				catch (NoSuchElementException e) {
-					//Do nothing
-				}
-				catch (IllegalArgumentException e) {
-					//Do nothing
-				}
-			 }
-			 scanner.close();
-			 fileReader.close();
 		}
-		catch (FileNotFoundException e){
+		catch (NoSuchFileException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
-		for(int i = 0; i < products.size(); i++) {
-			if (products.get(i).getTasks().size() == 0) {
-				products.remove(i);
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		return products;
+	}
+	
+	/**
+	 * Reads in the file that will be used to import products and tasks by memory mapping the file instead of streaming it.
+	 * Lines are found directly in the bytes of the mapped file, which avoids the copying done by a Reader on very large files.
+	 * The products that are returned are the same as the ones returned by readProductsFile.
+	 * A gzip compressed file cannot be mapped, so it is read with readProductsFile.
+	 * @param fileName Name of the file
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductsFileMapped(String fileName) {
+		if (isCompressedFile(fileName)) {
+			return readProductsFile(fileName);
+		}
+		ArrayList<Product> products = null;
+		try (MappedLineReader fileReader = new MappedLineReader(fileName)) {
+			products = readProducts(fileReader);
+		}
+		catch (NoSuchFileException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		removeInvalidProducts(products);
+		return products;
+	}
+	
+	/**
+	 * Reads in the file that will be used to import products and tasks by parsing the sections of each product at the same time.
+	 * The file is first scanned for the lines that start a new product, then each section is parsed as a separate task on a ForkJoinPool.
+	 * The products are put back together in the same order as the file, so the products that are returned are the same as the ones returned by readProductsFile.
+	 * A gzip compressed file can only be decompressed from the start, so it is read with readProductsFile.
+	 * @param fileName Name of the file
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductsFileParallel(String fileName) {
+		if (isCompressedFile(fileName)) {
+			return readProductsFile(fileName);
+		}
+		ArrayList<Product> products = null;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ArrayList<ProductSection> sections = findSections(channel);
+			products = ForkJoinPool.commonPool().invoke(new SectionTask(channel, sections, 0, sections.size()));
+		}
+		catch (NoSuchFileException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		removeInvalidProducts(products);
+		return products;
+	}
+	
+	/**
+	 * Reads the names of the products in a file and the range of the file that each product is in, without reading any tasks.
+	 * The tasks of each product can be read later using readProductSection.
+	 * A section that turns out to not have any valid products when it is read will not return any products.
+	 * A gzip compressed file does not have sections that can be read on their own.
+	 * @param fileName Name of the file
+	 * @return returns an ArrayList containing the section of each product in file order
+	 * @throws IllegalArgumentException if unable to read file or the file is gzip compressed
+	 */
+	public static ArrayList<ProductSection> readProductSections(String fileName) {
+		if (isCompressedFile(fileName)) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		ArrayList<ProductSection> sections = null;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			sections = findProductSections(channel);
+		}
+		catch (NoSuchFileException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		return sections;
+	}
+	
+	/**
+	 * Finds the section of each product in an open file, without the section at the start of the file that has no product in it.
+	 * @param channel Channel of the file
+	 * @return the sections of the products in file order
+	 * @throws IOException if the file cannot be read
+	 */
+	static ArrayList<ProductSection> findProductSections(FileChannel channel) throws IOException {
+		ArrayList<ProductSection> sections = findSections(channel);
+		if (!sections.isEmpty() && sections.get(0).getProductName() == null) {
+			sections.remove(0);
+		}
+		return sections;
+	}
+	
+	/**
+	 * Counts the lines of a section of an open file that start a product with a name, which can be more than one when a product
+	 * follows a line that does not let findProductSections start a new section there.
+	 * @param channel Channel of the file
+	 * @param section Section of the file
+	 * @return the number of product lines in the section
+	 * @throws IOException if the section cannot be read
+	 */
+	static int countProductLines(FileChannel channel, ProductSection section) throws IOException {
+		MappedLineReader reader = new MappedLineReader(channel, section.getStart(), section.getEnd());
+		int count = 0;
+		int first = reader.peek();
+		while (first != -1) {
+			if (first == '#') {
+				if (!"".equals(reader.readLine().substring(1).trim())) {
+					count++;
+				}
 			}
 			else {
-				for (int j = 0; j < products.get(i).getTasks().size(); j++) {
-					if (products.get(i).getTasks().get(i).getNotes().size() == 0) {
-						products.remove(i);
-					}
-				}
+				reader.skipLine();
 			}
+			first = reader.peek();
 		}
-		 return products;
+		return count;
 	}
 	
 	/**
-	 * Helper method that reads in information relating to the product and tokenizes it.
-	 * @param nextLine The nextLine of the file containing product information
-	 * @return returns a product that is added to the ArrayList of products
-	 * @throws IllegalArgumentException if product is not tokenized correctly 
+	 * Reads the valid products in one section of an open file without using the cache.
+	 * @param channel Channel of the file
+	 * @param section Section of the file to read
+	 * @return the valid products of the section
+	 * @throws IOException if the section cannot be read
 	 */
-	private static Product processProduct(String nextLine) {
-		String productString = nextLine.substring(1, nextLine.length()).trim();
-		try {
-			Product product = new Product(productString);
-			return product;
+	static ArrayList<Product> readSection(FileChannel channel, ProductSection section) throws IOException {
+		ArrayList<Product> products = readProducts(new MappedLineReader(channel, section.getStart(), section.getEnd()));
+		removeInvalidProducts(products);
+		return products;
+	}
+	
+	/**
+	 * Reads the products and tasks in one section of a file that was found by readProductSections.
+	 * @param fileName Name of the file
+	 * @param section Section of the file to read
+	 * @return returns an ArrayList containing the products in the section and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductSection(String fileName, ProductSection section) {
+		return readProductSection(fileName, section, false);
+	}
+	
+	/**
+	 * Reads the products and tasks in one section of a file that was found by readProductSections.
+	 * If useCache is true the products are copied from the cache if the section was parsed before with the cache.
+	 * @param fileName Name of the file
+	 * @param section Section of the file to read
+	 * @param useCache True if the section is looked up in and added to the cache
+	 * @return returns an ArrayList containing the products in the section and their associated tasks
+	 * @throws IllegalArgumentException if unable to read file
+	 */
+	public static ArrayList<Product> readProductSection(String fileName, ProductSection section, boolean useCache) {
+		ArrayList<Product> products = null;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			products = readSection(channel, section.getStart(), Math.min(section.getEnd(), channel.size()), useCache);
 		}
-		catch(IllegalArgumentException e) {
+		catch (NoSuchFileException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
-		
+		catch (IOException | UncheckedIOException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		return products;
 	}
 	
 	/**
-	 * Helper method that reads in information relating to the tasks and tokenizes it.
-	 * @param nextLine The nextLine of the file containing task information
-	 * @return returns a task and is added to the current product
-	 * @throws IllegalArgumentException if tasks is not tokenized correctly
+	 * Helper method that reads the valid products of a section. If useCache is true the products in the cache are used
+	 * if a section with the same bytes was parsed before, and the products are added to the cache otherwise.
+	 * @param channel Channel of the file
+	 * @param start Position in the file where the section starts
+	 * @param end Position in the file where the section ends
+	 * @param useCache True if the section is looked up in and added to the cache
+	 * @return the valid products of the section
+	 * @throws IOException if the section cannot be read
 	 */
-	private static Task processTask(String nextLine) {
-		String taskString = nextLine.substring(1, nextLine.length()).trim();
-		Scanner taskScanner = new Scanner(taskString);
-		taskScanner.useDelimiter(",");
-		int taskId = 0;
-		String taskState = "";
-		String taskTitle = "";
-		String taskType = "";
-		String taskCreator = "";
-		String taskOwner = "";
-		String taskisVerified = "";
+	private static ArrayList<Product> readSection(FileChannel channel, long start, long end, boolean useCache) throws IOException {
+		if (!useCache) {
+			ArrayList<Product> products = readProducts(new MappedLineReader(channel, start, end));
+			removeInvalidProducts(products);
+			return products;
+		}
+		long hash = ProductCache.hash(channel, start, end);
+		ArrayList<Product> products = CACHE.get(hash, end - start);
+		if (products == null) {
+			products = readProducts(new MappedLineReader(channel, start, end));
+			removeInvalidProducts(products);
+			CACHE.put(hash, end - start, products);
+		}
+		return products;
+	}
+	
+	/**
+	 * Helper method that opens a file to be read line by line, decompressing it if it starts with the bytes of a gzip file.
+	 * @param fileName Name of the file
+	 * @return reader of the lines of the file
+	 * @throws FileNotFoundException if the file cannot be opened
+	 * @throws IOException if the file cannot be read
+	 */
+	private static BufferedReader openFile(String fileName) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(fileName));
 		try {
-			if (taskScanner.hasNext()) {
-				taskId = taskScanner.nextInt();
+			in.mark(2);
+			boolean compressed = in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+			in.reset();
+			if (compressed) {
+				in = new GZIPInputStream(in, GZIP_BUFFER_SIZE);
 			}
-			if (taskScanner.hasNext()) {
-				taskState = taskScanner.next();
+		}
+		catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		return new BufferedReader(new InputStreamReader(in));
+	}
+	
+	/**
+	 * Helper method that finds the sections of the file where each product starts.
+	 * A product line only starts a new section if the line before it is not a product or task line, since those lines read the line after them
+	 * and would otherwise be parsed differently than when reading the whole file at once.
+	 * The first section always starts at the beginning of the file and is named after the first valid product line in it, if there is one.
+	 * @param channel Channel of the file
+	 * @return the sections of the file in file order
+	 * @throws IOException if the file cannot be read
+	 */
+	private static ArrayList<ProductSection> findSections(FileChannel channel) throws IOException {
+		ArrayList<ProductSection> sections = new ArrayList<ProductSection>();
+		ProductSection section = new ProductSection(null, 0, channel.size());
+		sections.add(section);
+		MappedLineReader reader = new MappedLineReader(channel, 0, channel.size());
+		int previous = -1;
+		long position = reader.getPosition();
+		int first = reader.peek();
+		while (first != -1) {
+			if (first == '#') {
+				String productName = reader.readLine().substring(1).trim();
+				if (!"".equals(productName) && position > 0 && previous != '#' && previous != '*') {
+					section.setEnd(position);
+					section = new ProductSection(productName, position, channel.size());
+					sections.add(section);
+				}
+				else if (!"".equals(productName) && section.getProductName() == null) {
+					sections.set(0, new ProductSection(productName, 0, section.getEnd()));
+					section = sections.get(0);
+				}
 			}
-			if (taskScanner.hasNext()) {
-				 taskTitle = taskScanner.next();
+			else {
+				reader.skipLine();
 			}
-			if (taskScanner.hasNext()) {
-				 taskType = taskScanner.next();
+			previous = first;
+			position = reader.getPosition();
+			first = reader.peek();
+		}
+		return sections;
+	}
+	
+	/**
+	 * Helper method that builds the products and tasks as each line is read from the reader.
+	 * Only the current line is kept in memory, so the whole file never has to be held as a single String.
+	 * Invalid lines are skipped by ProductsParser without throwing exceptions.
+	 * @param fileReader Reader containing the lines of the file
+	 * @return returns an ArrayList containing products and their associated tasks
+	 * @throws IOException if the reader is unable to read the next line
+	 */
+	private static ArrayList<Product> readProducts(LineReader fileReader) throws IOException {
+		return new ProductsParser(fileReader, null).parse();
+	}
+	
+	/**
+	 * Helper method that removes the products that do not have any tasks or have a task without any notes.
+	 * The products that are kept are marked as clean since they match the file.
+	 * @param products ArrayList containing the products that were read from the file
+	 * @return the products that were removed, in file order
+	 */
+	static ArrayList<Product> removeInvalidProducts(ArrayList<Product> products) {
+		ArrayList<Product> removed = new ArrayList<Product>();
+		for (int i = products.size() - 1; i >= 0; i--) {
+			List<Task> tasks = products.get(i).getTasks();
+			boolean invalidProduct = tasks.isEmpty();
+			for (int j = 0; j < tasks.size() && !invalidProduct; j++) {
+				if (tasks.get(j).getNoteCount() == 0) {
+					invalidProduct = true;
+				}
 			}
-			if (taskScanner.hasNext()) {
-				 taskCreator = taskScanner.next();
+			if (invalidProduct) {
+				removed.add(0, products.remove(i));
 			}
-			if (taskScanner.hasNext()) {
-				 taskOwner = taskScanner.next();
+			else {
+				products.get(i).markClean();
 			}
-			if (taskScanner.hasNext()) {
-				 taskisVerified = taskScanner.next();
+		}
+		return removed;
+	}
+	
+	/**
+	 * Private inner class that parses a range of product sections of a file on a ForkJoinPool.
+	 * Ranges with more than one section are split in half and the products of both halves are joined in file order.
+	 * @author Daniel Avisse
+	 */
+	private static class SectionTask extends RecursiveTask<ArrayList<Product>> {
+		
+		/** ID used for serialization **/
+		private static final long serialVersionUID = 1L;
+		
+		/** Channel of the file that is shared by every section **/
+		private transient FileChannel channel;
+		
+		/** Sections of the file in file order **/
+		private transient ArrayList<ProductSection> sections;
+		
+		/** Index of the first section parsed by this task **/
+		private int low;
+		
+		/** Index after the last section parsed by this task **/
+		private int high;
+		
+		/**
+		 * Constructs a SectionTask for the sections from low up to high.
+		 * @param channel Channel of the file
+		 * @param sections Sections of the file in file order
+		 * @param low Index of the first section
+		 * @param high Index after the last section
+		 */
+		private SectionTask(FileChannel channel, ArrayList<ProductSection> sections, int low, int high) {
+			this.channel = channel;
+			this.sections = sections;
+			this.low = low;
+			this.high = high;
+		}
+		
+		/**
+		 * Parses the sections of this task, splitting the work if there is more than one section.
+		 * @return the products of the sections in file order
+		 * @throws UncheckedIOException if a section cannot be read
+		 */
+		@Override
+		protected ArrayList<Product> compute() {
+			if (high - low == 1) {
+				try {
+					return readProducts(new MappedLineReader(channel, sections.get(low).getStart(), sections.get(low).getEnd()));
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
 			}
-			taskScanner.close();
-			ArrayList<String> notes = new ArrayList<String>();
-			notes.add("Temp String");
-			Task task = new Task(taskId, taskState, taskTitle, taskType, taskCreator, taskOwner, taskisVerified, notes);
-			return task;
-			
-		}
-		catch(IllegalArgumentException e) {
-			throw new IllegalArgumentException("Unable to load file.");
+			int middle = (low + high) / 2;
+			SectionTask first = new SectionTask(channel, sections, low, middle);
+			SectionTask second = new SectionTask(channel, sections, middle, high);
+			first.fork();
+			ArrayList<Product> secondProducts = second.compute();
+			ArrayList<Product> products = first.join();
+			products.addAll(secondProducts);
+			return products;
 		}
 	}
 }
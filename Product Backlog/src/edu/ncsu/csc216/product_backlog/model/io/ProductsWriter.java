@@ -1,40 +1,280 @@
 package edu.ncsu.csc216.product_backlog.model.io;
 
-import java.io.File;
-
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import edu.ncsu.csc216.product_backlog.model.product.Product;
 
 /**
  * Class that outputs a ProductBacklog to a new file.
+ * A file whose name ends with COMPRESSED_EXTENSION is gzip compressed on a background thread while the products are written.
  * @author Daniel Avisse
  *
  */
 public class ProductsWriter {
 	
+	/** Size of the buffer used to encode a product that is written to a channel **/
+	private static final int WRITE_BUFFER_SIZE = 8192;
+	
+	/** Extension of the names of files that are written gzip compressed **/
+	public static final String COMPRESSED_EXTENSION = ".gz";
+	
 	/**
 	 * Outputs the current ProductBacklog with all the tasks and products to a new file.
+	 * Each task is written straight to the file with Task.appendTo, so no String is built for a task or its notes.
+	 * The file is gzip compressed if its name ends with COMPRESSED_EXTENSION.
+	 * The tasks are written through a Writer, so NoteLog decodes the notes straight into it and a failed write throws right away.
 	 * @param filename Name of the file.
 	 * @param products ArrayList containing the products that will be outputted.
 	 * @throws IllegalArgumentException if unable to output to a new file
 	 */
 	public static void writeProductsToFile(String filename, ArrayList<Product> products)  {
-		try {
-			PrintStream fileWriter = new PrintStream(new File(filename));
+		try (Writer fileWriter = new BufferedWriter(new OutputStreamWriter(openFile(filename, isCompressedFileName(filename)), Charset.defaultCharset()))) {
 			for (int i = 0; i < products.size(); i++) {
-			    fileWriter.println("# " + products.get(i).getProductName());
+			    fileWriter.append("# ").append(products.get(i).getProductName()).append(System.lineSeparator());
 			    for (int j = 0; j < products.get(i).getTasks().size(); j++) {
-			    	fileWriter.println("* " + products.get(i).getTasks().get(j).toString());
+			    	fileWriter.append("* ");
+			    	products.get(i).getTasks().get(j).appendTo(fileWriter);
+			    	fileWriter.append(System.lineSeparator());
 			    }
 			}
-			fileWriter.close();
 		}
 		catch (IOException e) {
 			throw new IllegalArgumentException("Cannont save file");
 		}
-		
+	
+	}
+	
+	/**
+	 * Outputs the current ProductBacklog to a file, copying the products that have not changed from the file they were last read from or written to.
+	 * A product is copied byte for byte when it is not dirty and has a section in previousSections, and every other product is written out again.
+	 * The file is written to a temporary file first and then moved over filename, so filename may be the same file as previousFileName.
+	 * @param filename Name of the file.
+	 * @param products ArrayList containing the products that will be outputted.
+	 * @param previousFileName Name of the file the unchanged products are copied from, or null if there is no such file
+	 * @param previousSections Sections of the previous file that each product can be copied from
+	 * @return the sections of the new file that each product was written to
+	 * @throws IllegalArgumentException if unable to output to a new file
+	 */
+	public static HashMap<Product, ProductSection> writeProductsToFile(String filename, ArrayList<Product> products,
+			String previousFileName, Map<Product, ProductSection> previousSections) {
+		HashMap<Product, ProductSection> sections;
+		String tempFileName = filename + ".tmp";
+		try (FileChannel in = openPreviousFile(previousFileName)) {
+			sections = writeProductsToFile(tempFileName, products, in, previousSections, isCompressedFileName(filename));
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Cannont save file");
+		}
+		replaceFile(tempFileName, filename);
+		return sections;
+	}
+	
+	/**
+	 * Outputs the current ProductBacklog to a file, copying the products that have not changed from an already open channel of the previous file.
+	 * The channel can be opened before the previous file is replaced, so the sections are still read from the file they were recorded for.
+	 * Unlike the overload that takes the name of the previous file, filename is written to directly.
+	 * The file is gzip compressed if its name ends with COMPRESSED_EXTENSION.
+	 * @param filename Name of the file.
+	 * @param products ArrayList containing the products that will be outputted.
+	 * @param previousFile Channel of the file the unchanged products are copied from, or null if there is no such file
+	 * @param previousSections Sections of the previous file that each product can be copied from
+	 * @return the sections of the new file that each product was written to
+	 * @throws IllegalArgumentException if unable to output to a new file
+	 */
+	public static HashMap<Product, ProductSection> writeProductsToFile(String filename, ArrayList<Product> products,
+			FileChannel previousFile, Map<Product, ProductSection> previousSections) {
+		return writeProductsToFile(filename, products, previousFile, previousSections, isCompressedFileName(filename));
+	}
+	
+	/**
+	 * Outputs the current ProductBacklog to a file, copying the products that have not changed from an already open channel of the previous file.
+	 * A compressed file is written through a PipelinedGzipOutputStream, so the unchanged products are copied into the compressor
+	 * and no sections are returned since a section of a compressed file cannot be copied.
+	 * @param filename Name of the file.
+	 * @param products ArrayList containing the products that will be outputted.
+	 * @param previousFile Channel of the file the unchanged products are copied from, or null if there is no such file
+	 * @param previousSections Sections of the previous file that each product can be copied from
+	 * @param compress True if the file is written gzip compressed
+	 * @return the sections of the new file that each product was written to, which is empty for a compressed file
+	 * @throws IllegalArgumentException if unable to output to a new file
+	 */
+	public static HashMap<Product, ProductSection> writeProductsToFile(String filename, ArrayList<Product> products,
+			FileChannel previousFile, Map<Product, ProductSection> previousSections, boolean compress) {
+		HashMap<Product, ProductSection> sections = new HashMap<Product, ProductSection>();
+		if (compress) {
+			try (WritableByteChannel out = Channels.newChannel(openFile(filename, true))) {
+				for (int i = 0; i < products.size(); i++) {
+					Product product = products.get(i);
+					ProductSection previous = previousSections.get(product);
+					if (previousFile != null && previous != null && !product.isDirty()) {
+						copySection(previousFile, out, previous);
+					}
+					else {
+						writeProduct(out, product);
+					}
+				}
+			}
+			catch (IOException e) {
+				throw new IllegalArgumentException("Cannont save file");
+			}
+			return sections;
+		}
+		try (FileChannel out = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			for (int i = 0; i < products.size(); i++) {
+				Product product = products.get(i);
+				long start = out.position();
+				ProductSection previous = previousSections.get(product);
+				if (previousFile != null && previous != null && !product.isDirty()) {
+					copySection(previousFile, out, previous);
+				}
+				else {
+					writeProduct(out, product);
+				}
+				sections.put(product, new ProductSection(product.getProductName(), start, out.position()));
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Cannont save file");
+		}
+		return sections;
+	}
+	
+	/**
+	 * Checks if a file is written gzip compressed because of its name.
+	 * @param filename Name of the file
+	 * @return true if the name ends with COMPRESSED_EXTENSION
+	 */
+	public static boolean isCompressedFileName(String filename) {
+		return filename.endsWith(COMPRESSED_EXTENSION);
+	}
+	
+	/**
+	 * Moves a file that was written in full over another file, replacing it.
+	 * @param source Name of the file that was written
+	 * @param target Name of the file that is replaced
+	 * @throws IllegalArgumentException if the file cannot be moved
+	 */
+	public static void replaceFile(String source, String target) {
+		try {
+			Files.move(Paths.get(source), Paths.get(target), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Cannont save file");
+		}
+	}
+	
+	/**
+	 * Opens the file that unchanged products are copied from.
+	 * @param previousFileName Name of the file, or null if there is no such file
+	 * @return the channel of the file, or null if there is no file or it no longer exists
+	 * @throws IOException if the file exists but cannot be opened
+	 */
+	public static FileChannel openPreviousFile(String previousFileName) throws IOException {
+		if (previousFileName == null) {
+			return null;
+		}
+		try {
+			return FileChannel.open(Paths.get(previousFileName), StandardOpenOption.READ);
+		}
+		catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Helper method that opens a file to be written, compressing what is written to it if compress is true.
+	 * @param filename Name of the file
+	 * @param compress True if the file is written gzip compressed
+	 * @return stream of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	private static OutputStream openFile(String filename, boolean compress) throws IOException {
+		FileOutputStream out = new FileOutputStream(filename);
+		if (!compress) {
+			return out;
+		}
+		try {
+			return new PipelinedGzipOutputStream(out);
+		}
+		catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Helper method that copies a section of the previous file to the new file without reading it into memory.
+	 * A line separator is added if the section is at the end of the previous file and its last line does not have one.
+	 * @param in Channel of the previous file
+	 * @param out Channel of the new file
+	 * @param section Section of the previous file that is copied
+	 * @throws IOException if the section cannot be copied
+	 */
+	private static void copySection(FileChannel in, WritableByteChannel out, ProductSection section) throws IOException {
+		long position = section.getStart();
+		while (position < section.getEnd()) {
+			long copied = in.transferTo(position, section.getEnd() - position, out);
+			if (copied <= 0) {
+				throw new IOException("Section is no longer in the file.");
+			}
+			position += copied;
+		}
+		if (section.getEnd() > section.getStart()) {
+			ByteBuffer last = ByteBuffer.allocate(1);
+			in.read(last, section.getEnd() - 1);
+			if (last.get(0) != '\n' && last.get(0) != '\r') {
+				write(out, System.lineSeparator());
+			}
+		}
+	}
+	
+	/**
+	 * Helper method that writes a product and its tasks to the new file in the same format as writeProductsToFile.
+	 * The tasks are encoded through a small buffer as they are written, so the product is never held in memory as text.
+	 * @param out Channel of the new file
+	 * @param product Product that is written
+	 * @throws IOException if the product cannot be written
+	 */
+	private static void writeProduct(WritableByteChannel out, Product product) throws IOException {
+		//The writer is flushed but not closed, since closing it would close the channel
+		Writer productWriter = Channels.newWriter(out, Charset.defaultCharset().newEncoder(), WRITE_BUFFER_SIZE);
+		productWriter.append("# ").append(product.getProductName()).append(System.lineSeparator());
+		for (int j = 0; j < product.getTasks().size(); j++) {
+			productWriter.append("* ");
+			product.getTasks().get(j).appendTo(productWriter);
+			productWriter.append(System.lineSeparator());
+		}
+		productWriter.flush();
+	}
+	
+	/**
+	 * Helper method that writes text to the new file using the same charset as writeProductsToFile.
+	 * @param out Channel of the new file
+	 * @param text Text that is written
+	 * @throws IOException if the text cannot be written
+	 */
+	private static void write(WritableByteChannel out, String text) throws IOException {
+		ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(Charset.defaultCharset()));
+		while (bytes.hasRemaining()) {
+			out.write(bytes);
+		}
 	}
 }
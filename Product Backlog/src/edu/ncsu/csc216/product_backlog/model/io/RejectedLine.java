@@ -0,0 +1,63 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+/**
+ * Class that records a line of a file that was not loaded and the reason it was rejected.
+ * @author Daniel Avisse
+ *
+ */
+public class RejectedLine {
+	
+	/** Number of the line in the file, starting at 1 **/
+	private int lineNumber;
+	
+	/** Text of the line **/
+	private String line;
+	
+	/** Reason the line was rejected **/
+	private String reason;
+	
+	/**
+	 * Constructs a RejectedLine with the number and text of the line and the reason it was rejected.
+	 * @param lineNumber Number of the line in the file, starting at 1
+	 * @param line Text of the line
+	 * @param reason Reason the line was rejected
+	 */
+	RejectedLine(int lineNumber, String line, String reason) {
+		this.lineNumber = lineNumber;
+		this.line = line;
+		this.reason = reason;
+	}
+	
+	/**
+	 * Gets the number of the line in the file
+	 * @return the number of the line, starting at 1
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+	
+	/**
+	 * Gets the text of the line
+	 * @return the text of the line
+	 */
+	public String getLine() {
+		return line;
+	}
+	
+	/**
+	 * Gets the reason the line was rejected
+	 * @return the reason the line was rejected
+	 */
+	public String getReason() {
+		return reason;
+	}
+	
+	/**
+	 * Returns the line number and the reason the line was rejected
+	 * @return String representation of the rejected line
+	 */
+	@Override
+	public String toString() {
+		return "Line " + lineNumber + ": " + reason;
+	}
+}
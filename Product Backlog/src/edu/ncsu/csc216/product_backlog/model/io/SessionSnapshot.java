@@ -0,0 +1,238 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Class that holds the state of a session of the ProductBacklog so it can be written to a binary file when the program exits
+ * and restored from it when the program starts, without parsing the text file the products came from.
+ * The session file starts with MAGIC, the name of the source file, the modification time of the source file when the session was written
+ * and the name of the current product, followed by the products in the same format as a file written by ProductsBinaryWriter.
+ * The session file is memory mapped when it is read.
+ * @author Daniel Avisse
+ *
+ */
+public class SessionSnapshot {
+	
+	/** Bytes at the start of every session file **/
+	public static final int MAGIC = 0x50424B54;
+	
+	/** Modification time stored for a source file that does not exist **/
+	private static final long NO_SOURCE = -1;
+	
+	/** Name of the file or directory the products were loaded from, or null if there is no such file **/
+	private String sourceFileName;
+	
+	/** Modification time in milliseconds of the source file when the session was written, or NO_SOURCE if it was not written yet **/
+	private long sourceModifiedTime;
+	
+	/** Name of the current product, or null if there is no current product **/
+	private String currentProductName;
+	
+	/** Products of the session **/
+	private ArrayList<Product> products;
+	
+	/**
+	 * Constructs a SessionSnapshot of the products of a session.
+	 * @param sourceFileName Name of the file or directory the products were loaded from, or null if there is no such file
+	 * @param currentProductName Name of the current product, or null if there is no current product
+	 * @param products Products of the session
+	 */
+	public SessionSnapshot(String sourceFileName, String currentProductName, ArrayList<Product> products) {
+		this.sourceFileName = sourceFileName;
+		this.currentProductName = currentProductName;
+		this.products = products;
+		sourceModifiedTime = NO_SOURCE;
+	}
+	
+	/**
+	 * Gets the name of the file or directory the products were loaded from.
+	 * @return the name of the source file, or null if there is no such file
+	 */
+	public String getSourceFileName() {
+		return sourceFileName;
+	}
+	
+	/**
+	 * Gets the name of the current product.
+	 * @return the name of the current product, or null if there is no current product
+	 */
+	public String getCurrentProductName() {
+		return currentProductName;
+	}
+	
+	/**
+	 * Gets the products of the session.
+	 * @return the products
+	 */
+	public ArrayList<Product> getProducts() {
+		return products;
+	}
+	
+	/**
+	 * Writes a session to a file. The file is written to a temporary file first and then moved over filename,
+	 * so an exit that is cut short leaves the last session file in place.
+	 * @param filename Name of the session file
+	 * @param session Session that is written
+	 * @throws IllegalArgumentException if unable to write the file
+	 */
+	public static void writeSessionFile(String filename, SessionSnapshot session) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename + ".tmp")))) {
+			out.writeInt(MAGIC);
+			writeOptionalString(out, session.sourceFileName);
+			out.writeLong(getModifiedTime(session.sourceFileName));
+			writeOptionalString(out, session.currentProductName);
+			ProductsBinaryWriter.writeProducts(out, session.products);
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Cannont save file");
+		}
+		ProductsWriter.replaceFile(filename + ".tmp", filename);
+	}
+	
+	/**
+	 * Reads a session from a file by memory mapping it. Invalid products are removed the same way ProductsBinaryReader removes them.
+	 * @param filename Name of the session file
+	 * @return the session that was read
+	 * @throws IllegalArgumentException if unable to read the file or the file is not a valid session file
+	 */
+	public static SessionSnapshot readSessionFile(String filename) {
+		SessionSnapshot session;
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			if (channel.size() > MappedLineReader.MAX_MAPPED_SIZE) {
+				throw new IllegalArgumentException("Unable to read file.");
+			}
+			DataInputStream in = new DataInputStream(new BufferInputStream(channel.map(MapMode.READ_ONLY, 0, channel.size())));
+			if (in.readInt() != MAGIC) {
+				throw new IllegalArgumentException("Unable to read file.");
+			}
+			String sourceFileName = readOptionalString(in);
+			long sourceModifiedTime = in.readLong();
+			String currentProductName = readOptionalString(in);
+			session = new SessionSnapshot(sourceFileName, currentProductName, ProductsBinaryReader.readProducts(in));
+			session.sourceModifiedTime = sourceModifiedTime;
+		}
+		catch (NoSuchFileException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		catch (IOException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to read file.");
+		}
+		ProductsReader.removeInvalidProducts(session.products);
+		return session;
+	}
+	
+	/**
+	 * Checks if a session that was read from a file can be restored in place of its source file, which is when the source file
+	 * still exists and has exactly the modification time it had when the session was written. A source file that is missing, was changed,
+	 * or was replaced by an older copy does not match.
+	 * @return true if the source file has not changed since the session was written
+	 */
+	public boolean matchesSource() {
+		return sourceModifiedTime != NO_SOURCE && getModifiedTime(sourceFileName) == sourceModifiedTime;
+	}
+	
+	/**
+	 * Helper method that gets the modification time of a file or directory.
+	 * @param fileName Name of the file, or null
+	 * @return the modification time in milliseconds, or NO_SOURCE if there is no file or its time cannot be read
+	 */
+	private static long getModifiedTime(String fileName) {
+		if (fileName == null) {
+			return NO_SOURCE;
+		}
+		try {
+			Path path = Paths.get(fileName);
+			return Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : NO_SOURCE;
+		}
+		catch (IOException e) {
+			return NO_SOURCE;
+		}
+	}
+	
+	/**
+	 * Helper method that writes a String that may be null as a flag followed by the String.
+	 * @param out Stream of the file
+	 * @param value String that is written, or null
+	 * @throws IOException if the String cannot be written
+	 */
+	private static void writeOptionalString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			ProductsBinaryWriter.writeString(out, value);
+		}
+	}
+	
+	/**
+	 * Helper method that reads a String written with writeOptionalString.
+	 * @param in Stream of the file
+	 * @return the String that was read, or null
+	 * @throws IOException if the String cannot be read
+	 */
+	private static String readOptionalString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? ProductsBinaryReader.readString(in) : null;
+	}
+	
+	/**
+	 * Class that reads the bytes of a mapped file as an InputStream.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class BufferInputStream extends InputStream {
+		
+		/** Bytes of the file **/
+		private ByteBuffer buffer;
+		
+		/**
+		 * Constructs a BufferInputStream that reads the remaining bytes of a buffer.
+		 * @param buffer Bytes of the file
+		 */
+		private BufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+		
+		/**
+		 * Reads a single byte.
+		 * @return the byte, or -1 at the end of the buffer
+		 */
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+		
+		/**
+		 * Reads up to len bytes into an array.
+		 * @param bytes Array the bytes are read into
+		 * @param off Index of the first byte that is read into
+		 * @param len Largest number of bytes that are read
+		 * @return the number of bytes read, or -1 at the end of the buffer
+		 */
+		@Override
+		public int read(byte[] bytes, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(bytes, off, count);
+			return count;
+		}
+	}
+}
@@ -0,0 +1,492 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that keeps the tasks of a Product in columns instead of as Task objects, so a product with a very large number of tasks
+ * only costs a few arrays on the heap.
+ * The id, state, type, verified flag, owner and creator of each task are kept in parallel primitive arrays in the order of the tasks,
+ * with owners and creators stored as codes into a dictionary of names, and the titles in an array of the same length.
+ * The notes of every task are kept in one append-only arena, where each task has the start and count of its notes.
+ * A Task is only created when one is asked for, as a copy of its columns, so a changed task must be passed to update to save the change.
+ * Counting the tasks in a state or of an owner scans the columns without creating any tasks.
+ * @author Daniel Avisse
+ *
+ */
+public class ColumnarTaskStore implements TaskStore {
+	
+	/** Number of tasks there is room for when the store is created **/
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/** Smallest number of unused notes in the arena before it is compacted **/
+	private static final int MIN_COMPACTION_NOTES = 1024;
+	
+	/** Short names of the types in the order of the Type values **/
+	private static final String[] TYPE_NAMES = {Task.T_FEATURE, Task.T_BUG, Task.T_TECHNICAL_WORK, Task.T_KNOWLEDGE_ACQUISITION};
+	
+	/** Number of tasks in the store **/
+	private int size;
+	
+	/** Id of each task **/
+	private int[] ids;
+	
+	/** Code of the state of each task **/
+	private byte[] states;
+	
+	/** Ordinal of the type of each task **/
+	private byte[] types;
+	
+	/** Whether each task is verified **/
+	private boolean[] verified;
+	
+	/** Code of the owner of each task **/
+	private int[] owners;
+	
+	/** Code of the creator of each task **/
+	private int[] creators;
+	
+	/** Title of each task **/
+	private String[] titles;
+	
+	/** Position in the arena of the first note of each task **/
+	private int[] noteStarts;
+	
+	/** Number of notes of each task **/
+	private int[] noteCounts;
+	
+	/** Notes of every task, each task's notes next to each other **/
+	private String[] arena;
+	
+	/** Number of notes in the arena **/
+	private int arenaSize;
+	
+	/** Number of notes in the arena that belong to tasks that were removed or whose notes were moved **/
+	private int unusedNotes;
+	
+	/** True while every id is larger than the id before it, so a task can be found with a binary search **/
+	private boolean sorted;
+	
+	/** Owner and creator names in the order of their codes **/
+	private ArrayList<String> names;
+	
+	/** Code of each owner and creator name **/
+	private HashMap<String, Integer> codes;
+	
+	/**
+	 * Constructs an empty ColumnarTaskStore.
+	 */
+	public ColumnarTaskStore() {
+		this(INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Constructs an empty ColumnarTaskStore with room for a number of tasks.
+	 * @param capacity Number of tasks there is room for
+	 */
+	public ColumnarTaskStore(int capacity) {
+		capacity = Math.max(capacity, 1);
+		ids = new int[capacity];
+		states = new byte[capacity];
+		types = new byte[capacity];
+		verified = new boolean[capacity];
+		owners = new int[capacity];
+		creators = new int[capacity];
+		titles = new String[capacity];
+		noteStarts = new int[capacity];
+		noteCounts = new int[capacity];
+		arena = new String[capacity];
+		sorted = true;
+		names = new ArrayList<String>();
+		codes = new HashMap<String, Integer>();
+	}
+	
+	/**
+	 * Constructs a ColumnarTaskStore with copies of the columns, arena and dictionary of another store.
+	 * @param store Store that is copied
+	 */
+	private ColumnarTaskStore(ColumnarTaskStore store) {
+		size = store.size;
+		ids = store.ids.clone();
+		states = store.states.clone();
+		types = store.types.clone();
+		verified = store.verified.clone();
+		owners = store.owners.clone();
+		creators = store.creators.clone();
+		titles = store.titles.clone();
+		noteStarts = store.noteStarts.clone();
+		noteCounts = store.noteCounts.clone();
+		arena = store.arena.clone();
+		arenaSize = store.arenaSize;
+		unusedNotes = store.unusedNotes;
+		sorted = store.sorted;
+		names = new ArrayList<String>(store.names);
+		codes = new HashMap<String, Integer>(store.codes);
+	}
+	
+	/**
+	 * Gets the number of tasks in the store.
+	 * @return the number of tasks
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Gets a new Task made from the columns of the task at an index.
+	 * @param index Index of the task
+	 * @return the task at the index
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	@Override
+	public Task get(int index) {
+		checkIndex(index);
+		ArrayList<String> notes = new ArrayList<String>(noteCounts[index]);
+		for (int i = 0; i < noteCounts[index]; i++) {
+			notes.add(arena[noteStarts[index] + i]);
+		}
+		String state = Task.getStateNameOf(states[index]);
+		String type = TYPE_NAMES[types[index]];
+		String creator = names.get(creators[index]);
+		String owner = names.get(owners[index]);
+		if (notes.isEmpty()) {
+			return Task.createWithoutNotes(ids[index], state, titles[index], type, creator, owner, String.valueOf(verified[index]));
+		}
+		return new Task(ids[index], state, titles[index], type, creator, owner, String.valueOf(verified[index]), notes);
+	}
+	
+	/**
+	 * Gets the id of the task at an index from the id column.
+	 * @param index Index of the task
+	 * @return the id of the task at the index
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	@Override
+	public int getId(int index) {
+		checkIndex(index);
+		return ids[index];
+	}
+	
+	/**
+	 * Gets a new Task made from the columns of the task with an id.
+	 * @param id Id of the task
+	 * @return the task, or null if there is no task with the id
+	 */
+	@Override
+	public Task getById(int id) {
+		int index = indexOf(id);
+		return index < 0 ? null : get(index);
+	}
+	
+	/**
+	 * Adds a task at an index by copying its fields into the columns.
+	 * @param index Index the task is added at
+	 * @param task Task that is added
+	 * @throws IndexOutOfBoundsException if the index is not in the store or at its end
+	 */
+	@Override
+	public void add(int index, Task task) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (size == ids.length) {
+			grow();
+		}
+		int moved = size - index;
+		System.arraycopy(ids, index, ids, index + 1, moved);
+		System.arraycopy(states, index, states, index + 1, moved);
+		System.arraycopy(types, index, types, index + 1, moved);
+		System.arraycopy(verified, index, verified, index + 1, moved);
+		System.arraycopy(owners, index, owners, index + 1, moved);
+		System.arraycopy(creators, index, creators, index + 1, moved);
+		System.arraycopy(titles, index, titles, index + 1, moved);
+		System.arraycopy(noteStarts, index, noteStarts, index + 1, moved);
+		System.arraycopy(noteCounts, index, noteCounts, index + 1, moved);
+		size++;
+		fill(index, task);
+		if ((index > 0 && ids[index - 1] >= ids[index]) || (index < size - 1 && ids[index] >= ids[index + 1])) {
+			sorted = false;
+		}
+	}
+	
+	/**
+	 * Adds a task after every other task.
+	 * @param task Task that is added
+	 */
+	@Override
+	public void add(Task task) {
+		add(size, task);
+	}
+	
+	/**
+	 * Adds tasks that are sorted by id by merging them with the tasks in the store from the back of the columns,
+	 * so each task that is already in the store is moved at most once and none of them is made into a Task.
+	 * @param sorted Tasks that are added, in increasing order of their ids
+	 */
+	@Override
+	public void addAll(List<Task> sorted) {
+		while (size + sorted.size() > ids.length) {
+			grow();
+		}
+		int from = size - 1;
+		int next = sorted.size() - 1;
+		for (int to = size + sorted.size() - 1; next >= 0; to--) {
+			if (from >= 0 && ids[from] > sorted.get(next).getTaskId()) {
+				move(from, to);
+				from--;
+			}
+			else {
+				fill(to, sorted.get(next));
+				next--;
+			}
+		}
+		size += sorted.size();
+	}
+	
+	/**
+	 * Removes the task at an index. Its notes in the arena are taken back the next time the arena is compacted.
+	 * @param index Index of the task
+	 * @return the task that was removed
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	@Override
+	public Task remove(int index) {
+		Task task = get(index);
+		unusedNotes += noteCounts[index];
+		int moved = size - index - 1;
+		System.arraycopy(ids, index + 1, ids, index, moved);
+		System.arraycopy(states, index + 1, states, index, moved);
+		System.arraycopy(types, index + 1, types, index, moved);
+		System.arraycopy(verified, index + 1, verified, index, moved);
+		System.arraycopy(owners, index + 1, owners, index, moved);
+		System.arraycopy(creators, index + 1, creators, index, moved);
+		System.arraycopy(titles, index + 1, titles, index, moved);
+		System.arraycopy(noteStarts, index + 1, noteStarts, index, moved);
+		System.arraycopy(noteCounts, index + 1, noteCounts, index, moved);
+		size--;
+		titles[size] = null;
+		compactIfNeeded();
+		return task;
+	}
+	
+	/**
+	 * Saves the changes a command made to a task by copying its state, owner, verified flag and notes back into the columns.
+	 * @param task Task that changed
+	 * @throws IllegalArgumentException if the task is not in the store
+	 */
+	@Override
+	public void update(Task task) {
+		int index = indexOf(task.getTaskId());
+		if (index < 0) {
+			throw new IllegalArgumentException("Task is not in the store.");
+		}
+		set(index, task);
+		compactIfNeeded();
+	}
+	
+	/**
+	 * Gets a List that makes each task from the columns when it is used. The List cannot be changed.
+	 * @return the tasks in the store
+	 */
+	@Override
+	public List<Task> asList() {
+		return new AbstractList<Task>() {
+			@Override
+			public Task get(int index) {
+				return ColumnarTaskStore.this.get(index);
+			}
+			
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+	
+	/**
+	 * Creates a ColumnarTaskStore with copies of the columns of this store, which copies arrays but does not make any tasks.
+	 * @return the copy of the store
+	 */
+	@Override
+	public ColumnarTaskStore snapshot() {
+		return new ColumnarTaskStore(this);
+	}
+	
+	/**
+	 * Counts the tasks in a state by scanning the state column.
+	 * @param stateName Name of the state
+	 * @return the number of tasks in the state
+	 */
+	public int countByState(String stateName) {
+		int state = Task.getStateCode(stateName);
+		int count = 0;
+		for (int i = 0; state >= 0 && i < size; i++) {
+			if (states[i] == state) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Counts the tasks of an owner by scanning the owner column.
+	 * @param owner Owner of the tasks
+	 * @return the number of tasks of the owner
+	 */
+	public int countByOwner(String owner) {
+		Integer code = codes.get(owner);
+		int count = 0;
+		for (int i = 0; code != null && i < size; i++) {
+			if (owners[i] == code) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Helper method that copies every field of a new task into the columns at an index, appending its notes to the arena.
+	 * @param index Index of the task
+	 * @param task Task whose fields are copied
+	 */
+	private void fill(int index, Task task) {
+		ids[index] = task.getTaskId();
+		types[index] = (byte) task.getType().ordinal();
+		creators[index] = code(task.getCreator());
+		titles[index] = task.getTitle();
+		noteCounts[index] = 0;
+		set(index, task);
+	}
+	
+	/**
+	 * Helper method that moves the columns of a task to another index.
+	 * @param from Index the task is moved from
+	 * @param to Index the task is moved to
+	 */
+	private void move(int from, int to) {
+		ids[to] = ids[from];
+		states[to] = states[from];
+		types[to] = types[from];
+		verified[to] = verified[from];
+		owners[to] = owners[from];
+		creators[to] = creators[from];
+		titles[to] = titles[from];
+		noteStarts[to] = noteStarts[from];
+		noteCounts[to] = noteCounts[from];
+	}
+	
+	/**
+	 * Helper method that copies the fields of a task that a command can change into the columns at an index.
+	 * The notes are written over the old notes of the task if they are at the end of the arena, and are appended otherwise.
+	 * @param index Index of the task
+	 * @param task Task whose fields are copied
+	 */
+	private void set(int index, Task task) {
+		states[index] = (byte) Task.getStateCode(task.getStateName());
+		verified[index] = task.isVerified();
+		owners[index] = code(task.getOwner());
+		int noteCount = task.getNoteCount();
+		int start = noteStarts[index];
+		if (noteCounts[index] == 0 || start + noteCounts[index] != arenaSize) {
+			unusedNotes += noteCounts[index];
+			start = arenaSize;
+		}
+		if (start + noteCount > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, start + noteCount));
+		}
+		for (int i = 0; i < noteCount; i++) {
+			arena[start + i] = task.getNote(i);
+		}
+		for (int i = start + noteCount; i < arenaSize; i++) {
+			arena[i] = null;
+		}
+		arenaSize = start + noteCount;
+		noteStarts[index] = start;
+		noteCounts[index] = noteCount;
+	}
+	
+	/**
+	 * Helper method that copies the notes that are still used to the front of a new arena once more than half of the arena is unused.
+	 */
+	private void compactIfNeeded() {
+		if (unusedNotes < MIN_COMPACTION_NOTES || unusedNotes * 2 < arenaSize) {
+			return;
+		}
+		String[] compacted = new String[Math.max(arenaSize - unusedNotes, INITIAL_CAPACITY)];
+		int position = 0;
+		for (int i = 0; i < size; i++) {
+			System.arraycopy(arena, noteStarts[i], compacted, position, noteCounts[i]);
+			noteStarts[i] = position;
+			position += noteCounts[i];
+		}
+		arena = compacted;
+		arenaSize = position;
+		unusedNotes = 0;
+	}
+	
+	/**
+	 * Helper method that doubles the room in every column.
+	 */
+	private void grow() {
+		int capacity = ids.length * 2;
+		ids = Arrays.copyOf(ids, capacity);
+		states = Arrays.copyOf(states, capacity);
+		types = Arrays.copyOf(types, capacity);
+		verified = Arrays.copyOf(verified, capacity);
+		owners = Arrays.copyOf(owners, capacity);
+		creators = Arrays.copyOf(creators, capacity);
+		titles = Arrays.copyOf(titles, capacity);
+		noteStarts = Arrays.copyOf(noteStarts, capacity);
+		noteCounts = Arrays.copyOf(noteCounts, capacity);
+	}
+	
+	/**
+	 * Helper method that gets the code of an owner or creator name, adding the name to the dictionary if it is new.
+	 * @param name Owner or creator name
+	 * @return the code of the name
+	 */
+	private int code(String name) {
+		Integer code = codes.get(name);
+		if (code == null) {
+			code = names.size();
+			names.add(name);
+			codes.put(name, code);
+		}
+		return code;
+	}
+	
+	/**
+	 * Helper method that finds the index of the task with an id.
+	 * @param id Id of the task
+	 * @return the index of the task, or -1 if there is no task with the id
+	 */
+	private int indexOf(int id) {
+		if (sorted) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			return index < 0 ? -1 : index;
+		}
+		for (int i = 0; i < size; i++) {
+			if (ids[i] == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Helper method that checks that an index is in the store.
+	 * @param index Index that is checked
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that keeps the tasks of a Product in an ArrayList on the heap, which is the store every Product uses unless it is given another one.
+ * A TaskIndex of the ids is kept alongside the ArrayList so a task is found by its id without scanning the tasks.
+ * @author Daniel Avisse
+ *
+ */
+public class MemoryTaskStore implements TaskStore {
+	
+	/** ArrayList the holds task **/
+	private ArrayList<Task> tasks;
+	
+	/** Index from the id of each task to the task **/
+	private TaskIndex index;
+	
+	/**
+	 * Constructs an empty MemoryTaskStore.
+	 */
+	public MemoryTaskStore() {
+		tasks = new ArrayList<Task>();
+		index = new TaskIndex();
+	}
+	
+	/**
+	 * Constructs an empty MemoryTaskStore with room for a number of tasks.
+	 * @param capacity Number of tasks there is room for
+	 */
+	public MemoryTaskStore(int capacity) {
+		tasks = new ArrayList<Task>(capacity);
+		index = new TaskIndex(capacity);
+	}
+	
+	/**
+	 * Gets the number of tasks in the store.
+	 * @return the number of tasks
+	 */
+	@Override
+	public int size() {
+		return tasks.size();
+	}
+	
+	/**
+	 * Gets the task at an index.
+	 * @param index Index of the task
+	 * @return the task at the index
+	 */
+	@Override
+	public Task get(int index) {
+		return tasks.get(index);
+	}
+	
+	/**
+	 * Gets the id of the task at an index.
+	 * @param index Index of the task
+	 * @return the id of the task at the index
+	 */
+	@Override
+	public int getId(int index) {
+		return tasks.get(index).getTaskId();
+	}
+	
+	/**
+	 * Looks up the task that matches the id in the index.
+	 * @param id Id of the task
+	 * @return the task, or null if there is no task with the id
+	 */
+	@Override
+	public Task getById(int id) {
+		return index.get(id);
+	}
+	
+	/**
+	 * Adds a task at an index.
+	 * @param index Index the task is added at
+	 * @param task Task that is added
+	 */
+	@Override
+	public void add(int index, Task task) {
+		tasks.add(index, task);
+		this.index.put(task);
+	}
+	
+	/**
+	 * Adds a task after every other task.
+	 * @param task Task that is added
+	 */
+	@Override
+	public void add(Task task) {
+		tasks.add(task);
+		index.put(task);
+	}
+	
+	/**
+	 * Adds tasks that are sorted by id by merging them with the tasks in the store into a new ArrayList.
+	 * Tasks whose ids are all after the last task are added to the end of the ArrayList instead.
+	 * @param sorted Tasks that are added, in increasing order of their ids
+	 */
+	@Override
+	public void addAll(List<Task> sorted) {
+		if (tasks.isEmpty() || sorted.isEmpty() || sorted.get(0).getTaskId() > tasks.get(tasks.size() - 1).getTaskId()) {
+			tasks.addAll(sorted);
+		}
+		else {
+			ArrayList<Task> merged = new ArrayList<Task>(tasks.size() + sorted.size());
+			int next = 0;
+			for (int i = 0; i < tasks.size(); i++) {
+				int id = tasks.get(i).getTaskId();
+				while (next < sorted.size() && sorted.get(next).getTaskId() < id) {
+					merged.add(sorted.get(next++));
+				}
+				merged.add(tasks.get(i));
+			}
+			while (next < sorted.size()) {
+				merged.add(sorted.get(next++));
+			}
+			tasks = merged;
+		}
+		for (int i = 0; i < sorted.size(); i++) {
+			index.put(sorted.get(i));
+		}
+	}
+	
+	/**
+	 * Removes the task at an index.
+	 * @param index Index of the task
+	 * @return the task that was removed
+	 */
+	@Override
+	public Task remove(int index) {
+		Task task = tasks.remove(index);
+		this.index.remove(task.getTaskId());
+		return task;
+	}
+	
+	/**
+	 * Does nothing, since the tasks in the ArrayList are the tasks that changed.
+	 * @param task Task that changed
+	 */
+	@Override
+	public void update(Task task) {
+		//The task is already stored
+	}
+	
+	/**
+	 * Gets a view of the ArrayList the tasks are kept in that cannot be changed, so tasks are only added and removed through the store
+	 * and the index stays up to date.
+	 * @return the tasks in the store
+	 */
+	@Override
+	public List<Task> asList() {
+		return Collections.unmodifiableList(tasks);
+	}
+	
+	/**
+	 * Creates a MemoryTaskStore with a copy of each task. The copies share the text of their notes with the tasks until either changes them.
+	 * @return the copy of the store
+	 */
+	@Override
+	public MemoryTaskStore snapshot() {
+		MemoryTaskStore copy = new MemoryTaskStore(tasks.size());
+		for (int i = 0; i < tasks.size(); i++) {
+			copy.add(tasks.get(i).copy());
+		}
+		return copy;
+	}
+}
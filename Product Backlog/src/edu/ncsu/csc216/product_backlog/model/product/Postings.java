@@ -0,0 +1,103 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import java.util.Arrays;
+
+/**
+ * Class that is a posting list, which holds the ids of the tasks that have a word or a value as a sorted int array.
+ * The ids are kept in increasing order, which is the order of the tasks of a product, so an id is found with a binary search
+ * and two lists are intersected by looking up the ids of the shorter list in the longer one.
+ * @author Daniel Avisse
+ *
+ */
+class Postings {
+	
+	/** Ids of the tasks in increasing order, followed by unused room **/
+	private int[] ids;
+	
+	/** Number of ids in the list **/
+	private int size;
+	
+	/**
+	 * Constructs an empty posting list.
+	 */
+	Postings() {
+		ids = new int[2];
+	}
+	
+	/**
+	 * Gets the number of ids in the list.
+	 * @return the number of ids
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Adds an id to the list if it is not already in it. Ids larger than every other id are added to the end.
+	 * @param id Id of the task
+	 */
+	void add(int id) {
+		int index = size == 0 || id > ids[size - 1] ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+		if (index >= 0) {
+			return;
+		}
+		index = -index - 1;
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+		}
+		System.arraycopy(ids, index, ids, index + 1, size - index);
+		ids[index] = id;
+		size++;
+	}
+	
+	/**
+	 * Removes an id from the list.
+	 * @param id Id of the task
+	 */
+	void remove(int id) {
+		int index = Arrays.binarySearch(ids, 0, size, id);
+		if (index >= 0) {
+			System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+			size--;
+		}
+	}
+	
+	/**
+	 * Checks if an id is in the list.
+	 * @param id Id of the task
+	 * @return true if the id is in the list
+	 */
+	boolean contains(int id) {
+		return Arrays.binarySearch(ids, 0, size, id) >= 0;
+	}
+	
+	/**
+	 * Gets the ids in a new array.
+	 * @return the ids in increasing order
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(ids, size);
+	}
+	
+	/**
+	 * Finds the ids that are in every list. The lists are intersected from the shortest one,
+	 * so the work depends on the shortest list and not on the number of tasks.
+	 * @param lists Lists that are intersected, which this sorts by size
+	 * @return the ids in every list in increasing order
+	 */
+	static int[] intersect(Postings[] lists) {
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+		int[] found = lists[0].toArray();
+		int count = found.length;
+		for (int i = 1; i < lists.length && count > 0; i++) {
+			int kept = 0;
+			for (int j = 0; j < count; j++) {
+				if (lists[i].contains(found[j])) {
+					found[kept++] = found[j];
+				}
+			}
+			count = kept;
+		}
+		return Arrays.copyOf(found, count);
+	}
+}
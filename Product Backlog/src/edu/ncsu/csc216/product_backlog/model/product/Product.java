@@ -1,15 +1,29 @@
 package edu.ncsu.csc216.product_backlog.model.product;
 
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.task.StringPool;
 import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.TaskListener;
 import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
 
 /**
  * Class for creating products and having tasks that associate with each product.
  * In this class tasks can be stored in each created product and a product can have 0 to many task.
  * This class also contains methods that can help add,edit, and delete task.
+ * The tasks are kept in a TaskStore, which is a MemoryTaskStore unless the product is constructed with another store.
+ * Tasks can be looked up by state, type, owner and creator through an index that is built the first time it is used
+ * and is kept up to date as tasks are added, deleted and changed.
+ * The words in the titles and notes of the tasks are searched through an inverted index that is kept up to date the same way.
+ * Every task the product adds or hands out is given the listener of the product, so a task that is changed directly,
+ * and not only with executeCommand, is still indexed and saved back to the store.
+ * A product made with share uses the same store as the product it was made from until either is about to change,
+ * when the other products that share the store are given a snapshot of it.
  * @author Daniel Avisse
  *
  */
@@ -18,11 +32,32 @@ public class Product {
 	/** Name of the product **/
 	private String productName;
 	
-	/** Counter that is used when assigning taskIds **/
+	/** Counter that is used when assigning taskIds, which is always after the largest id that was added **/
 	private int counter;
 	
-	/** ArrayList the holds task **/
-	private ArrayList<Task> tasks;
+	/** Store that holds the tasks in the order of their ids **/
+	private TaskStore tasks;
+	
+	/** Index of the tasks by state, type, owner and creator, or null until the tasks are first looked up by one of them **/
+	private TaskAttributeIndex attributes;
+	
+	/** Index of the words in the titles and notes of the tasks, or null until the tasks are first searched **/
+	private TextIndex text;
+	
+	/** True if the product has changed since it was last read from or written to a file **/
+	private boolean dirty;
+	
+	/** Number of times the product has changed, used to tell if it changed while a snapshot of it was being saved **/
+	private int modCount;
+	
+	/** Listener given to every task of the product **/
+	private TaskListener listener = new TaskChanges();
+	
+	/** Lock held while products join or leave a Share, since a product can be shared from one thread and changed on another **/
+	private static final Object SHARE_LOCK = new Object();
+	
+	/** Products that share the store of this product, or null if the store is not shared **/
+	private Share share;
 	
 	/**
 	 * Constructor a product with a productName.
@@ -30,13 +65,38 @@ public class Product {
 	 * @throws IllegalArgumentException if the productName is invalid.
 	 */
 	public Product(String productName) {
+		this(productName, new MemoryTaskStore());
+	}
+	
+	/**
+	 * Constructor a product with a productName that keeps its tasks in the given store.
+	 * The counter for assigning taskIds starts after the largest id already in the store.
+	 * @param productName Name of the new product
+	 * @param store Store that holds the tasks of the product
+	 * @throws IllegalArgumentException if the productName or store is invalid.
+	 */
+	public Product(String productName, TaskStore store) {
+		if (store == null) {
+			throw new IllegalArgumentException("Invalid task store.");
+		}
 		setProductName(productName);
-		emptyList();
+		tasks = store;
 		setTaskCounter();
 	}
 	
 	/**
-	 * Sets the productName for product
+	 * Constructs a product with the name, counter, dirty flag and store of another product, without indexes.
+	 * @param product Product whose store is used
+	 */
+	private Product(Product product) {
+		productName = product.productName;
+		counter = product.counter;
+		dirty = product.dirty;
+		tasks = product.tasks;
+	}
+	
+	/**
+	 * Sets the productName for product, interning it in the shared StringPool
 	 * @param productName Name of the product
 	 * @throws IllegalArgumentException if productName is invalid
 	 */
@@ -44,7 +104,8 @@ public class Product {
 		if (productName == null || "".equals(productName)) {
 			throw new IllegalArgumentException("Invalid product name.");
 		}
-		this.productName = productName;
+		this.productName = StringPool.getShared().intern(productName);
+		markDirty();
 	}
 
 	/**
@@ -61,122 +122,569 @@ public class Product {
 	 * Sets the counter for assigning taskIds
 	 */
 	private void setTaskCounter() {
-		if (tasks.isEmpty()) {
+		if (tasks.size() == 0) {
 			counter = 1;
 		}
 		else {
-			int max = counter;
+			int max = 0;
 			for (int i = 0; i < tasks.size(); i++) {
-				if (tasks.get(i).getTaskId() > max) {
-					max = tasks.get(i).getTaskId();
-					this.counter = max + 1;
-				}
-				else if (max == 1) {
-					this.counter = max + 1;
+				if (tasks.getId(i) > max) {
+					max = tasks.getId(i);
 				}
 			}
+			this.counter = Math.max(counter, max + 1);
 		}	
 	}
 	
 	/**
-	 * Creates an emptyList of tasks.
+	 * Checks if the product has changed since it was last read from or written to a file.
+	 * A new product is always dirty.
+	 * @return true if the product has changed
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+	
+	/**
+	 * Marks the product as unchanged after it has been read from or written to a file.
+	 */
+	public void markClean() {
+		dirty = false;
+	}
+	
+	/**
+	 * Marks the product as changed.
+	 */
+	private void markDirty() {
+		dirty = true;
+		modCount++;
+	}
+	
+	/**
+	 * Gets the number of times the product has changed since it was created.
+	 * @return the number of changes
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+	
+	/**
+	 * Creates a copy of the product that does not change when the product does, with a snapshot of its store.
+	 * The store decides how its tasks are copied, so a store that keeps its tasks off the heap does not read them into task objects.
+	 * The copy has the same task counter and dirty flag as the product, and keeps its tasks in the same kind of store.
+	 * @return the copy of the product
 	 */
-	private void emptyList() {
-		tasks = new ArrayList<Task>();
+	public Product snapshot() {
+		Product copy = new Product(productName, tasks.snapshot());
+		copy.counter = counter;
+		copy.dirty = dirty;
+		return copy;
+	}
+	
+	/**
+	 * Creates a copy of the product that shares its store instead of copying it, so nothing is copied while neither product changes.
+	 * Before a product that shares its store adds, deletes or changes a task, the other products that share it are given one snapshot
+	 * of the store, so the product that changes keeps the tasks it handed out and the others do not see the change.
+	 * Tasks handed out by the other products before that should be looked up again. The copy has the same task counter and dirty flag.
+	 * @return the copy of the product
+	 */
+	public Product share() {
+		synchronized (SHARE_LOCK) {
+			Product copy = new Product(this);
+			if (share == null) {
+				share = new Share();
+				share.add(this);
+			}
+			copy.share = share;
+			share.add(copy);
+			return copy;
+		}
+	}
+	
+	/**
+	 * Helper method that is called before the store is changed. If the store is shared, the other products that share it
+	 * are given a snapshot of it, which they keep sharing with each other, and this product stops sharing it.
+	 */
+	private void copyOnWrite() {
+		synchronized (SHARE_LOCK) {
+			if (share == null) {
+				return;
+			}
+			ArrayList<Product> others = share.others(this);
+			share = null;
+			if (others.isEmpty()) {
+				return;
+			}
+			TaskStore copy = tasks.snapshot();
+			Share othersShare = others.size() > 1 ? new Share() : null;
+			for (int i = 0; i < others.size(); i++) {
+				others.get(i).tasks = copy;
+				others.get(i).share = othersShare;
+				if (othersShare != null) {
+					othersShare.add(others.get(i));
+				}
+			}
+		}
 	}
 	
 	/**
-	 * Creates a new task that is added to the ArrayList.
+	 * Creates a new task that is added to the store in the order of its id.
+	 * A task whose id is after every other task is added to the end, and otherwise its place is found with a binary search.
 	 * @param task The new task that is added.
 	 * @throws IllegalArgumentException if a task with the same Id as another is added.
 	 */
 	public void addTask(Task task) {
-		if (tasks.isEmpty()) {
+		copyOnWrite();
+		markDirty();
+		int id = task.getTaskId();
+		if (tasks.size() == 0 || id > tasks.getId(tasks.size() - 1)) {
 			tasks.add(task);
-			setTaskCounter();
 		}
 		else {
-			for (int i = 0; i < tasks.size(); i++) {
-				if (task.getTaskId() == tasks.get(i).getTaskId()) {
+			int index = binarySearch(id);
+			if (index >= 0 || tasks.getById(id) != null) {
+				throw new IllegalArgumentException("Task cannot be added.");
+			}
+			tasks.add(-index - 1, task);
+		}
+		counter = Math.max(counter, id + 1);
+		attach(task);
+		if (attributes != null) {
+			attributes.add(task);
+		}
+		if (text != null) {
+			text.add(task);
+		}
+	}
+	
+	/**
+	 * Adds many tasks at once. The new tasks are sorted by id unless they already are, and then the store merges them with its tasks
+	 * in one pass, so the tasks already in the store are not removed and added again.
+	 * No task is added if any of them cannot be.
+	 * @param newTasks Tasks that are added
+	 * @throws IllegalArgumentException if two of the tasks have the same id, or a task has the same id as a task in the store
+	 */
+	public void addTasks(List<Task> newTasks) {
+		if (newTasks.isEmpty()) {
+			return;
+		}
+		int last = tasks.size() == 0 ? 0 : tasks.getId(tasks.size() - 1);
+		boolean appended = true;
+		for (int i = 0; i < newTasks.size() && appended; i++) {
+			appended = newTasks.get(i).getTaskId() > (i == 0 ? last : newTasks.get(i - 1).getTaskId());
+		}
+		List<Task> sorted = newTasks;
+		if (!appended) {
+			ArrayList<Task> copy = new ArrayList<Task>(newTasks);
+			copy.sort(Comparator.comparingInt(Task::getTaskId));
+			for (int i = 0; i < copy.size(); i++) {
+				int id = copy.get(i).getTaskId();
+				if ((i > 0 && id == copy.get(i - 1).getTaskId()) || tasks.getById(id) != null) {
 					throw new IllegalArgumentException("Task cannot be added.");
 				}
-				if (task.getTaskId() < tasks.get(i).getTaskId() && i == 0) {
-					tasks.add(0, task);
-					setTaskCounter();
-					break;
-				}
-				else if (task.getTaskId() < tasks.get(i).getTaskId()) {
-					tasks.add(i, task);
-					setTaskCounter();
-					break;
-				}
-				else if (i == tasks.size() - 1) {
-					tasks.add(task);
-					setTaskCounter();
-					break;
-				}
-			}	
-		}	
+			}
+			sorted = copy;
+		}
+		copyOnWrite();
+		tasks.addAll(sorted);
+		markDirty();
+		last = tasks.getId(tasks.size() - 1);
+		counter = Math.max(counter, last + 1);
+		for (int i = 0; i < newTasks.size(); i++) {
+			attach(newTasks.get(i));
+		}
+		for (int i = 0; attributes != null && i < newTasks.size(); i++) {
+			attributes.add(newTasks.get(i));
+		}
+		for (int i = 0; text != null && i < newTasks.size(); i++) {
+			text.add(newTasks.get(i));
+		}
 	}
 	
 	/**
-	 * Creates a new task and adds it to the ArrayList using the some of the params that make up a task.
+	 * Creates a new task and adds it to the store using the some of the params that make up a task.
 	 * @param title Title of the task
 	 * @param type Type for the task
 	 * @param creator Creator of the task
 	 * @param note Note for the task
+	 * @return the id given to the new task
 	 * @throws IllegalArgumentException if any of the fields when adding the task are invalid
 	 */
-	public void addTask(String title, Type type, String creator, String note) {
+	public int addTask(String title, Type type, String creator, String note) {
 		Task task = new Task(counter, title, type, creator, note);
+		copyOnWrite();
 		tasks.add(task);
+		markDirty();
 		counter++;
-		
+		attach(task);
+		if (attributes != null) {
+			attributes.add(task);
+		}
+		if (text != null) {
+			text.add(task);
+		}
+		return task.getTaskId();
 	}
 
 	/**
-	 * Gets the ArrayList containing tasks and returns all the task inside.
-	 * @return all the tasks in the ArrayList
+	 * Gets the List containing tasks and returns all the task inside.
+	 * A store that does not keep its tasks on the heap reads each task when it is used.
+	 * The List cannot be changed, and each task in it has the listener of the product.
+	 * @return all the tasks in the store
 	 */
-	public ArrayList<Task> getTasks() {
-		return tasks;
+	public List<Task> getTasks() {
+		List<Task> stored = tasks.asList();
+		return new AbstractList<Task>() {
+			@Override
+			public Task get(int index) {
+				return attach(stored.get(index));
+			}
+			
+			@Override
+			public int size() {
+				return stored.size();
+			}
+		};
 	}
 	
 	/**
-	 * Searches the ArrayList containing tasks and returns the task that matches the id. 
+	 * Looks up the task that matches the id in the store, which a MemoryTaskStore does with its index of ids. 
 	 * @param id Id of the task.
 	 * @return returns the task if it's found
 	 */
 	public Task getTaskById(int id) {
-		for (int i = 0; i < tasks.size(); i++) {
-			if (tasks.get(i).getTaskId() == id) {
-				return tasks.get(i);
-			}
-		}
-		return null;
+		return attach(tasks.getById(id));
 	}
 	
 	/**
-	 * Searches the ArrayList containing tasks by using it's id and then executing the command that will allow the task to transition states.
+	 * Searches the store containing tasks by using it's id and then executing the command that will allow the task to transition states.
+	 * The listener of the task saves the changed task back to the store, moves it to its new state and owner in the index and indexes the note the command added.
+	 * Task.update puts the fields of the task back if the command fails, so the store, the indexes and the dirty flag are left as they were.
 	 * @param id Id of the task.
 	 * @param c Command value
+	 * @throws UnsupportedOperationException if the command is not a valid transition for the task
+	 * @throws IllegalArgumentException if the command gives the task an invalid field
 	 */
 	public void executeCommand(int id, Command c) {
-		if (!getTasks().isEmpty()) {
-			Task task = getTaskById(id);
-			task.update(c);
+		if (tasks.size() != 0) {
+			getTaskById(id).update(c);
 		}
 	}
 	
 	/**
-	 * Searches the ArrayList containing task and removes the task based of it's id.
+	 * Gets the tasks in a state, in the order of their ids.
+	 * @param stateName Name of the state
+	 * @return the tasks in the state
+	 */
+	public List<Task> getTasksByState(String stateName) {
+		return getTasks(attributes().getByState(stateName));
+	}
+	
+	/**
+	 * Gets the tasks of a type, in the order of their ids.
+	 * @param type Type of the tasks
+	 * @return the tasks of the type
+	 */
+	public List<Task> getTasksByType(Type type) {
+		return getTasks(attributes().getByType(type));
+	}
+	
+	/**
+	 * Gets the tasks of an owner, in the order of their ids.
+	 * @param owner Owner of the tasks
+	 * @return the tasks of the owner
+	 */
+	public List<Task> getTasksByOwner(String owner) {
+		return getTasks(attributes().getByOwner(owner));
+	}
+	
+	/**
+	 * Gets the tasks of a creator, in the order of their ids.
+	 * @param creator Creator of the tasks
+	 * @return the tasks of the creator
+	 */
+	public List<Task> getTasksByCreator(String creator) {
+		return getTasks(attributes().getByCreator(creator));
+	}
+	
+	/**
+	 * Gets the tasks in a state that have an owner, in the order of their ids.
+	 * Only the smaller of the two lists of ids is looked through.
+	 * @param stateName Name of the state
+	 * @param owner Owner of the tasks
+	 * @return the tasks in the state with the owner
+	 */
+	public List<Task> getTasksByStateAndOwner(String stateName, String owner) {
+		return getTasks(attributes().getByStateAndOwner(stateName, owner));
+	}
+	
+	/**
+	 * Searches the titles and notes of the tasks for words. Words are compared without case and do not have to be next to each other.
+	 * @param keywords Words that are searched for
+	 * @return the tasks that have every word, in the order of their ids
+	 */
+	public List<Task> searchTasks(String keywords) {
+		return getTasks(text().search(TextIndex.tokenize(keywords)));
+	}
+	
+	/**
+	 * Searches the titles and notes of the tasks for a phrase. The tasks that have every word of the phrase are found in the index,
+	 * and then only those tasks are checked for the words next to each other in the title or in one note.
+	 * @param phrase Phrase that is searched for
+	 * @return the tasks that have the phrase, in the order of their ids
+	 */
+	public List<Task> searchPhrase(String phrase) {
+		ArrayList<String> words = TextIndex.tokenize(phrase);
+		int[] ids = text().search(words);
+		ArrayList<Task> found = new ArrayList<Task>();
+		for (int i = 0; i < ids.length; i++) {
+			Task task = attach(tasks.getById(ids[i]));
+			boolean match = containsPhrase(TextIndex.tokenize(task.getTitle()), words);
+			for (int j = 0; !match && j < task.getNoteCount(); j++) {
+				match = containsPhrase(TextIndex.tokenize(task.getNote(j)), words);
+			}
+			if (match) {
+				found.add(task);
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Helper method that checks if the words of a text have the words of a phrase next to each other.
+	 * @param textWords Words of the text
+	 * @param phraseWords Words of the phrase
+	 * @return true if the text has the phrase
+	 */
+	private static boolean containsPhrase(ArrayList<String> textWords, ArrayList<String> phraseWords) {
+		for (int i = 0; i + phraseWords.size() <= textWords.size(); i++) {
+			int matched = 0;
+			while (matched < phraseWords.size() && textWords.get(i + matched).equals(phraseWords.get(matched))) {
+				matched++;
+			}
+			if (matched == phraseWords.size()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Helper method that gets the index of the words of the tasks, building it from every task the first time.
+	 * @return the index of the words
+	 */
+	private TextIndex text() {
+		if (text == null) {
+			TextIndex index = new TextIndex();
+			for (int i = 0; i < tasks.size(); i++) {
+				index.add(tasks.get(i));
+			}
+			text = index;
+		}
+		return text;
+	}
+	
+	/**
+	 * Helper method that gets the tasks with the given ids from the store.
+	 * @param ids Ids of the tasks in increasing order
+	 * @return the tasks in the same order
+	 */
+	private List<Task> getTasks(int[] ids) {
+		ArrayList<Task> found = new ArrayList<Task>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			found.add(attach(tasks.getById(ids[i])));
+		}
+		return found;
+	}
+	
+	/**
+	 * Helper method that gives a task of the product the listener of the product.
+	 * A store that does not keep its tasks on the heap returns a new task each time, so every task is given the listener as it is handed out.
+	 * @param task Task of the product, or null
+	 * @return the same task
+	 */
+	private Task attach(Task task) {
+		if (task != null) {
+			task.setListener(listener);
+		}
+		return task;
+	}
+	
+	/**
+	 * Helper method that gets the index of the tasks by state, type, owner and creator, building it from every task the first time.
+	 * @return the index of the tasks
+	 */
+	private TaskAttributeIndex attributes() {
+		if (attributes == null) {
+			TaskAttributeIndex index = new TaskAttributeIndex();
+			for (int i = 0; i < tasks.size(); i++) {
+				index.add(tasks.get(i));
+			}
+			attributes = index;
+		}
+		return attributes;
+	}
+	
+	/**
+	 * Finds the task with a binary search of the ids in the store and removes the task based of it's id.
 	 * @param id Id of the task.
 	 */
 	public void deleteTaskById(int id) {
-		for (int i = 0; i < tasks.size(); i++) {
-			if (tasks.get(i).getTaskId() == id) {
-				tasks.remove(i);
+		int index = indexOfTask(id);
+		if (index >= 0) {
+			copyOnWrite();
+			Task task = tasks.remove(index);
+			task.setListener(null);
+			if (attributes != null) {
+				attributes.remove(task);
+			}
+			if (text != null) {
+				text.remove(task);
+			}
+			markDirty();
+		}
+	}
+	
+	/**
+	 * Finds the index of the task with an id with a binary search, since the store keeps the tasks in the order of their ids.
+	 * The store is only scanned if the task is in it but the binary search did not find it.
+	 * @param id Id of the task
+	 * @return the index of the task, or -1 if there is no task with the id
+	 */
+	private int indexOfTask(int id) {
+		int index = binarySearch(id);
+		if (index >= 0) {
+			return index;
+		}
+		//A store that was given tasks out of order is searched in full
+		if (tasks.getById(id) != null) {
+			for (int i = 0; i < tasks.size(); i++) {
+				if (tasks.getId(i) == id) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Searches the ids of the store for an id with a binary search.
+	 * @param id Id of the task
+	 * @return the index of the task with the id, or -(index + 1) where index is the index of the first task with a larger id
+	 */
+	private int binarySearch(int id) {
+		int low = 0;
+		int high = tasks.size() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = tasks.getId(middle);
+			if (middleId < id) {
+				low = middle + 1;
+			}
+			else if (middleId > id) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+	
+	/**
+	 * Listener that the product gives to each of its tasks. When a task changes, directly or with executeCommand,
+	 * it is moved to its new state and owner in the index, its new notes are indexed, it is saved back to the store and the product is marked as changed.
+	 * Before a task changes, a store that is shared is copied for the other products. A task that is no longer in the product is ignored.
+	 * @author Daniel Avisse
+	 */
+	private class TaskChanges implements TaskListener {
+		
+		/**
+		 * Gives the other products that share the store a snapshot of it before a task of the product changes.
+		 * @param task Task that is about to change
+		 */
+		@Override
+		public void taskChanging(Task task) {
+			if (indexOfTask(task.getTaskId()) >= 0) {
+				copyOnWrite();
+			}
+		}
+		
+		/**
+		 * Updates the indexes and the store after a command changed a task or a note was added to it.
+		 * @param task Task that changed
+		 * @param oldStateName Name of the state of the task before it changed
+		 * @param oldOwner Owner of the task before it changed
+		 * @param oldNoteCount Number of notes of the task before it changed
+		 */
+		@Override
+		public void taskChanged(Task task, String oldStateName, String oldOwner, int oldNoteCount) {
+			if (indexOfTask(task.getTaskId()) < 0) {
+				return;
+			}
+			if (attributes != null) {
+				attributes.update(task, oldStateName, oldOwner);
+			}
+			for (int i = oldNoteCount; text != null && i < task.getNoteCount(); i++) {
+				text.addNote(task, task.getNote(i));
+			}
+			tasks.update(task);
+			markDirty();
+		}
+		
+		/**
+		 * Updates the text index and the store after text was added to a note of a task.
+		 * @param task Task that changed
+		 * @param index Index of the note that changed
+		 * @param oldNote Note before it changed
+		 */
+		@Override
+		public void noteChanged(Task task, int index, String oldNote) {
+			if (indexOfTask(task.getTaskId()) < 0) {
+				return;
+			}
+			if (text != null) {
+				text.changeNote(task, index, oldNote);
+			}
+			tasks.update(task);
+			markDirty();
+		}
+	}
+	
+	/**
+	 * Class that is the group of products that share a store. The products are held with weak references,
+	 * so a product that is no longer used leaves the group without having to change.
+	 * @author Daniel Avisse
+	 *
+	 */
+	private static class Share {
+		
+		/** Products that share the store **/
+		private ArrayList<WeakReference<Product>> products = new ArrayList<WeakReference<Product>>();
+		
+		/**
+		 * Adds a product to the group, removing the products that are no longer used.
+		 * @param product Product that shares the store
+		 */
+		private void add(Product product) {
+			products.removeIf(reference -> reference.get() == null);
+			products.add(new WeakReference<Product>(product));
+		}
+		
+		/**
+		 * Gets the products in the group other than one product that are still used.
+		 * @param product Product that is left out
+		 * @return the other products
+		 */
+		private ArrayList<Product> others(Product product) {
+			ArrayList<Product> others = new ArrayList<Product>();
+			for (int i = 0; i < products.size(); i++) {
+				Product other = products.get(i).get();
+				if (other != null && other != product) {
+					others.add(other);
+				}
 			}
+			return others;
 		}
 	}
 	
@@ -0,0 +1,164 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Class that indexes the ids of the tasks of a product by their state, type, owner and creator,
+ * so the tasks with a value are found without looking at every task.
+ * The ids with each value are kept in a Postings list, a sorted int array like the ones of TextIndex,
+ * so they are listed in the same order as the tasks of the product.
+ * @author Daniel Avisse
+ *
+ */
+class TaskAttributeIndex {
+	
+	/** Ids of the tasks in each state, keyed by the name of the state **/
+	private HashMap<String, Postings> byState;
+	
+	/** Ids of the tasks of each type **/
+	private EnumMap<Type, Postings> byType;
+	
+	/** Ids of the tasks of each owner **/
+	private HashMap<String, Postings> byOwner;
+	
+	/** Ids of the tasks of each creator **/
+	private HashMap<String, Postings> byCreator;
+	
+	/**
+	 * Constructs an empty TaskAttributeIndex.
+	 */
+	TaskAttributeIndex() {
+		byState = new HashMap<String, Postings>();
+		byType = new EnumMap<Type, Postings>(Type.class);
+		byOwner = new HashMap<String, Postings>();
+		byCreator = new HashMap<String, Postings>();
+	}
+	
+	/**
+	 * Adds a task to the index under its state, type, owner and creator.
+	 * @param task Task that is added
+	 */
+	void add(Task task) {
+		int id = task.getTaskId();
+		byState.computeIfAbsent(task.getStateName(), key -> new Postings()).add(id);
+		byType.computeIfAbsent(task.getType(), key -> new Postings()).add(id);
+		byOwner.computeIfAbsent(task.getOwner(), key -> new Postings()).add(id);
+		byCreator.computeIfAbsent(task.getCreator(), key -> new Postings()).add(id);
+	}
+	
+	/**
+	 * Removes a task from the index.
+	 * @param task Task that is removed
+	 */
+	void remove(Task task) {
+		int id = task.getTaskId();
+		removeId(byState, task.getStateName(), id);
+		removeId(byOwner, task.getOwner(), id);
+		removeId(byCreator, task.getCreator(), id);
+		Postings ids = byType.get(task.getType());
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.size() == 0) {
+				byType.remove(task.getType());
+			}
+		}
+	}
+	
+	/**
+	 * Moves a task to its new state and owner after a command changed them. Its type and creator do not change.
+	 * @param task Task that changed
+	 * @param oldStateName Name of the state of the task before the command
+	 * @param oldOwner Owner of the task before the command
+	 */
+	void update(Task task, String oldStateName, String oldOwner) {
+		int id = task.getTaskId();
+		if (!oldStateName.equals(task.getStateName())) {
+			removeId(byState, oldStateName, id);
+			byState.computeIfAbsent(task.getStateName(), key -> new Postings()).add(id);
+		}
+		if (!oldOwner.equals(task.getOwner())) {
+			removeId(byOwner, oldOwner, id);
+			byOwner.computeIfAbsent(task.getOwner(), key -> new Postings()).add(id);
+		}
+	}
+	
+	/**
+	 * Gets the ids of the tasks in a state.
+	 * @param stateName Name of the state
+	 * @return the ids in increasing order
+	 */
+	int[] getByState(String stateName) {
+		return get(byState.get(stateName));
+	}
+	
+	/**
+	 * Gets the ids of the tasks of a type.
+	 * @param type Type of the tasks
+	 * @return the ids in increasing order
+	 */
+	int[] getByType(Type type) {
+		return get(byType.get(type));
+	}
+	
+	/**
+	 * Gets the ids of the tasks of an owner.
+	 * @param owner Owner of the tasks
+	 * @return the ids in increasing order
+	 */
+	int[] getByOwner(String owner) {
+		return get(byOwner.get(owner));
+	}
+	
+	/**
+	 * Gets the ids of the tasks of a creator.
+	 * @param creator Creator of the tasks
+	 * @return the ids in increasing order
+	 */
+	int[] getByCreator(String creator) {
+		return get(byCreator.get(creator));
+	}
+	
+	/**
+	 * Gets the ids of the tasks in a state that have an owner by intersecting the two lists from the shorter one.
+	 * @param stateName Name of the state
+	 * @param owner Owner of the tasks
+	 * @return the ids in increasing order
+	 */
+	int[] getByStateAndOwner(String stateName, String owner) {
+		Postings inState = byState.get(stateName);
+		Postings owned = byOwner.get(owner);
+		if (inState == null || owned == null) {
+			return new int[0];
+		}
+		return Postings.intersect(new Postings[] {inState, owned});
+	}
+	
+	/**
+	 * Helper method that returns an empty array in place of a value that has no tasks.
+	 * @param ids Ids of the tasks with a value, or null if there are none
+	 * @return the ids in a new array, which is empty if there are none
+	 */
+	private static int[] get(Postings ids) {
+		return ids == null ? new int[0] : ids.toArray();
+	}
+	
+	/**
+	 * Helper method that removes an id from the list of a value, removing the list once it is empty.
+	 * @param index Lists of ids keyed by value
+	 * @param value Value the id is removed from
+	 * @param id Id of the task
+	 */
+	private static void removeId(HashMap<String, Postings> index, String value, int id) {
+		Postings ids = index.get(value);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.size() == 0) {
+				index.remove(value);
+			}
+		}
+	}
+}
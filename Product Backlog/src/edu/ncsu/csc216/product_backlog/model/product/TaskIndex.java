@@ -0,0 +1,147 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that maps task ids to tasks in a hash table with open addressing, so a task is found by its id without scanning the tasks
+ * and without boxing the id into an Integer.
+ * The ids are kept in an int array and the tasks in an array of the same length, and a collision moves on to the next slot.
+ * A slot is empty when it has no task. Removing a task moves the tasks after it back into the gap, so no deleted markers are left behind.
+ * @author Daniel Avisse
+ *
+ */
+class TaskIndex {
+	
+	/** Number of slots in a new index, which is always a power of two **/
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/** Ids of the tasks in each slot **/
+	private int[] ids;
+	
+	/** Task in each slot, or null if the slot is empty **/
+	private Task[] tasks;
+	
+	/** Number of tasks in the index **/
+	private int size;
+	
+	/**
+	 * Constructs an empty TaskIndex.
+	 */
+	TaskIndex() {
+		this(0);
+	}
+	
+	/**
+	 * Constructs an empty TaskIndex with room for a number of tasks before it grows.
+	 * @param expected Number of tasks there is room for
+	 */
+	TaskIndex(int expected) {
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < expected * 2 && capacity < 1 << 30) {
+			capacity <<= 1;
+		}
+		ids = new int[capacity];
+		tasks = new Task[capacity];
+	}
+	
+	/**
+	 * Gets the number of tasks in the index.
+	 * @return the number of tasks
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Gets the task with an id.
+	 * @param id Id of the task
+	 * @return the task, or null if there is no task with the id
+	 */
+	Task get(int id) {
+		int mask = ids.length - 1;
+		for (int slot = hash(id) & mask; tasks[slot] != null; slot = (slot + 1) & mask) {
+			if (ids[slot] == id) {
+				return tasks[slot];
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Adds a task by its id, replacing the task that had the same id.
+	 * @param task Task that is added
+	 */
+	void put(Task task) {
+		if ((size + 1) * 2 > ids.length) {
+			grow();
+		}
+		int id = task.getTaskId();
+		int mask = ids.length - 1;
+		int slot = hash(id) & mask;
+		while (tasks[slot] != null) {
+			if (ids[slot] == id) {
+				tasks[slot] = task;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		ids[slot] = id;
+		tasks[slot] = task;
+		size++;
+	}
+	
+	/**
+	 * Removes the task with an id. The tasks after it that were moved on by a collision are moved back so they can still be found.
+	 * @param id Id of the task
+	 */
+	void remove(int id) {
+		int mask = ids.length - 1;
+		int slot = hash(id) & mask;
+		while (tasks[slot] != null && ids[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+		if (tasks[slot] == null) {
+			return;
+		}
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (tasks[next] != null) {
+			int home = hash(ids[next]) & mask;
+			//The task can fill the gap if its home slot is not between the gap and where it is now
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				ids[gap] = ids[next];
+				tasks[gap] = tasks[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		tasks[gap] = null;
+		size--;
+	}
+	
+	/**
+	 * Doubles the number of slots and adds every task again.
+	 */
+	private void grow() {
+		int[] oldIds = ids;
+		Task[] oldTasks = tasks;
+		ids = new int[oldIds.length * 2];
+		tasks = new Task[oldTasks.length * 2];
+		size = 0;
+		for (int i = 0; i < oldTasks.length; i++) {
+			if (oldTasks[i] != null) {
+				put(oldTasks[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Spreads the bits of an id so ids that are next to each other do not fill the slots next to each other.
+	 * @param id Id of a task
+	 * @return the hash of the id
+	 */
+	private static int hash(int id) {
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,94 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import java.util.List;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Interface for the storage that a Product keeps its tasks in.
+ * Tasks are kept in the order of their ids, and a store may keep them somewhere other than the heap as long as a task
+ * that is returned can be changed and then passed to update to save the change. Product does this for every change through the
+ * listener it gives its tasks, so a task from a store that returns a new task each time is not changed without the change being saved.
+ * @author Daniel Avisse
+ *
+ */
+public interface TaskStore {
+	
+	/**
+	 * Gets the number of tasks in the store.
+	 * @return the number of tasks
+	 */
+	int size();
+	
+	/**
+	 * Gets the task at an index.
+	 * @param index Index of the task
+	 * @return the task at the index
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	Task get(int index);
+	
+	/**
+	 * Gets the id of the task at an index without having to read the whole task.
+	 * @param index Index of the task
+	 * @return the id of the task at the index
+	 * @throws IndexOutOfBoundsException if the index is not in the store
+	 */
+	int getId(int index);
+	
+	/**
+	 * Gets the task with an id.
+	 * @param id Id of the task
+	 * @return the task, or null if there is no task with the id
+	 */
+	Task getById(int id);
+	
+	/**
+	 * Adds a task at an index, moving the tasks after it back.
+	 * @param index Index the task is added at
+	 * @param task Task that is added
+	 */
+	void add(int index, Task task);
+	
+	/**
+	 * Adds a task after every other task.
+	 * @param task Task that is added
+	 */
+	void add(Task task);
+	
+	/**
+	 * Adds many tasks at once by merging them with the tasks in the store in one pass inside the store,
+	 * so the tasks already in the store are not read or written again.
+	 * The tasks must be sorted by id, and none of their ids can already be in the store.
+	 * @param sorted Tasks that are added, in increasing order of their ids
+	 */
+	void addAll(List<Task> sorted);
+	
+	/**
+	 * Removes the task at an index.
+	 * @param index Index of the task
+	 * @return the task that was removed
+	 */
+	Task remove(int index);
+	
+	/**
+	 * Saves the changes made to a task that was returned by this store.
+	 * @param task Task that changed
+	 */
+	void update(Task task);
+	
+	/**
+	 * Gets the tasks as a List in the order they are stored.
+	 * A store that keeps its tasks in the heap returns a view of the list it keeps them in, and other stores return a view that reads each task when it is used.
+	 * The List cannot be changed, so tasks are only added and removed through the store.
+	 * @return the tasks in the store
+	 */
+	List<Task> asList();
+	
+	/**
+	 * Creates a copy of the store that does not change when the store does, and that the store does not see changes to.
+	 * The copy is made at the level of the store, so a store that does not keep its tasks on the heap does not read them to copy them.
+	 * @return the copy of the store
+	 */
+	TaskStore snapshot();
+}
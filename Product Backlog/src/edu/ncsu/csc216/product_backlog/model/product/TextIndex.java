@@ -0,0 +1,154 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+
+/**
+ * Class that is an inverted index of the words in the titles and notes of the tasks of a product.
+ * Each word maps to a posting list of the ids of the tasks that have the word, kept as a sorted int array,
+ * so the tasks with every word of a search are found by intersecting the posting lists of the words.
+ * Words are runs of letters and digits, compared without case, and the [State] prefix of a note is not indexed.
+ * @author Daniel Avisse
+ *
+ */
+class TextIndex {
+	
+	/** Posting list of each word **/
+	private HashMap<String, Postings> postings;
+	
+	/**
+	 * Constructs an empty TextIndex.
+	 */
+	TextIndex() {
+		postings = new HashMap<String, Postings>();
+	}
+	
+	/**
+	 * Adds the words of the title and notes of a task to the index.
+	 * @param task Task that is added
+	 */
+	void add(Task task) {
+		HashSet<String> words = new HashSet<String>(tokenize(task.getTitle()));
+		for (int i = 0; i < task.getNoteCount(); i++) {
+			words.addAll(tokenize(task.getNote(i)));
+		}
+		String[] distinct = words.toArray(new String[words.size()]);
+		for (int i = 0; i < distinct.length; i++) {
+			postings.computeIfAbsent(distinct[i], key -> new Postings()).add(task.getTaskId());
+		}
+	}
+	
+	/**
+	 * Adds the words of a note that was added to a task that is already in the index.
+	 * @param task Task the note was added to
+	 * @param note Note that was added
+	 */
+	void addNote(Task task, String note) {
+		ArrayList<String> words = tokenize(note);
+		for (int i = 0; i < words.size(); i++) {
+			postings.computeIfAbsent(words.get(i), key -> new Postings()).add(task.getTaskId());
+		}
+	}
+	
+	/**
+	 * Updates the words of a note that was changed on a task that is already in the index.
+	 * The task is removed from the words that were only in the old text of the note, and added to the words of its new text.
+	 * @param task Task the note is in, which already has the new text of the note
+	 * @param index Index of the note
+	 * @param oldNote Text of the note before it changed
+	 */
+	void changeNote(Task task, int index, String oldNote) {
+		HashSet<String> words = new HashSet<String>(tokenize(task.getTitle()));
+		for (int i = 0; i < task.getNoteCount(); i++) {
+			words.addAll(tokenize(task.getNote(i)));
+		}
+		ArrayList<String> oldWords = tokenize(oldNote);
+		for (int i = 0; i < oldWords.size(); i++) {
+			if (!words.contains(oldWords.get(i))) {
+				removeId(oldWords.get(i), task.getTaskId());
+			}
+		}
+		addNote(task, task.getNote(index));
+	}
+	
+	/**
+	 * Removes a task from the posting lists of the words of its title and notes.
+	 * @param task Task that is removed
+	 */
+	void remove(Task task) {
+		ArrayList<String> words = tokenize(task.getTitle());
+		for (int i = 0; i < task.getNoteCount(); i++) {
+			words.addAll(tokenize(task.getNote(i)));
+		}
+		for (int i = 0; i < words.size(); i++) {
+			removeId(words.get(i), task.getTaskId());
+		}
+	}
+	
+	/**
+	 * Helper method that removes an id from the posting list of a word, removing the word once no task has it.
+	 * @param word Word whose posting list the id is removed from
+	 * @param id Id of the task
+	 */
+	private void removeId(String word, int id) {
+		Postings list = postings.get(word);
+		if (list != null) {
+			list.remove(id);
+			if (list.size() == 0) {
+				postings.remove(word);
+			}
+		}
+	}
+	
+	/**
+	 * Finds the ids of the tasks that have every word by intersecting the posting lists of the words.
+	 * @param words Words that are searched for, which are already tokenized
+	 * @return the ids of the tasks in increasing order
+	 */
+	int[] search(List<String> words) {
+		if (words.isEmpty()) {
+			return new int[0];
+		}
+		Postings[] lists = new Postings[words.size()];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = postings.get(words.get(i));
+			if (lists[i] == null) {
+				return new int[0];
+			}
+		}
+		return Postings.intersect(lists);
+	}
+	
+	/**
+	 * Splits text into lower case words made of letters and digits, leaving out the [State] prefix of a note.
+	 * @param text Text that is split
+	 * @return the words in the order they are in the text
+	 */
+	static ArrayList<String> tokenize(String text) {
+		ArrayList<String> words = new ArrayList<String>();
+		int start = 0;
+		if (text.startsWith("[")) {
+			int end = text.indexOf("] ");
+			if (end > 0) {
+				start = end + 2;
+			}
+		}
+		int wordStart = -1;
+		for (int i = start; i <= text.length(); i++) {
+			boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (inWord && wordStart < 0) {
+				wordStart = i;
+			}
+			else if (!inWord && wordStart >= 0) {
+				words.add(text.substring(wordStart, i).toLowerCase(Locale.ROOT));
+				wordStart = -1;
+			}
+		}
+		return words;
+	}
+}
@@ -0,0 +1,277 @@
+package edu.ncsu.csc216.product_backlog.model.task;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Class that keeps the notes of a task without keeping a String for each note.
+ * The state a note was written in is kept as a byte tag instead of as a [State] prefix, and the text of every note is kept
+ * as UTF-8 bytes one after another in a single byte array, with the end of each note in an int array.
+ * A note is only turned back into a String, with its prefix, when it is asked for.
+ * Notes that do not start with the prefix of a state are kept whole with a tag of NO_STATE.
+ * A copy of the log shares its arrays with the log until one of them changes, and the one that changes copies the arrays first,
+ * so copying a task does not copy the text of its notes.
+ * @author Daniel Avisse
+ *
+ */
+class NoteLog {
+	
+	/** Tag of a note that does not start with the prefix of a state **/
+	static final byte NO_STATE = 0;
+	
+	/** Number of characters that are decoded at a time when the notes are written to an Appendable **/
+	private static final int APPEND_BUFFER_SIZE = 256;
+	
+	/** Tag of each note **/
+	private byte[] tags;
+	
+	/** Position in the text array just after the last byte of each note **/
+	private int[] ends;
+	
+	/** Number of notes in the log **/
+	private int size;
+	
+	/** UTF-8 bytes of the text of every note **/
+	private byte[] text;
+	
+	/** True if the arrays may be shared with a copy of the log, so they are copied before the log changes **/
+	private boolean shared;
+	
+	/**
+	 * Constructs an empty NoteLog.
+	 */
+	NoteLog() {
+		tags = new byte[2];
+		ends = new int[2];
+		text = new byte[0];
+	}
+	
+	/**
+	 * Constructs a NoteLog that shares the arrays of another log.
+	 * @param log Log whose arrays are shared
+	 */
+	private NoteLog(NoteLog log) {
+		tags = log.tags;
+		ends = log.ends;
+		text = log.text;
+		size = log.size;
+		shared = true;
+	}
+	
+	/**
+	 * Creates a copy of the log that does not change when the log does.
+	 * The copy shares the arrays of the log, so both are marked as shared and each copies the arrays the first time it changes.
+	 * @return the copy of the log
+	 */
+	NoteLog copy() {
+		shared = true;
+		return new NoteLog(this);
+	}
+	
+	/**
+	 * Gets the number of notes in the log.
+	 * @return the number of notes
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Adds a note, keeping its [State] prefix as a tag if it has one.
+	 * @param note Note that is added
+	 * @return the index of the note
+	 */
+	int add(String note) {
+		for (int i = 0; i < Task.STATE_COUNT; i++) {
+			String stateName = Task.getStateNameOf(i);
+			if (note.startsWith("[" + stateName + "] ")) {
+				return add((byte) (i + 1), note.substring(stateName.length() + 3));
+			}
+		}
+		return add(NO_STATE, note);
+	}
+	
+	/**
+	 * Adds a note that was written in a state.
+	 * @param stateName Name of the state the note was written in
+	 * @param note Text of the note without a prefix
+	 * @return the index of the note
+	 */
+	int add(String stateName, String note) {
+		int code = Task.getStateCode(stateName);
+		if (code >= 0) {
+			return add((byte) (code + 1), note);
+		}
+		return add("[" + stateName + "] " + note);
+	}
+	
+	/**
+	 * Gets a note as a String with its [State] prefix.
+	 * @param index Index of the note
+	 * @return the note
+	 * @throws IndexOutOfBoundsException if the index is not in the log
+	 */
+	String get(int index) {
+		checkIndex(index);
+		int start = index == 0 ? 0 : ends[index - 1];
+		String note = new String(text, start, ends[index] - start, StandardCharsets.UTF_8);
+		return tags[index] == NO_STATE ? note : "[" + Task.getStateNameOf(tags[index] - 1) + "] " + note;
+	}
+	
+	/**
+	 * Adds text to the end of a note, moving back the text of the notes after it.
+	 * @param index Index of the note
+	 * @param more Text that is added to the note
+	 * @throws IndexOutOfBoundsException if the index is not in the log
+	 */
+	void append(int index, String more) {
+		checkIndex(index);
+		unshare();
+		byte[] bytes = more.getBytes(StandardCharsets.UTF_8);
+		int length = ends[size - 1];
+		ensureText(length + bytes.length);
+		System.arraycopy(text, ends[index], text, ends[index] + bytes.length, length - ends[index]);
+		System.arraycopy(bytes, 0, text, ends[index], bytes.length);
+		for (int i = index; i < size; i++) {
+			ends[i] += bytes.length;
+		}
+	}
+	
+	/**
+	 * Removes the notes after the first count notes, which is used to undo notes that were added by a change that failed.
+	 * @param count Number of notes that are kept
+	 */
+	void truncate(int count) {
+		if (count >= 0 && count < size) {
+			size = count;
+		}
+	}
+	
+	/**
+	 * Gets every note as a String in a new ArrayList.
+	 * @return the notes in the order they were added
+	 */
+	ArrayList<String> toList() {
+		ArrayList<String> notes = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			notes.add(get(i));
+		}
+		return notes;
+	}
+	
+	/**
+	 * Writes each note to out after a separator, one note at a time.
+	 * The prefix of the state is written from its name and the text is decoded straight from the UTF-8 bytes through a small buffer,
+	 * so no String is built for a note. A Writer is given the characters of the buffer directly instead of as a CharSequence.
+	 * @param out Appendable that the notes are written to
+	 * @param separator Text written before each note
+	 * @throws IOException if out cannot be written to
+	 */
+	void appendTo(Appendable out, String separator) throws IOException {
+		if (size == 0) {
+			return;
+		}
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars = CharBuffer.allocate(APPEND_BUFFER_SIZE);
+		for (int i = 0; i < size; i++) {
+			out.append(separator);
+			if (tags[i] != NO_STATE) {
+				out.append('[').append(Task.getStateNameOf(tags[i] - 1)).append("] ");
+			}
+			int start = i == 0 ? 0 : ends[i - 1];
+			ByteBuffer bytes = ByteBuffer.wrap(text, start, ends[i] - start);
+			decoder.reset();
+			CoderResult result = decoder.decode(bytes, chars, true);
+			while (result.isOverflow()) {
+				drain(chars, out);
+				result = decoder.decode(bytes, chars, true);
+			}
+			while (decoder.flush(chars).isOverflow()) {
+				drain(chars, out);
+			}
+			drain(chars, out);
+		}
+	}
+	
+	/**
+	 * Helper method that writes the characters that were decoded into a buffer to out and empties the buffer.
+	 * @param chars Buffer of decoded characters
+	 * @param out Appendable that the characters are written to
+	 * @throws IOException if out cannot be written to
+	 */
+	private static void drain(CharBuffer chars, Appendable out) throws IOException {
+		chars.flip();
+		if (out instanceof Writer) {
+			((Writer) out).write(chars.array(), 0, chars.limit());
+		}
+		else {
+			out.append(chars);
+		}
+		chars.clear();
+	}
+	
+	/**
+	 * Helper method that adds the UTF-8 bytes of a note to the end of the text with a tag.
+	 * @param tag Tag of the note
+	 * @param note Text of the note
+	 * @return the index of the note
+	 */
+	private int add(byte tag, String note) {
+		unshare();
+		byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+		int length = size == 0 ? 0 : ends[size - 1];
+		ensureText(length + bytes.length);
+		System.arraycopy(bytes, 0, text, length, bytes.length);
+		if (size == tags.length) {
+			tags = Arrays.copyOf(tags, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+		}
+		tags[size] = tag;
+		ends[size] = length + bytes.length;
+		size++;
+		return size - 1;
+	}
+	
+	/**
+	 * Helper method that copies the arrays if they may be shared with a copy of the log, so the log can change them without changing the copy.
+	 * Only the part of each array that is in use is copied.
+	 */
+	private void unshare() {
+		if (shared) {
+			tags = Arrays.copyOf(tags, Math.max(size, 2));
+			ends = Arrays.copyOf(ends, Math.max(size, 2));
+			text = Arrays.copyOf(text, size == 0 ? 0 : ends[size - 1]);
+			shared = false;
+		}
+	}
+	
+	/**
+	 * Helper method that makes room for a number of bytes of text, growing the text array to at least twice its size when it is full.
+	 * @param capacity Number of bytes there must be room for
+	 */
+	private void ensureText(int capacity) {
+		if (capacity > text.length) {
+			text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+		}
+	}
+	
+	/**
+	 * Helper method that checks that an index is in the log.
+	 * @param index Index that is checked
+	 * @throws IndexOutOfBoundsException if the index is not in the log
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package edu.ncsu.csc216.product_backlog.model.task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that interns the names that are repeated across many tasks, such as owners, creators and product names,
+ * so every task that uses a name shares one String instead of keeping the copy that was read for it.
+ * The pool is bounded: once it holds maxSize names, names that are not already in it are returned as they are.
+ * It can be used from many threads at once, and it counts how many lookups found a name that was already pooled
+ * and an estimate of the bytes that were saved by not keeping the duplicate Strings.
+ * Tasks, commands and products use the shared pool from getShared, so every reader of products files shares it.
+ * @author Daniel Avisse
+ *
+ */
+public class StringPool {
+	
+	/** Largest number of names in the shared pool **/
+	public static final int DEFAULT_MAX_SIZE = 65536;
+	
+	/** Estimated bytes in a String apart from its characters, counting the String and the header of its array **/
+	private static final int STRING_OVERHEAD = 40;
+	
+	/** Pool shared by tasks, commands and products **/
+	private static final StringPool SHARED = new StringPool(DEFAULT_MAX_SIZE);
+	
+	/** Largest number of names in the pool **/
+	private final int maxSize;
+	
+	/** Pooled instance of each name **/
+	private final ConcurrentHashMap<String, String> pool;
+	
+	/** Number of names that were looked up **/
+	private final LongAdder lookups;
+	
+	/** Number of names that were already in the pool **/
+	private final LongAdder hits;
+	
+	/** Estimated bytes of the duplicate Strings that were replaced by pooled ones **/
+	private final LongAdder bytesSaved;
+	
+	/**
+	 * Constructs an empty StringPool that holds up to maxSize names.
+	 * @param maxSize Largest number of names in the pool
+	 * @throws IllegalArgumentException if maxSize is negative
+	 */
+	public StringPool(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("Invalid pool size.");
+		}
+		this.maxSize = maxSize;
+		pool = new ConcurrentHashMap<String, String>();
+		lookups = new LongAdder();
+		hits = new LongAdder();
+		bytesSaved = new LongAdder();
+	}
+	
+	/**
+	 * Gets the pool shared by tasks, commands and products.
+	 * @return the shared pool
+	 */
+	public static StringPool getShared() {
+		return SHARED;
+	}
+	
+	/**
+	 * Gets the pooled String that is equal to a name, adding the name to the pool if it is new and the pool is not full.
+	 * @param value Name that is interned
+	 * @return the pooled String, or value if it is null or the pool is full
+	 */
+	public String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		lookups.increment();
+		String pooled = pool.get(value);
+		if (pooled == null) {
+			if (pool.size() >= maxSize) {
+				return value;
+			}
+			pooled = pool.putIfAbsent(value, value);
+			if (pooled == null) {
+				return value;
+			}
+		}
+		hits.increment();
+		if (pooled != value) {
+			bytesSaved.add(STRING_OVERHEAD + value.length());
+		}
+		return pooled;
+	}
+	
+	/**
+	 * Gets the number of names in the pool.
+	 * @return the number of names
+	 */
+	public int size() {
+		return pool.size();
+	}
+	
+	/**
+	 * Gets the number of names that were looked up.
+	 * @return the number of lookups
+	 */
+	public long getLookups() {
+		return lookups.sum();
+	}
+	
+	/**
+	 * Gets the number of names that were already in the pool when they were looked up.
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * Gets the share of lookups that found the name already in the pool.
+	 * @return the hit rate from 0 to 1, or 0 if there were no lookups
+	 */
+	public double getHitRate() {
+		long count = lookups.sum();
+		return count == 0 ? 0 : (double) hits.sum() / count;
+	}
+	
+	/**
+	 * Gets an estimate of the bytes saved by returning pooled Strings in place of equal copies,
+	 * counting each copy as its characters plus the overhead of a String and its array.
+	 * @return the estimated bytes saved
+	 */
+	public long getBytesSaved() {
+		return bytesSaved.sum();
+	}
+	
+	/**
+	 * Removes every name from the pool and resets its counts.
+	 */
+	public void clear() {
+		pool.clear();
+		lookups.reset();
+		hits.reset();
+		bytesSaved.reset();
+	}
+}
@@ -1,5 +1,6 @@
 package edu.ncsu.csc216.product_backlog.model.task;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 
@@ -10,6 +11,9 @@ import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
 /**
  * Class for creating tasks and putting them inside products that they associate with.
  * This class also contains 6 private inner classes and an interface which are used for transitioning between states.
+ * The states do not keep any fields, so each state has one instance that every task shares.
+ * The notes are kept in a NoteLog and are only made into Strings when they are asked for.
+ * Owners and creators are interned in the shared StringPool, so tasks with the same owner or creator share one String.
  * @author Daniel Avisse
  *
  */
@@ -36,26 +40,29 @@ public class Task {
 	/** Boolean that tells if a task as passed the verified state and is complete **/
 	private boolean isVerified; 
 	
-	/** ArrayList that contains all the notes made for one task **/
-	private ArrayList<String> notes;
+	/** Log that contains all the notes made for one task **/
+	private NoteLog notes;
 	
-	/** Creates a final instance of the inner class BacklogState **/
-	private final TaskState backlogState = new BacklogState();
+	/** Listener that is told when the task changes, or null if the task does not have one **/
+	private TaskListener listener;
 	
-	/** Creates a final instance of the inner class OwnedState **/
-	private final TaskState ownedState = new OwnedState();
+	/** Instance of BacklogState shared by every task in the Backlog state **/
+	private static final TaskState BACKLOG_STATE = new BacklogState();
 	
-	/** Creates a final instance of the inner class VerifyingState **/
-	private final TaskState verifyingState = new VerifyingState();
+	/** Instance of OwnedState shared by every task in the Owned state **/
+	private static final TaskState OWNED_STATE = new OwnedState();
 	
-	/** Creates a final instance of the inner class ProcessingState **/
-	private final TaskState processingState = new ProcessingState();
+	/** Instance of VerifyingState shared by every task in the Verifying state **/
+	private static final TaskState VERIFYING_STATE = new VerifyingState();
+	
+	/** Instance of ProcessingState shared by every task in the Processing state **/
+	private static final TaskState PROCESSING_STATE = new ProcessingState();
 
-	/** Creates a final instance of the inner class DoneState **/
-	private final TaskState doneState = new DoneState();
+	/** Instance of DoneState shared by every task in the Done state **/
+	private static final TaskState DONE_STATE = new DoneState();
 	
-	/** Creates a final instance of the inner class RejectedState **/
-	private final TaskState rejectedState = new RejectedState();
+	/** Instance of RejectedState shared by every task in the Rejected state **/
+	private static final TaskState REJECTED_STATE = new RejectedState();
 	
 	/** The name of the Backlog state **/
 	public static final String BACKLOG_NAME = "Backlog";
@@ -102,6 +109,12 @@ public class Task {
 	/** String used when a task has no owner **/
 	public static final String UNOWNED = "unowned";
 	
+	/** Names of the states in the order of their codes, which files and stores use to keep a state as a number **/
+	private static final String[] STATE_NAMES = {BACKLOG_NAME, OWNED_NAME, PROCESSING_NAME, VERIFYING_NAME, DONE_NAME, REJECTED_NAME};
+	
+	/** Number of states a task can be in, so the codes of the states are 0 to STATE_COUNT - 1 **/
+	public static final int STATE_COUNT = STATE_NAMES.length;
+	
 	/** 
 	 * Constructor for task using the id, title, type, creater, and note
 	 * @param taskId Id of the task
@@ -119,9 +132,8 @@ public class Task {
 		setCreator(creator);
 		setOwner(UNOWNED);
 		setVerified("false");
-		notes = new ArrayList<String>();
+		notes = new NoteLog();
 		addNoteToList(note);
-		setNotes(notes);
 	}
 	
 	/**
@@ -137,6 +149,22 @@ public class Task {
 	 * @throws IllegalArgumentException if any of the fields are invalid
 	 */
 	public Task (int taskId, String state, String title, String type, String creator, String owner, String verified, ArrayList<String> notes) {
+		this(taskId, state, title, type, creator, owner, verified);
+		setNotes(notes);
+	}
+	
+	/**
+	 * Constructor for task using all the fields except the notes, which starts without any notes
+	 * @param taskId Id of the task
+	 * @param state State of the task
+	 * @param title Title of the task
+	 * @param type Type for the task
+	 * @param creator Creator of the task
+	 * @param owner Owner of the task
+	 * @param verified True or false for it task is verified
+	 * @throws IllegalArgumentException if any of the fields are invalid
+	 */
+	private Task (int taskId, String state, String title, String type, String creator, String owner, String verified) {
 		setTaskId(taskId);
 		setState(state);
 		setTitle(title);
@@ -144,9 +172,121 @@ public class Task {
 		setCreator(creator);
 		setOwner(owner);
 		setVerified(verified);
-		setNotes(notes);
+		notes = new NoteLog();
 	}
 
+	/**
+	 * Constructor that copies every field of a task, including its notes but not its listener
+	 * @param task Task that is copied
+	 */
+	private Task (Task task) {
+		taskId = task.taskId;
+		currentState = task.currentState;
+		title = task.title;
+		type = task.type;
+		creator = task.creator;
+		owner = task.owner;
+		isVerified = task.isVerified;
+		notes = task.notes.copy();
+	}
+	
+	/**
+	 * Creates a task from all the fields except the notes, checking the fields the same way the constructor that uses all the fields does.
+	 * The task has no notes, so this is used by readers that create a task before they have read its notes and by stores
+	 * that keep a task without notes.
+	 * @param taskId Id of the task
+	 * @param state State of the task
+	 * @param title Title of the task
+	 * @param type Type for the task
+	 * @param creator Creator of the task
+	 * @param owner Owner of the task
+	 * @param verified True or false for it task is verified
+	 * @return the task without notes
+	 * @throws IllegalArgumentException if any of the fields are invalid
+	 */
+	public static Task createWithoutNotes(int taskId, String state, String title, String type, String creator, String owner, String verified) {
+		return new Task(taskId, state, title, type, creator, owner, verified);
+	}
+	
+	/**
+	 * Creates a copy of the task that does not change when the task does. A task without notes can be copied as well.
+	 * The notes are copied on write, so the copy shares the text of the notes with the task until one of them changes its notes.
+	 * @return the copy of the task
+	 */
+	public Task copy() {
+		return new Task(this);
+	}
+	
+	/**
+	 * Gets the name of the state with a code, which is its place in the order Backlog, Owned, Processing, Verifying, Done, Rejected.
+	 * @param code Code of the state
+	 * @return the name of the state
+	 * @throws IndexOutOfBoundsException if there is no state with the code
+	 */
+	public static String getStateNameOf(int code) {
+		return STATE_NAMES[code];
+	}
+	
+	/**
+	 * Gets the code of a state from its name, which is its place in the order Backlog, Owned, Processing, Verifying, Done, Rejected.
+	 * @param stateName Name of the state
+	 * @return the code of the state, or -1 if there is no state with the name
+	 */
+	public static int getStateCode(String stateName) {
+		for (int i = 0; i < STATE_NAMES.length; i++) {
+			if (STATE_NAMES[i].equals(stateName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Checks the fields of a task the same way the constructor that uses all the fields does, without throwing an exception.
+	 * A task created from fields that pass this check with at least one note never throws.
+	 * @param taskId Id of the task
+	 * @param state State of the task
+	 * @param title Title of the task
+	 * @param type Type for the task
+	 * @param creator Creator of the task
+	 * @param owner Owner of the task
+	 * @param verified True or false for it task is verified
+	 * @return the reason the fields are invalid, or null if they are valid
+	 */
+	public static String validate(int taskId, String state, String title, String type, String creator, String owner, String verified) {
+		if (taskId <= 0) {
+			return "Invalid task id.";
+		}
+		if (!BACKLOG_NAME.equals(state) && !OWNED_NAME.equals(state) && !PROCESSING_NAME.equals(state) && !VERIFYING_NAME.equals(state)
+				&& !DONE_NAME.equals(state) && !REJECTED_NAME.equals(state)) {
+			return "Invalid task state.";
+		}
+		if (title == null || "".equals(title)) {
+			return "Invalid task title.";
+		}
+		if (!T_FEATURE.equals(type) && !T_BUG.equals(type) && !T_KNOWLEDGE_ACQUISITION.equals(type) && !T_TECHNICAL_WORK.equals(type)) {
+			return "Invalid task type.";
+		}
+		if (creator == null || "".equals(creator)) {
+			return "Invalid task creator.";
+		}
+		boolean unownedState = BACKLOG_NAME.equals(state) || REJECTED_NAME.equals(state);
+		if (owner == null || "".equals(owner) || unownedState != UNOWNED.equals(owner)) {
+			return "Invalid task owner.";
+		}
+		if (verified == null || "".equals(verified)) {
+			return "Invalid task verified value.";
+		}
+		boolean isVerified = Boolean.valueOf(verified);
+		if (DONE_NAME.equals(state) && isVerified == T_KNOWLEDGE_ACQUISITION.equals(type)) {
+			return "Invalid task verified value.";
+		}
+		if (!isVerified && !"false".equals(verified.toLowerCase())) {
+			return "Invalid task verified value.";
+		}
+		return null;
+	}
+	
 	/**
 	 * Sets the id of the task
 	 * @param taskId Id of the task
@@ -192,7 +332,7 @@ public class Task {
 		if (creator == null || "".equals(creator)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		this.creator = creator;
+		this.creator = StringPool.getShared().intern(creator);
 	}
 
 	/**
@@ -204,25 +344,25 @@ public class Task {
 		if (owner == null || "".equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == backlogState && !UNOWNED.equals(owner)) {
+		else if (currentState == BACKLOG_STATE && !UNOWNED.equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == rejectedState && !UNOWNED.equals(owner)) {
+		else if (currentState == REJECTED_STATE && !UNOWNED.equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == ownedState && UNOWNED.equals(owner)) {
+		else if (currentState == OWNED_STATE && UNOWNED.equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == verifyingState && UNOWNED.equals(owner)) {
+		else if (currentState == VERIFYING_STATE && UNOWNED.equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == processingState && UNOWNED.equals(owner)) {
+		else if (currentState == PROCESSING_STATE && UNOWNED.equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == doneState && UNOWNED.equals(owner)) {
+		else if (currentState == DONE_STATE && UNOWNED.equals(owner)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		this.owner = owner;
+		this.owner = StringPool.getShared().intern(owner);
 	}
 
 	/**
@@ -234,10 +374,10 @@ public class Task {
 		if (isVerified == null || "".equals(isVerified)) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == doneState && !Boolean.valueOf(isVerified) && type != Type.KNOWLEDGE_ACQUISITION) {
+		else if (currentState == DONE_STATE && !Boolean.valueOf(isVerified) && type != Type.KNOWLEDGE_ACQUISITION) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		else if (currentState == doneState && Boolean.valueOf(isVerified) && type == Type.KNOWLEDGE_ACQUISITION) {
+		else if (currentState == DONE_STATE && Boolean.valueOf(isVerified) && type == Type.KNOWLEDGE_ACQUISITION) {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
 		else if (Boolean.valueOf(isVerified)) {
@@ -256,7 +396,7 @@ public class Task {
 	}
 
 	/**
-	 * Sets the notes of the task
+	 * Sets the notes of the task by copying them into a new NoteLog
 	 * @param notes Notes for the task
 	 * @throws IllegalArgumentException if notes are invalid
 	 */
@@ -264,25 +404,72 @@ public class Task {
 		if (notes == null || "".equals(notes.get(0)))  {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
-		this.notes = notes;
+		this.notes = new NoteLog();
+		for (int i = 0; i < notes.size(); i++) {
+			this.notes.add(notes.get(i));
+		}
 	}
 	
 	/**
-	 * Adds note to the ArrayList of notes for the task and also checks to see if the note is not empty
+	 * Adds note to the notes for the task and also checks to see if the note is not empty
+	 * The listener of the task is told before and after the note is added.
 	 * @param note Notes for the task
 	 * @return A value for if the notes are added
 	 * @throws IllegalArgumentException if note is invalid.
 	 */
 	public int addNoteToList(String note) {
+		if (listener != null) {
+			listener.taskChanging(this);
+		}
+		int oldNoteCount = notes.size();
+		int index = addNote(note);
+		if (listener != null) {
+			listener.taskChanged(this, getStateName(), owner, oldNoteCount);
+		}
+		return index;
+	}
+	
+	/**
+	 * Helper method that adds a note without telling the listener, which is used by the states since update tells it once for the whole command.
+	 * @param note Notes for the task
+	 * @return the index of the note
+	 * @throws IllegalArgumentException if note is invalid.
+	 */
+	private int addNote(String note) {
 		if (note == null || "".equals(note))  {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
 		else if (note.substring(0, 1).equals("[")){
-			notes.add(note);
-			return notes.size() - 1;
+			return notes.add(note);
+		}
+		return notes.add(currentState.getStateName(), note);
+	}
+	
+	/**
+	 * Adds text to the end of a note, which is used when a note is read over more than one line.
+	 * The listener of the task is told before the text is added, and then about the note with the text it had before.
+	 * @param index Index of the note
+	 * @param text Text that is added to the note
+	 * @throws IndexOutOfBoundsException if the index is not a note of the task
+	 */
+	public void appendToNote(int index, String text) {
+		if (listener != null) {
+			listener.taskChanging(this);
+		}
+		String oldNote = listener == null ? null : notes.get(index);
+		notes.append(index, text);
+		if (listener != null) {
+			listener.noteChanged(this, index, oldNote);
 		}
-		notes.add("[" + currentState.getStateName() + "] " + note);
-		return notes.size() - 1;
+	}
+	
+	/**
+	 * Sets the listener that is told when the task changes, which is the product the task is in.
+	 * A copy of the task does not have the listener of the task.
+	 * @param listener Listener of the task, or null to remove it
+	 */
+	public void setListener(TaskListener listener) {
+		this.listener = listener;
 	}
 	
 	
@@ -312,22 +499,22 @@ public class Task {
 			throw new IllegalArgumentException("Invalid task information.");
 		}
 		if (state.equals(BACKLOG_NAME)) {
-			currentState = backlogState;
+			currentState = BACKLOG_STATE;
 		}
 		else if (state.equals(OWNED_NAME)) {
-			currentState = ownedState;
+			currentState = OWNED_STATE;
 		}
 		else if (state.equals(PROCESSING_NAME)) {
-			currentState = processingState;
+			currentState = PROCESSING_STATE;
 		}
 		else if (state.equals(VERIFYING_NAME)) {
-			currentState = verifyingState;
+			currentState = VERIFYING_STATE;
 		}
 		else if (state.equals(DONE_NAME)) {
-			currentState = doneState;
+			currentState = DONE_STATE;
 		}
 		else if (state.equals(REJECTED_NAME)) {
-			currentState = rejectedState;
+			currentState = REJECTED_STATE;
 		}
 		else {
 			throw new IllegalArgumentException("Invalid task information.");
@@ -446,11 +633,29 @@ public class Task {
 	}
 
 	/**
-	 * Gets the ArrayList of notes for task
+	 * Gets the notes for task in a new ArrayList, so changing the ArrayList does not change the task
 	 * @return Notes for the task
 	 */
 	public ArrayList<String> getNotes() {
-		return notes;
+		return notes.toList();
+	}
+	
+	/**
+	 * Gets the number of notes for task without making the notes into Strings
+	 * @return Number of notes for the task
+	 */
+	public int getNoteCount() {
+		return notes.size();
+	}
+	
+	/**
+	 * Gets one note for task
+	 * @param index Index of the note
+	 * @return Note at the index
+	 * @throws IndexOutOfBoundsException if the index is not a note of the task
+	 */
+	public String getNote(int index) {
+		return notes.get(index);
 	}
 	
 	/**
@@ -458,11 +663,14 @@ public class Task {
 	 * @return Notes for the task
 	 */
 	public String getNotesList() {
-		String s = "";
-		for (int i = 0; i < notes.size(); i++) {
-			s += "\n- " + notes.get(i);
+		StringBuilder s = new StringBuilder();
+		try {
+			appendNotes(s);
+		}
+		catch (IOException e) {
+			//A StringBuilder does not throw IOException
 		}
-		return s;
+		return s.toString();
 	}
 	
 	/**
@@ -471,17 +679,66 @@ public class Task {
 	 */
 	@Override
 	public String toString() {
-		return taskId + "," + getStateName() + "," + title + "," + getTypeShortName() + "," + creator + "," + owner + "," + String.valueOf(isVerified)
-		 +  getNotesList();
+		StringBuilder s = new StringBuilder();
+		try {
+			appendTo(s);
+		}
+		catch (IOException e) {
+			//A StringBuilder does not throw IOException
+		}
+		return s.toString();
+	}
+	
+	/**
+	 * Writes the same text as toString directly to out, so no String is built for the task or its notes.
+	 * @param out Appendable that the task is written to
+	 * @throws IOException if out cannot be written to
+	 */
+	public void appendTo(Appendable out) throws IOException {
+		out.append(String.valueOf(taskId)).append(',').append(getStateName()).append(',').append(title).append(',').append(getTypeShortName())
+			.append(',').append(creator).append(',').append(owner).append(',').append(String.valueOf(isVerified));
+		appendNotes(out);
+	}
+	
+	/**
+	 * Writes the same text as getNotesList directly to out, one note at a time.
+	 * @param out Appendable that the notes are written to
+	 * @throws IOException if out cannot be written to
+	 */
+	private void appendNotes(Appendable out) throws IOException {
+		notes.appendTo(out, "\n- ");
 	}
 
 	/**
 	 * Updates the command value when switching states
+	 * A state can change some fields of the task before the command fails, so the state, owner, verified flag and notes
+	 * are put back the way they were if it throws, and the task is left unchanged. The listener of the task is told before the command is run,
+	 * and after it only if the command succeeded.
 	 * @param c Command value
 	 * @throws UnsupportedOperationException if the command value is invalid in a certain state
+	 * @throws IllegalArgumentException if the command gives the task an invalid field
 	 */
 	public void update(Command c) {
-		currentState.updateState(c);
+		if (listener != null) {
+			listener.taskChanging(this);
+		}
+		TaskState previousState = currentState;
+		String previousOwner = owner;
+		boolean previousVerified = isVerified;
+		int previousNoteCount = notes.size();
+		try {
+			currentState.updateState(this, c);
+		}
+		catch (RuntimeException e) {
+			currentState = previousState;
+			owner = previousOwner;
+			isVerified = previousVerified;
+			notes.truncate(previousNoteCount);
+			throw e;
+		}
+		if (listener != null) {
+			listener.taskChanged(this, previousState.getStateName(), previousOwner, previousNoteCount);
+		}
 	}
 	
 	/**
@@ -490,13 +747,16 @@ public class Task {
 	 */
 	public String[] getNotesArray() {
 		String[] notesArray = new String[notes.size()];
-		notesArray = notes.toArray(notesArray);
+		for (int i = 0; i < notesArray.length; i++) {
+			notesArray[i] = notes.get(i);
+		}
 		return notesArray;
 	}
 	
 	/**
 	 * Interface for states in the Task State Pattern.  All 
 	 * concrete task states must implement the TaskState interface.
+	 * A state has no fields of its own, so one instance of each state is shared by every task and is given the task it updates.
 	 * 
 	 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu) 
 	 */
@@ -506,12 +766,13 @@ public class Task {
 		 * Update the Task based on the given Command
 		 * An UnsupportedOperationException is thrown if the Command is not a
 		 * is not a valid action for the given state.  
+		 * @param task Task that is in this state and is updated
 		 * @param c Command describing the action that will update the Task
 		 * state.
 		 * @throws UnsupportedOperationException if the Command is not a valid action
 		 * for the given state.
 		 */
-		void updateState(Command c);
+		void updateState(Task task, Command c);
 		
 		/**
 		 * Returns the name of the current state as a String.
@@ -525,7 +786,7 @@ public class Task {
 	 * Inner class that updates the state of task when it's in the Backlog State
 	 * @author Daniel Avisse
 	 */
-	private class BacklogState implements TaskState {
+	private static class BacklogState implements TaskState {
 		
 		/**
 		 * Constructor that creates a new BacklogState
@@ -535,18 +796,19 @@ public class Task {
 		}
 		
 		/**
-		 * Method that uses the command value to transition to a new state.
+		 * Method that uses the command value to transition the task to a new state.
+		 * @param task Task that is updated
 		 * @param c Command value
 		 */
-		public void updateState(Command c) {
+		public void updateState(Task task, Command c) {
 			if(c.getCommand() == CommandValue.CLAIM) {
-				currentState = ownedState;
-				setOwner(c.getOwner());
-				addNoteToList(c.getNoteText());
+				task.currentState = OWNED_STATE;
+				task.setOwner(c.getOwner());
+				task.addNote(c.getNoteText());
 			}
 			else if(c.getCommand() == CommandValue.REJECT) {
-				currentState = rejectedState;
-				addNoteToList(c.getNoteText());
+				task.currentState = REJECTED_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else {
 				throw new UnsupportedOperationException("Invalid transition.");
@@ -566,7 +828,7 @@ public class Task {
 	 * Inner class that updates the state of task when it's in the Owned State
 	 * @author Daniel Avisse
 	 */
-	private class OwnedState implements TaskState {
+	private static class OwnedState implements TaskState {
 		
 		/**
 		 * Constructor that creates a new OwnedState
@@ -576,23 +838,24 @@ public class Task {
 		}
 		
 		/**
-		 * Method that uses the command value to transition to a new state.
+		 * Method that uses the command value to transition the task to a new state.
+		 * @param task Task that is updated
 		 * @param c Command value
 		 */
-		public void updateState(Command c) {
+		public void updateState(Task task, Command c) {
 			if(c.getCommand() == CommandValue.REJECT) {
-				currentState = rejectedState;
-				setOwner(UNOWNED);
-				addNoteToList(c.getNoteText());
+				task.currentState = REJECTED_STATE;
+				task.setOwner(UNOWNED);
+				task.addNote(c.getNoteText());
 			}
 			else if(c.getCommand() == CommandValue.PROCESS) {
-				currentState = processingState;
-				addNoteToList(c.getNoteText());
+				task.currentState = PROCESSING_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else if(c.getCommand() == CommandValue.BACKLOG) {
-				currentState = backlogState;
-				setOwner(UNOWNED);
-				addNoteToList(c.getNoteText());
+				task.currentState = BACKLOG_STATE;
+				task.setOwner(UNOWNED);
+				task.addNote(c.getNoteText());
 			}
 			else {
 				throw new UnsupportedOperationException("Invalid transition.");
@@ -612,7 +875,7 @@ public class Task {
 	 * Inner class that updates the state of task when it's in the Verifying State
 	 * @author Daniel Avisse
 	 */
-	private class VerifyingState implements TaskState {
+	private static class VerifyingState implements TaskState {
 		
 		/**
 		 * Constructor that creates a new VerifyingState
@@ -622,18 +885,19 @@ public class Task {
 		}
 		
 		/**
-		 * Method that uses the command value to transition to a new state.
+		 * Method that uses the command value to transition the task to a new state.
+		 * @param task Task that is updated
 		 * @param c Command value
 		 */
-		public void updateState(Command c) {
+		public void updateState(Task task, Command c) {
 			if(c.getCommand() == CommandValue.COMPLETE) {
-				currentState = doneState;
-				addNoteToList(c.getNoteText());
-				setVerified("true");
+				task.currentState = DONE_STATE;
+				task.addNote(c.getNoteText());
+				task.setVerified("true");
 			}
 			else if(c.getCommand() == CommandValue.PROCESS) {
-				currentState = processingState;
-				addNoteToList(c.getNoteText());
+				task.currentState = PROCESSING_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else {
 				throw new UnsupportedOperationException("Invalid transition.");
@@ -653,7 +917,7 @@ public class Task {
 	 * Inner class that updates the state of task when it's in the Processing State
 	 * @author Daniel Avisse
 	 */
-	private class ProcessingState implements TaskState {
+	private static class ProcessingState implements TaskState {
 		
 		/**
 		 * Constructor that creates a new ProcessingState
@@ -663,26 +927,27 @@ public class Task {
 		}
 		
 		/**
-		 * Method that uses the command value to transition to a new state.
+		 * Method that uses the command value to transition the task to a new state.
+		 * @param task Task that is updated
 		 * @param c Command value
 		 */
-		public void updateState(Command c) {
-			if(c.getCommand() == CommandValue.VERIFY && type != Type.KNOWLEDGE_ACQUISITION) {
-				currentState = verifyingState;
-				addNoteToList(c.getNoteText());
+		public void updateState(Task task, Command c) {
+			if(c.getCommand() == CommandValue.VERIFY && task.type != Type.KNOWLEDGE_ACQUISITION) {
+				task.currentState = VERIFYING_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else if(c.getCommand() == CommandValue.PROCESS) {
-				currentState = processingState;
-				addNoteToList(c.getNoteText());
+				task.currentState = PROCESSING_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else if(c.getCommand() == CommandValue.BACKLOG) {
-				currentState = backlogState;
-				setOwner(UNOWNED);
-				addNoteToList(c.getNoteText());
+				task.currentState = BACKLOG_STATE;
+				task.setOwner(UNOWNED);
+				task.addNote(c.getNoteText());
 			}
-			else if(c.getCommand() == CommandValue.COMPLETE && type == Type.KNOWLEDGE_ACQUISITION) {
-				currentState = doneState;
-				addNoteToList(c.getNoteText());
+			else if(c.getCommand() == CommandValue.COMPLETE && task.type == Type.KNOWLEDGE_ACQUISITION) {
+				task.currentState = DONE_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else {
 				throw new UnsupportedOperationException("Invalid transition.");
@@ -702,7 +967,7 @@ public class Task {
 	 * Inner class that updates the state of task when it's in the Done State
 	 * @author Daniel Avisse
 	 */
-	private class DoneState implements TaskState {
+	private static class DoneState implements TaskState {
 		
 		/**
 		 * Constructor that creates a new DoneState
@@ -712,20 +977,21 @@ public class Task {
 		}
 		
 		/**
-		 * Method that uses the command value to transition to a new state.
+		 * Method that uses the command value to transition the task to a new state.
+		 * @param task Task that is updated
 		 * @param c Command value
 		 */
-		public void updateState(Command c) {
+		public void updateState(Task task, Command c) {
 			if(c.getCommand() == CommandValue.PROCESS) {
-				currentState = processingState;
-				setVerified("false");
-				addNoteToList(c.getNoteText());
+				task.currentState = PROCESSING_STATE;
+				task.setVerified("false");
+				task.addNote(c.getNoteText());
 			}
 			else if(c.getCommand() == CommandValue.BACKLOG) {
-				currentState = backlogState;
-				setOwner(UNOWNED);
-				setVerified("false");
-				addNoteToList(c.getNoteText());
+				task.currentState = BACKLOG_STATE;
+				task.setOwner(UNOWNED);
+				task.setVerified("false");
+				task.addNote(c.getNoteText());
 			}
 			else {
 				throw new UnsupportedOperationException("Invalid transition.");
@@ -745,7 +1011,7 @@ public class Task {
 	 * Inner class that updates the state of task when it's in the Rejected State
 	 * @author Daniel Avisse
 	 */
-	private class RejectedState implements TaskState {
+	private static class RejectedState implements TaskState {
 		
 		/**
 		 * Constructor that creates a new RejectedState
@@ -755,13 +1021,14 @@ public class Task {
 		}
 		
 		/**
-		 * Method that uses the command value to transition to a new state.
+		 * Method that uses the command value to transition the task to a new state.
+		 * @param task Task that is updated
 		 * @param c Command value
 		 */
-		public void updateState(Command c) {
+		public void updateState(Task task, Command c) {
 			if (c.getCommand() == CommandValue.BACKLOG) {
-				currentState = backlogState;
-				addNoteToList(c.getNoteText());
+				task.currentState = BACKLOG_STATE;
+				task.addNote(c.getNoteText());
 			}
 			else {
 				throw new UnsupportedOperationException("Invalid transition.");
@@ -0,0 +1,36 @@
+package edu.ncsu.csc216.product_backlog.model.task;
+
+/**
+ * Interface for the owner of a task that is told when the task changes, so the owner can keep its indexes and store up to date
+ * when the task is changed directly instead of through the owner. A task is given its listener with Task.setListener.
+ * The listener is told before the task is about to change, and after the change only if it succeeded.
+ * @author Daniel Avisse
+ *
+ */
+public interface TaskListener {
+	
+	/**
+	 * Called before a command changes a task, a note is added to it or text is added to one of its notes,
+	 * so the owner can copy anything it shares with others before the task changes.
+	 * @param task Task that is about to change
+	 */
+	void taskChanging(Task task);
+	
+	/**
+	 * Called after a command changed a task or a note was added to it.
+	 * The notes from oldNoteCount to the end of the notes of the task are the ones that were added.
+	 * @param task Task that changed
+	 * @param oldStateName Name of the state of the task before it changed
+	 * @param oldOwner Owner of the task before it changed
+	 * @param oldNoteCount Number of notes of the task before it changed
+	 */
+	void taskChanged(Task task, String oldStateName, String oldOwner, int oldNoteCount);
+	
+	/**
+	 * Called after text was added to the end of one of the notes of a task.
+	 * @param task Task that changed
+	 * @param index Index of the note that changed
+	 * @param oldNote Note before it changed
+	 */
+	void noteChanged(Task task, int index, String oldNote);
+}
@@ -9,6 +9,8 @@ import java.awt.GridBagLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
 
 import javax.swing.BorderFactory;
@@ -27,6 +29,7 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
@@ -61,6 +64,8 @@ public class ProductBacklogGUI extends JFrame implements ActionListener {
 	private static final String CLEAR_TITLE = "Clear";
 	/** Text for the Quit menu item. */
 	private static final String QUIT_TITLE = "Quit";
+	/** File in the user's home directory the session is saved to on exit and restored from on start, so it does not depend on the working directory. */
+	private static final String SESSION_FILE_NAME = new File(System.getProperty("user.home"), ".product_backlog_session").getPath();
 	/** Menu bar for the GUI that contains Menus. */
 	private JMenuBar menuBar;
 	/** Menu for the GUI. */
@@ -123,6 +128,12 @@ public class ProductBacklogGUI extends JFrame implements ActionListener {
 		setLocation(50, 50);
 		setTitle(APP_TITLE);
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				saveSession();
+			}
+		});
 		setUpMenuBar();
 		
 		//Create JPanel that will hold rest of GUI information.
@@ -141,6 +152,15 @@ public class ProductBacklogGUI extends JFrame implements ActionListener {
 		panel.add(pnlCreateTask, CREATE_TASK_PANEL);
 		cardLayout.show(panel, PRODUCT_PANEL);
 		
+		//Files are often loaded again while the program runs, so only the products that changed are parsed again
+		BacklogManager.getInstance().setSectionCacheEnabled(true);
+		
+		//Restore the last session if its file has not changed since it was saved
+		if (BacklogManager.getInstance().restoreSession(SESSION_FILE_NAME)) {
+			itemClear.setEnabled(true);
+			pnlProduct.updateProducts();
+		}
+		
 		//Add panel to the container
 		Container c = getContentPane();
 		c.add(panel, BorderLayout.CENTER);
@@ -212,9 +232,13 @@ public class ProductBacklogGUI extends JFrame implements ActionListener {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemSave) {
-			//Save products and tasks lists to file
+			//Save products and tasks lists to file in the background so the GUI keeps responding
 			try {
-				model.saveToFile(getFileName(false));
+				model.saveToFileAsync(getFileName(false)).whenComplete((result, exp) -> {
+					if (exp != null) {
+						SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Unable to save file."));
+					}
+				});
 			} catch (IllegalArgumentException exp) {
 				JOptionPane.showMessageDialog(this, "Unable to save file.");
 			} catch (IllegalStateException exp) {
@@ -224,6 +248,7 @@ public class ProductBacklogGUI extends JFrame implements ActionListener {
 			//Quit the program
 			try {
 				model.saveToFile(getFileName(false));
+				saveSession();
 				System.exit(0);  //Ignore FindBugs warning here - this is the only place to quit the program!
 			} catch (IllegalArgumentException exp) {
 				JOptionPane.showMessageDialog(this, "Unable to save file.");
@@ -233,6 +258,20 @@ public class ProductBacklogGUI extends JFrame implements ActionListener {
 		}
 	}
 	
+	/**
+	 * Closes the journal and saves the session so the next start can restore it without loading the file again.
+	 * A session that cannot be saved is skipped, since the products are still in the file they were loaded from or saved to.
+	 * The session is not saved if there are unsaved changes, so changes that were not saved are not restored.
+	 */
+	private void saveSession() {
+		try {
+			BacklogManager.getInstance().closeJournal();
+			BacklogManager.getInstance().saveSession(SESSION_FILE_NAME);
+		} catch (IllegalArgumentException exp) {
+			//Don't do anything - the next start loads the file instead
+		}
+	}
+	
 	/**
 	 * Returns a file name generated through interactions with a JFileChooser
 	 * object.
@@ -4,13 +4,18 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.product_backlog.model.command.Command;
 import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
+import edu.ncsu.csc216.product_backlog.model.io.DiskTaskStore;
 import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
 
 /**
@@ -122,6 +127,298 @@ class BacklogManagerTest {
 	}
 	
 	
+	/**
+	 * Tests that a backlog whose tasks are kept in DiskTaskStores is loaded, changed and saved the same as one kept on the heap.
+	 */
+	@Test
+	public void testSetTaskStoreFactory() {
+		manager.setTaskStoreFactory(DiskTaskStore::createTemporary);
+		manager.loadFromFile(FILE_LOCATION);
+		assertEquals(2, manager.getProductList().length);
+		manager.loadProduct(PRODUCT_NAME);
+		assertEquals("Express Carts", manager.getTaskById(TASKID).getTitle());
+		manager.executeCommand(TASKID, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claimed"));
+		assertEquals(CLAIMED_OWNER, manager.getTaskById(TASKID).getOwner());
+		
+		manager.addProduct("Product");
+		manager.addTaskToProduct("title1", Type.BUG, "creator1", "note1");
+		assertEquals("title1", manager.getTaskById(1).getTitle());
+		String fileName = "test-files/actual_store_backlog.txt";
+		try {
+			manager.saveToFile(fileName);
+			manager.setTaskStoreFactory(null);
+			manager.loadFromFile(fileName);
+			manager.loadProduct(PRODUCT_NAME);
+			assertEquals(CLAIMED_OWNER, manager.getTaskById(TASKID).getOwner());
+			manager.loadProduct("Product");
+			assertEquals("title1", manager.getTaskById(1).getTitle());
+		}
+		finally {
+			new File(fileName).delete();
+		}
+	}
+	
+	/**
+	 * Tests the loadFromFileLazily method to see if products are only read when they are loaded and end up the same as with loadFromFile.
+	 */
+	@Test
+	public void testLoadFromFileLazily() {
+		//Test with a file that doesn't exists and see if it throws.
+		assertThrows(IllegalArgumentException.class, () -> manager.loadFromFileLazily("test-files/tasks0.txt"));
+		assertEquals(0, manager.getProductList().length);
+		
+		//Test with an invalid file and see the there are zero products.
+		manager.loadFromFileLazily("test-files/tasks3.txt");
+		assertEquals(0, manager.getProductList().length);
+		assertNull(manager.getProductName());
+		
+		//Load a valid file and check that the first product is the current product and has its tasks.
+		manager.loadFromFileLazily(FILE_LOCATION);
+		assertEquals(2, manager.getProductList().length);
+		assertEquals(PRODUCT_NAME, manager.getProductName());
+		assertEquals(6, manager.getTasksAsArray().length);
+		
+		//Load the second product and check that its tasks were read.
+		manager.loadProduct("WolfScheduler");
+		assertEquals("WolfScheduler", manager.getProductName());
+		assertEquals(3, manager.getTasksAsArray().length);
+		assertEquals("Weekly Repeat", manager.getTaskById(2).getTitle());
+		
+		//Save the lazily loaded products and check that the file is the same as the original.
+		manager.loadFromFileLazily(FILE_LOCATION);
+		manager.saveToFile("test-files/actual_lazy_backlog.txt");
+		manager.loadFromFile("test-files/actual_lazy_backlog.txt");
+		assertEquals(2, manager.getProductList().length);
+		manager.loadProduct("WolfScheduler");
+		assertEquals(3, manager.getTasksAsArray().length);
+		
+		//Change one product and save over the same file so the other product is copied from it.
+		manager.loadFromFileLazily("test-files/actual_lazy_backlog.txt");
+		manager.addTaskToProduct("Lazy Task", Type.BUG, "creator", "note");
+		manager.saveToFile("test-files/actual_lazy_backlog.txt");
+		manager.saveToFile("test-files/actual_lazy_backlog.txt");
+		manager.loadFromFile("test-files/actual_lazy_backlog.txt");
+		assertEquals(7, manager.getTasksAsArray().length);
+		manager.loadProduct("WolfScheduler");
+		assertEquals(3, manager.getTasksAsArray().length);
+		
+		//Remove the task again so the saved file is the same as the original.
+		manager.loadProduct(PRODUCT_NAME);
+		manager.deleteTaskById(11);
+		manager.saveToFile("test-files/actual_lazy_backlog.txt");
+		checkFiles(FILE_LOCATION, "test-files/actual_lazy_backlog.txt");
+	}
+	
+	/**
+	 * Tests the saveToBinaryFile method and that loadFromFile can read the binary file it writes.
+	 */
+	@Test
+	public void testSaveToBinaryFile() {
+		manager.loadFromFileLazily(FILE_LOCATION);
+		manager.saveToBinaryFile("test-files/actual_manager_backlog.bin");
+		manager.clearProducts();
+		manager.loadFromFile("test-files/actual_manager_backlog.bin");
+		assertEquals(2, manager.getProductList().length);
+		assertEquals(PRODUCT_NAME, manager.getProductName());
+		assertEquals(6, manager.getTasksAsArray().length);
+		manager.loadProduct("WolfScheduler");
+		assertEquals("Weekly Repeat", manager.getTaskById(2).getTitle());
+		
+		//Saving a binary backlog as text writes every product
+		manager.saveToFile("test-files/actual_lazy_backlog.txt");
+		checkFiles(FILE_LOCATION, "test-files/actual_lazy_backlog.txt");
+		new File("test-files/actual_manager_backlog.bin").delete();
+	}
+	
+	/**
+	 * Tests that saveToFile compresses a file whose name ends with .gz and that both loading methods can read it.
+	 */
+	@Test
+	public void testSaveToCompressedFile() {
+		String fileName = "test-files/actual_manager_backlog.txt.gz";
+		manager.loadFromFileLazily(FILE_LOCATION);
+		manager.saveToFile(fileName);
+		manager.clearProducts();
+		manager.loadFromFile(fileName);
+		assertEquals(2, manager.getProductList().length);
+		assertEquals(6, manager.getTasksAsArray().length);
+		manager.clearProducts();
+		manager.loadFromFileLazily(fileName);
+		manager.loadProduct("WolfScheduler");
+		assertEquals("Weekly Repeat", manager.getTaskById(2).getTitle());
+		
+		//Saving a compressed backlog as text writes every product
+		manager.saveToFile("test-files/actual_lazy_backlog.txt");
+		checkFiles(FILE_LOCATION, "test-files/actual_lazy_backlog.txt");
+		assertFalse(new File(fileName + ".tmp").exists());
+		new File(fileName).delete();
+	}
+	
+	/**
+	 * Tests that saveToDirectory writes one shard for each product and only writes the shards of products that changed.
+	 */
+	@Test
+	public void testSaveToDirectory() {
+		String directoryName = "test-files/actual_manager_directory";
+		manager.loadFromFileLazily(FILE_LOCATION);
+		manager.saveToDirectory(directoryName);
+		File directory = new File(directoryName);
+		try {
+			manager.clearProducts();
+			manager.loadFromDirectory(directoryName);
+			assertEquals(2, manager.getProductList().length);
+			assertEquals(PRODUCT_NAME, manager.getProductName());
+			assertEquals(6, manager.getTasksAsArray().length);
+			
+			//Saving without changes keeps every shard, and a changed product is written to a new shard
+			String[] shardNames = directory.list();
+			manager.saveToDirectory(directoryName);
+			assertArrayEquals(shardNames, directory.list());
+			manager.loadProduct("WolfScheduler");
+			manager.addTaskToProduct("Directory Task", Type.BUG, "creator", "note");
+			manager.saveToDirectory(directoryName);
+			assertEquals(shardNames.length, directory.list().length);
+			manager.clearProducts();
+			manager.loadFromDirectory(directoryName);
+			manager.loadProduct("WolfScheduler");
+			assertEquals("Directory Task", manager.getTasksAsArray()[manager.getTasksAsArray().length - 1][3]);
+			
+			assertThrows(IllegalArgumentException.class, () -> manager.loadFromDirectory("test-files/missing_directory"));
+		}
+		finally {
+			File[] files = directory.listFiles();
+			for (int i = 0; files != null && i < files.length; i++) {
+				files[i].delete();
+			}
+			directory.delete();
+		}
+	}
+	
+	/**
+	 * Tests that saveSession and restoreSession bring back the products and the current product,
+	 * that a session is not saved while there are unsaved changes, and that a session is not restored once its source file has changed.
+	 * @throws IOException if the source file cannot be copied
+	 */
+	@Test
+	public void testSaveAndRestoreSession() throws IOException {
+		File source = new File("test-files/actual_session_source.txt");
+		File session = new File("test-files/actual_session.bin");
+		try {
+			Files.copy(new File(FILE_LOCATION).toPath(), source.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			assertFalse(manager.restoreSession(session.getPath()));
+			
+			manager.loadFromFileLazily(source.getPath());
+			manager.loadProduct("WolfScheduler");
+			assertTrue(manager.saveSession(session.getPath()));
+			manager.addTaskToProduct("Session Task", Type.BUG, "creator", "note");
+			assertTrue(manager.hasUnsavedChanges());
+			assertFalse(manager.saveSession(session.getPath()));
+			assertFalse(session.exists());
+			
+			manager.saveToFile(source.getPath());
+			assertFalse(manager.hasUnsavedChanges());
+			String[][] tasks = manager.getTasksAsArray();
+			assertTrue(manager.saveSession(session.getPath()));
+			
+			manager.clearProducts();
+			assertFalse(manager.saveSession(session.getPath() + ".none"));
+			assertTrue(manager.restoreSession(session.getPath()));
+			assertEquals(2, manager.getProductList().length);
+			assertEquals("WolfScheduler", manager.getProductName());
+			assertArrayEquals(tasks, manager.getTasksAsArray());
+			
+			//A source file changed after the session was saved, even to an older time, does not match the session
+			manager.clearProducts();
+			source.setLastModified(source.lastModified() - 1000);
+			assertFalse(manager.restoreSession(session.getPath()));
+			assertEquals(0, manager.getProductList().length);
+		}
+		finally {
+			source.delete();
+			session.delete();
+		}
+	}
+	
+	/**
+	 * Tests the saveToFileAsync method to see if it saves the products as they were when it was called.
+	 */
+	@Test
+	public void testSaveToFileAsync() {
+		//Saving with no products completes with an exception
+		CompletableFuture<Void> failed = manager.saveToFileAsync("test-files/actual_async_backlog.txt");
+		assertThrows(CompletionException.class, () -> failed.join());
+		
+		//Changes made after the save is started are not in the saved file
+		manager.loadFromFileLazily(FILE_LOCATION);
+		CompletableFuture<Void> save = manager.saveToFileAsync("test-files/actual_async_backlog.txt");
+		manager.addTaskToProduct("Async Task", Type.BUG, "creator", "note");
+		save.join();
+		checkFiles(FILE_LOCATION, "test-files/actual_async_backlog.txt");
+		
+		//Several saves to the same file all finish and the file has the newest products
+		CompletableFuture<Void> first = manager.saveToFileAsync("test-files/actual_async_backlog.txt");
+		manager.deleteTaskById(11);
+		CompletableFuture<Void> second = manager.saveToFileAsync("test-files/actual_async_backlog.txt");
+		CompletableFuture<Void> third = manager.saveToFileAsync("test-files/actual_async_backlog.txt");
+		CompletableFuture.allOf(first, second, third).join();
+		checkFiles(FILE_LOCATION, "test-files/actual_async_backlog.txt");
+		
+		//A later save copies the products from the file written in the background
+		manager.loadProduct("WolfScheduler");
+		manager.saveToFile("test-files/actual_async_backlog.txt");
+		checkFiles(FILE_LOCATION, "test-files/actual_async_backlog.txt");
+		assertFalse(new File("test-files/actual_async_backlog.txt.tmp").exists());
+		new File("test-files/actual_async_backlog.txt").delete();
+	}
+	
+	/**
+	 * Tests that changes made while a journal is open are kept when the journal is opened again.
+	 */
+	@Test
+	public void testJournal() {
+		new File("test-files/actual_manager_snapshot.txt").delete();
+		new File("test-files/actual_manager_journal.txt").delete();
+		manager.openJournal("test-files/actual_manager_snapshot.txt", "test-files/actual_manager_journal.txt");
+		assertEquals(0, manager.getProductList().length);
+		assertThrows(IllegalArgumentException.class, () -> manager.editProduct("Product"));
+		
+		manager.addProduct(PRODUCT_NAME);
+		manager.addTaskToProduct(TITLE, TYPE, CREATOR, NOTE);
+		manager.addTaskToProduct("title2", Type.BUG, "creator2", "note2");
+		manager.executeCommand(TASKID, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Adding Joe to this task"));
+		manager.deleteTaskById(2);
+		manager.addProduct("Other");
+		manager.editProduct("Renamed");
+		manager.closeJournal();
+		
+		manager.clearProducts();
+		manager.openJournal("test-files/actual_manager_snapshot.txt", "test-files/actual_manager_journal.txt");
+		assertEquals(2, manager.getProductList().length);
+		assertEquals("Renamed", manager.getProductList()[1]);
+		manager.loadProduct(PRODUCT_NAME);
+		assertEquals(1, manager.getTasksAsArray().length);
+		assertEquals(CLAIMED_OWNER, manager.getTaskById(TASKID).getOwner());
+		
+		//Compact the journal and check that nothing is lost.
+		manager.compactJournal();
+		manager.addTaskToProduct("title3", Type.FEATURE, "creator3", "note3");
+		manager.openJournal("test-files/actual_manager_snapshot.txt", "test-files/actual_manager_journal.txt");
+		assertEquals(2, manager.getProductList().length);
+		manager.loadProduct(PRODUCT_NAME);
+		assertEquals(2, manager.getTasksAsArray().length);
+		assertEquals("title3", manager.getTaskById(3).getTitle());
+		
+		//Clear the products and check that the journal stays empty.
+		manager.clearProducts();
+		manager.openJournal("test-files/actual_manager_snapshot.txt", "test-files/actual_manager_journal.txt");
+		assertEquals(0, manager.getProductList().length);
+		manager.closeJournal();
+		assertThrows(IllegalArgumentException.class, () -> manager.compactJournal());
+		
+		new File("test-files/actual_manager_snapshot.txt").delete();
+		new File("test-files/actual_manager_journal.txt").delete();
+	}
+	
 	/**
 	 * Tests the getTaskArray method to see if it can output tasks correctly in an array.
 	 */
@@ -312,6 +609,62 @@ class BacklogManagerTest {
 		
 	}
 	
+	/**
+	 * Tests that products are found by name after many products are added, renamed, deleted and loaded.
+	 */
+	@Test
+	public void testProductIndex() {
+		for (int i = 0; i < 5000; i++) {
+			manager.addProduct("Product " + i);
+		}
+		assertEquals(5000, manager.getProductList().length);
+		assertThrows(IllegalArgumentException.class, () -> manager.addProduct("Product 2500"));
+		
+		//A renamed product is found by its new name and its old name can be used again
+		manager.loadProduct("Product 2500");
+		manager.editProduct("Renamed");
+		manager.loadProduct("Product 0");
+		manager.loadProduct("Renamed");
+		assertEquals("Renamed", manager.getProductName());
+		manager.addProduct("Product 2500");
+		assertEquals("Product 2500", manager.getProductName());
+		
+		//A deleted product is no longer found and its name can be used again
+		manager.loadProduct("Renamed");
+		manager.deleteProduct();
+		manager.loadProduct("Renamed");
+		assertEquals("Product 0", manager.getProductName());
+		manager.addProduct("Renamed");
+		assertEquals("Renamed", manager.getProductName());
+		
+		//Loading a file replaces the index
+		manager.loadFromFileLazily(FILE_LOCATION);
+		manager.addProduct("Product 1");
+		manager.loadProduct("WolfScheduler");
+		assertEquals("WolfScheduler", manager.getProductName());
+		assertThrows(IllegalArgumentException.class, () -> manager.addProduct("WolfScheduler"));
+	}
+	
+	/**
+	 * Tests that the tasks of every product are searched by words and by quoted phrases, including products that were loaded lazily.
+	 */
+	@Test
+	public void testSearchTasks() {
+		manager.loadFromFileLazily(FILE_LOCATION);
+		String[][] found = manager.searchTasks("shortest LINE");
+		assertEquals(3, found.length);
+		assertArrayEquals(new String[] {"Shopping Cart Simulation", "1", "Backlog", "Express Carts"}, found[0]);
+		assertEquals("2", found[1][1]);
+		assertEquals("8", found[2][1]);
+		assertEquals(2, manager.searchTasks("\"shortest line\"").length);
+		assertEquals(0, manager.searchTasks("\"line shortest\"").length);
+		
+		found = manager.searchTasks("users");
+		assertEquals(2, found.length);
+		assertEquals("WolfScheduler", found[0][0]);
+		assertEquals(0, manager.searchTasks("").length);
+	}
+	
 	/**
 	 * Test the addProduct method to see if the user can add new products.
 	 */
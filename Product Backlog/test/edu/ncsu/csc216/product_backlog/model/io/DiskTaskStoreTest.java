@@ -0,0 +1,192 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the DiskTaskStore class.
+ * @author Daniel Avisse
+ *
+ */
+class DiskTaskStoreTest {
+	
+	/** Name of the log file of the store **/
+	private static final String LOG_FILE = "test-files/actual_task_store.log";
+	
+	/** Store that is tested, which only caches one task so most tasks are read from the log **/
+	private DiskTaskStore store;
+	
+	/**
+	 * Creates the store before each test.
+	 * @throws IOException if the log cannot be created
+	 */
+	@BeforeEach
+	public void setUp() throws IOException {
+		store = new DiskTaskStore(LOG_FILE, 1);
+	}
+	
+	/**
+	 * Closes the store after each test, which deletes its log.
+	 * @throws IOException if the log cannot be closed
+	 */
+	@AfterEach
+	public void tearDown() throws IOException {
+		store.close();
+		assertFalse(new File(LOG_FILE).exists());
+	}
+	
+	/**
+	 * Tests that tasks are read back from the log the same as they were added.
+	 */
+	@Test
+	public void testAddAndGet() {
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("[Backlog] first note");
+		notes.add("second note\nwith two lines");
+		store.add(new Task(3, "Backlog", "title3", "B", "creator", "unowned", "false", notes));
+		store.add(0, new Task(1, "title1", Type.FEATURE, "creator", "note1"));
+		store.add(1, new Task(2, "title2", Type.KNOWLEDGE_ACQUISITION, "creator", "note2"));
+		assertEquals(3, store.size());
+		assertEquals(2, store.getId(1));
+		
+		Task task = store.getById(3);
+		assertEquals("title3", task.getTitle());
+		assertEquals(Type.BUG, task.getType());
+		assertEquals(notes, task.getNotes());
+		assertEquals("title1", store.get(0).getTitle());
+		assertEquals(Type.KNOWLEDGE_ACQUISITION, store.getById(2).getType());
+		assertNull(store.getById(4));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.get(3));
+		
+		List<Task> tasks = store.asList();
+		assertEquals(3, tasks.size());
+		for (int i = 0; i < tasks.size(); i++) {
+			assertEquals(i + 1, tasks.get(i).getTaskId());
+		}
+		assertThrows(UnsupportedOperationException.class, () -> tasks.remove(0));
+	}
+	
+	/**
+	 * Tests that removed and updated tasks are saved in the log and that the log is rewritten once most of it is unused.
+	 */
+	@Test
+	public void testRemoveAndUpdate() {
+		for (int i = 1; i <= 100; i++) {
+			store.add(new Task(i, "title" + i, Type.BUG, "creator", "note"));
+		}
+		assertEquals("title50", store.remove(49).getTitle());
+		assertEquals(99, store.size());
+		assertNull(store.getById(50));
+		assertEquals(51, store.getId(49));
+		
+		Task task = store.getById(7);
+		task.addNoteToList("changed");
+		store.update(task);
+		store.get(0);
+		assertEquals(2, store.getById(7).getNotes().size());
+		assertThrows(IllegalArgumentException.class, () -> store.update(new Task(50, "title", Type.BUG, "creator", "note")));
+		
+		//Updating a large task many times leaves most of the log unused until it is rewritten
+		StringBuilder longNote = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			longNote.append("long note ");
+		}
+		task.addNoteToList(longNote.toString());
+		for (int i = 0; i < 200; i++) {
+			store.update(task);
+		}
+		assertTrue(store.getLogSize() < 200 * longNote.length());
+		store.get(0);
+		assertTrue(store.getById(7).getNotes().get(2).endsWith(longNote.toString()));
+		assertEquals("title100", store.getById(100).getTitle());
+	}
+	
+	/**
+	 * Tests that a Product works the same when its tasks are kept in a DiskTaskStore.
+	 */
+	@Test
+	public void testProductWithDiskTaskStore() {
+		Product product = new Product("Product", store);
+		assertEquals(1, product.addTask("title1", Type.BUG, "creator", "note1"));
+		assertEquals(2, product.addTask("title2", Type.FEATURE, "creator", "note2"));
+		product.addTask(new Task(5, "title5", Type.TECHNICAL_WORK, "creator", "note5"));
+		product.addTask(new Task(4, "title4", Type.TECHNICAL_WORK, "creator", "note4"));
+		assertThrows(IllegalArgumentException.class, () -> product.addTask(new Task(4, "title4", Type.BUG, "creator", "note4")));
+		assertEquals(6, product.addTask("title6", Type.BUG, "creator", "note6"));
+		
+		//The change made by a command is kept after the task is no longer cached
+		product.executeCommand(2, new Command(CommandValue.CLAIM, "owner", "Claim note"));
+		product.getTaskById(1);
+		assertEquals("Owned", product.getTaskById(2).getStateName());
+		assertEquals("owner", product.getTaskById(2).getOwner());
+		assertEquals(2, product.getTaskById(2).getNotes().size());
+		
+		//A change made to a task directly is written to the log, and is kept after the task is no longer cached
+		product.getTaskById(2).addNoteToList("Direct note");
+		product.getTaskById(1);
+		assertEquals("[Owned] Direct note", product.getTaskById(2).getNote(2));
+		product.getTaskById(5).appendToNote(0, "\nmore");
+		product.getTaskById(1);
+		assertEquals("[Backlog] note5\nmore", product.getTaskById(5).getNote(0));
+		assertEquals(5, product.searchTasks("more").get(0).getTaskId());
+		
+		product.deleteTaskById(4);
+		assertEquals(4, product.getTasks().size());
+		assertEquals("title5", product.getTasks().get(2).getTitle());
+	}
+	
+	/**
+	 * Tests that many tasks are merged into the store, and that a snapshot shares the log but does not change when the store does.
+	 * @throws IOException if the snapshot cannot be closed
+	 */
+	@Test
+	public void testAddAllAndSnapshot() throws IOException {
+		store.add(new Task(2, "title2", Type.BUG, "creator", "note2"));
+		store.add(new Task(5, "title5", Type.BUG, "creator", "note5"));
+		ArrayList<Task> sorted = new ArrayList<Task>();
+		sorted.add(new Task(1, "title1", Type.FEATURE, "creator", "note1"));
+		sorted.add(new Task(3, "title3", Type.FEATURE, "creator", "note3"));
+		sorted.add(new Task(7, "title7", Type.FEATURE, "creator", "note7"));
+		store.addAll(sorted);
+		assertEquals(5, store.size());
+		int[] ids = {1, 2, 3, 5, 7};
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], store.getId(i));
+			assertEquals("title" + ids[i], store.get(i).getTitle());
+		}
+		
+		DiskTaskStore copy = store.snapshot();
+		long logSize = store.getLogSize();
+		Task task = store.getById(3);
+		task.addNoteToList("changed");
+		store.update(task);
+		store.remove(0);
+		assertEquals(4, store.size());
+		assertEquals(2, store.getById(3).getNotes().size());
+		assertEquals(5, copy.size());
+		assertEquals(1, copy.getById(3).getNotes().size());
+		assertEquals("title1", copy.get(0).getTitle());
+		assertTrue(copy.getLogSize() > logSize);
+		copy.close();
+		assertEquals("title7", store.getById(7).getTitle());
+		
+		Product product = new Product("Product", store);
+		Product productCopy = product.snapshot();
+		assertEquals(4, productCopy.getTasks().size());
+		assertEquals("title7", productCopy.getTaskById(7).getTitle());
+	}
+}
@@ -0,0 +1,58 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the MappedLineReader class.
+ * @author Daniel Avisse
+ */
+class MappedLineReaderTest {
+	
+	/**
+	 * Tests the readLine method to see if it reads the same lines as a BufferedReader.
+	 */
+	@Test
+	public void testReadLine() {
+		assertLinesMatch("test-files/tasks1.txt", MappedLineReader.MAX_MAPPED_SIZE);
+		assertLinesMatch("test-files/exp_task_backlog.txt", MappedLineReader.MAX_MAPPED_SIZE);
+	}
+	
+	/**
+	 * Tests the readLine method with small mapped sections so that lines cross from one section to the next.
+	 */
+	@Test
+	public void testReadLineSmallSections() {
+		assertLinesMatch("test-files/tasks1.txt", 200);
+		assertLinesMatch("test-files/tasks2.txt", 256);
+		assertThrows(IOException.class, () -> {
+			try (MappedLineReader reader = new MappedLineReader("test-files/tasks1.txt", 10)) {
+				reader.readLine();
+			}
+		});
+	}
+	
+	/**
+	 * Helper method that checks that a MappedLineReader reads the same lines as a BufferedReader.
+	 * @param fileName Name of the file
+	 * @param mappedSize Largest number of bytes that is mapped at one time
+	 */
+	private void assertLinesMatch(String fileName, long mappedSize) {
+		try (BufferedReader expReader = new BufferedReader(new FileReader(fileName));
+			 MappedLineReader actReader = new MappedLineReader(fileName, mappedSize)) {
+			String line = expReader.readLine();
+			while (line != null) {
+				assertEquals(line, actReader.readLine());
+				line = expReader.readLine();
+			}
+			assertNull(actReader.readLine());
+		} catch (IOException e) {
+			fail("Error reading files.");
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the PipelinedGzipOutputStream class.
+ * @author Daniel Avisse
+ *
+ */
+class PipelinedGzipOutputStreamTest {
+	
+	/**
+	 * Tests that bytes written one at a time and in arrays larger than a block decompress to the same bytes.
+	 */
+	@Test
+	public void testWrite() {
+		byte[] expected = new byte[PipelinedGzipOutputStream.BLOCK_SIZE * 5 + 123];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = (byte) ("# Product\n* 1,Backlog,title,F,creator,unowned,false\n".charAt(i % 52));
+		}
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (PipelinedGzipOutputStream out = new PipelinedGzipOutputStream(compressed)) {
+			out.write(expected, 0, 10);
+			for (int i = 10; i < 1000; i++) {
+				out.write(expected[i]);
+			}
+			out.flush();
+			out.write(expected, 1000, expected.length - 1000);
+		}
+		catch (IOException e) {
+			fail("Unexpected IOException");
+		}
+		assertTrue(compressed.size() < expected.length / 10);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+			assertArrayEquals(expected, in.readAllBytes());
+		}
+		catch (IOException e) {
+			fail("Unexpected IOException");
+		}
+	}
+	
+	/**
+	 * Tests that the stream cannot be written after it is closed and that an error from the compression thread is thrown.
+	 */
+	@Test
+	public void testClose() {
+		try {
+			PipelinedGzipOutputStream out = new PipelinedGzipOutputStream(new ByteArrayOutputStream());
+			out.write(1);
+			out.close();
+			out.close();
+			assertThrows(IOException.class, () -> out.write(1));
+			assertThrows(IOException.class, () -> out.write(new byte[10], 0, 10));
+		}
+		catch (IOException e) {
+			fail("Unexpected IOException");
+		}
+		
+		//The file fails after the gzip header is written
+		OutputStream failing = new OutputStream() {
+			private int written;
+			
+			@Override
+			public void write(int b) throws IOException {
+				if (++written > 10) {
+					throw new IOException("Disk is full.");
+				}
+			}
+		};
+		try {
+			PipelinedGzipOutputStream out = new PipelinedGzipOutputStream(failing);
+			byte[] bytes = new byte[PipelinedGzipOutputStream.BLOCK_SIZE];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = (byte) (i * 31);
+			}
+			out.write(bytes, 0, bytes.length);
+			assertThrows(IOException.class, () -> out.close());
+		}
+		catch (IOException e) {
+			fail("Unexpected IOException");
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the ProductCache class.
+ * @author Daniel Avisse
+ *
+ */
+class ProductCacheTest {
+	
+	/**
+	 * Tests that the hash only depends on the bytes of a section.
+	 */
+	@Test
+	public void testHash() {
+		try (FileChannel channel = FileChannel.open(Paths.get("test-files/exp_task_backlog.txt"), StandardOpenOption.READ)) {
+			long whole = ProductCache.hash(channel, 0, channel.size());
+			assertEquals(whole, ProductCache.hash(channel, 0, channel.size()));
+			assertNotEquals(whole, ProductCache.hash(channel, 1, channel.size()));
+			assertNotEquals(ProductCache.hash(channel, 0, 10), ProductCache.hash(channel, 10, 20));
+		}
+		catch (IOException e) {
+			fail("Unexpected IOException");
+		}
+	}
+	
+	/**
+	 * Tests that cached products share their tasks until they change, so the cache does not change when they do,
+	 * and that the least recently used sections are removed once the cache holds more bytes than its limit.
+	 */
+	@Test
+	public void testGetAndPut() {
+		ProductCache cache = new ProductCache(20);
+		ArrayList<Product> products = new ArrayList<Product>();
+		products.add(new Product("Product"));
+		products.get(0).addTask("title", Type.BUG, "creator", "note");
+		products.get(0).markClean();
+		
+		assertNull(cache.get(1, 10));
+		cache.put(1, 10, products);
+		products.get(0).addTask("title2", Type.BUG, "creator", "note");
+		ArrayList<Product> cached = cache.get(1, 10);
+		assertEquals(1, cached.get(0).getTasks().size());
+		assertFalse(cached.get(0).isDirty());
+		assertSame(cached.get(0).getTaskById(1), cache.get(1, 10).get(0).getTaskById(1));
+		cached.get(0).deleteTaskById(1);
+		assertEquals(1, cache.get(1, 10).get(0).getTasks().size());
+		
+		//A section with the same hash but a different length is not the same section
+		assertNull(cache.get(1, 11));
+		assertEquals(3, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		
+		//Section 1 was used last, so section 2 is removed when section 3 is added
+		cache.put(2, 10, products);
+		cache.get(1, 10);
+		cache.put(3, 10, products);
+		assertNotNull(cache.get(1, 10));
+		assertNull(cache.get(2, 10));
+		assertNotNull(cache.get(3, 10));
+		assertEquals(20, cache.getBytes());
+		
+		//A section as large as the cache removes every other section, and a larger one is not cached
+		cache.put(4, 20, products);
+		assertNull(cache.get(1, 10));
+		assertNull(cache.get(3, 10));
+		assertNotNull(cache.get(4, 20));
+		cache.put(5, 21, products);
+		assertNull(cache.get(5, 21));
+		assertEquals(20, cache.getBytes());
+		
+		//Shrinking the cache removes the least recently used sections
+		cache.setMaxBytes(40);
+		cache.put(1, 10, products);
+		cache.put(2, 10, products);
+		cache.get(4, 20);
+		assertEquals(40, cache.getBytes());
+		cache.setMaxBytes(25);
+		assertEquals(20, cache.getBytes());
+		assertNotNull(cache.get(4, 20));
+		assertNull(cache.get(1, 10));
+		assertEquals(25, cache.getMaxBytes());
+		assertThrows(IllegalArgumentException.class, () -> cache.setMaxBytes(-1));
+		
+		cache.clear();
+		assertEquals(0, cache.getBytes());
+		assertNull(cache.get(1, 10));
+		assertEquals(0, cache.getHits());
+	}
+}
@@ -0,0 +1,128 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Tests the ProductsBinaryReader class.
+ * @author Daniel Avisse
+ */
+class ProductsBinaryReaderTest {
+	
+	/** Location of the binary file **/
+	private static final String BINARY_FILE = "test-files/actual_reader_backlog.bin";
+	
+	/**
+	 * Deletes the binary file after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(BINARY_FILE).delete();
+	}
+	
+	/**
+	 * Tests that every text file in test-files gives the same products when it is written to a binary file and read back.
+	 */
+	@Test
+	public void testRoundTrip() {
+		File[] files = new File("test-files").listFiles();
+		for (int i = 0; i < files.length; i++) {
+			if (files[i].getName().endsWith(".txt")) {
+				ArrayList<Product> expected = ProductsReader.readProductsFile(files[i].getPath());
+				ProductsBinaryWriter.writeProductsToFile(BINARY_FILE, expected);
+				assertTrue(ProductsBinaryReader.isBinaryFile(BINARY_FILE));
+				ArrayList<Product> actual = ProductsBinaryReader.readProductsFile(BINARY_FILE);
+				assertEquals(expected.size(), actual.size());
+				for (int j = 0; j < expected.size(); j++) {
+					assertEquals(expected.get(j).getProductName(), actual.get(j).getProductName());
+					assertEquals(expected.get(j).getTasks().size(), actual.get(j).getTasks().size());
+					for (int k = 0; k < expected.get(j).getTasks().size(); k++) {
+						assertEquals(expected.get(j).getTasks().get(k).toString(), actual.get(j).getTasks().get(k).toString());
+					}
+					assertFalse(actual.get(j).isDirty());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests reading files that are not binary backlog files.
+	 */
+	@Test
+	public void testInvalidReadProductsFile() {
+		assertFalse(ProductsBinaryReader.isBinaryFile("test-files/tasks1.txt"));
+		assertFalse(ProductsBinaryReader.isBinaryFile("test-files/tasks0.txt"));
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile("test-files/tasks0.txt"));
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile("test-files/tasks1.txt"));
+		
+		//A file that ends in the middle of a product
+		ProductsBinaryWriter.writeProductsToFile(BINARY_FILE, ProductsReader.readProductsFile("test-files/tasks1.txt"));
+		long length = new File(BINARY_FILE).length();
+		try (FileOutputStream out = new FileOutputStream(BINARY_FILE, true)) {
+			out.getChannel().truncate(length / 2);
+		}
+		catch (IOException e) {
+			fail("Unable to truncate file.");
+		}
+		assertTrue(ProductsBinaryReader.isBinaryFile(BINARY_FILE));
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile(BINARY_FILE));
+	}
+	
+	/**
+	 * Tests that lengths and counts that are more than MAX_LENGTH are rejected before anything is allocated,
+	 * and ones that are more than the bytes left in the file are rejected when the end of the file is reached.
+	 */
+	@Test
+	public void testReadInvalidLengths() {
+		//A dictionary with the largest count a varint can hold
+		writeFile(Integer.MAX_VALUE);
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile(BINARY_FILE));
+		
+		//A dictionary String that is longer than the rest of the file
+		writeFile(1, 100, 'a');
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile(BINARY_FILE));
+		
+		//A String longer than MAX_LENGTH
+		writeFile(1, ProductsBinaryReader.MAX_LENGTH + 1, 'a');
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile(BINARY_FILE));
+		
+		//A product count that is more than the bytes left
+		writeFile(1, 1, 'a', 1000);
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryReader.readProductsFile(BINARY_FILE));
+		
+		//The same file with no products can be read
+		writeFile(1, 1, 'a', 0);
+		assertEquals(0, ProductsBinaryReader.readProductsFile(BINARY_FILE).size());
+	}
+	
+	/**
+	 * Helper method that writes MAGIC followed by values to the binary file, writing each int as a varint and each char as a byte.
+	 * @param values Values that are written after MAGIC
+	 */
+	private void writeFile(Object... values) {
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(BINARY_FILE))) {
+			out.writeInt(ProductsBinaryWriter.MAGIC);
+			for (Object value : values) {
+				if (value instanceof Character) {
+					out.writeByte((Character) value);
+				}
+				else {
+					ProductsBinaryWriter.writeVarInt(out, (Integer) value);
+				}
+			}
+		}
+		catch (IOException e) {
+			fail("Unable to write file.");
+		}
+	}
+}
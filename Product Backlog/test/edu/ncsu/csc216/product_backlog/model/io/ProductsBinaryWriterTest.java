@@ -0,0 +1,64 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the ProductsBinaryWriter class.
+ * @author Daniel Avisse
+ */
+class ProductsBinaryWriterTest {
+	
+	/** Location of the binary file **/
+	private static final String BINARY_FILE = "test-files/actual_writer_backlog.bin";
+	
+	/**
+	 * Deletes the binary file after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(BINARY_FILE).delete();
+	}
+	
+	/**
+	 * Tests the writeProductsToFile method to see if it writes a binary file that is smaller than the text file and can be read back.
+	 */
+	@Test
+	public void testWriteProductsToFile() {
+		ArrayList<Product> products = new ArrayList<Product>();
+		Product product = new Product("Product");
+		product.addTask(new Task(1, "title1", Type.BUG, "creator1", "note1"));
+		product.addTask(new Task(300, "title2", Type.KNOWLEDGE_ACQUISITION, "creator1", "[Owned] note2"));
+		products.add(product);
+		
+		//Notes with and without a state prefix keep their text
+		product.getTaskById(300).addNoteToList("[Not a state] note3");
+		ProductsBinaryWriter.writeProductsToFile(BINARY_FILE, products);
+		ArrayList<Product> actual = ProductsBinaryReader.readProductsFile(BINARY_FILE);
+		assertEquals(1, actual.size());
+		assertEquals("Product", actual.get(0).getProductName());
+		assertEquals(product.getTaskById(1).toString(), actual.get(0).getTaskById(1).toString());
+		assertEquals(product.getTaskById(300).toString(), actual.get(0).getTaskById(300).toString());
+		assertEquals(301, actual.get(0).addTask("title3", Type.BUG, "creator", "note"));
+		
+		//The binary file is smaller than the text file of the same products
+		ArrayList<Product> textProducts = ProductsReader.readProductsFile("test-files/tasks1.txt");
+		ProductsBinaryWriter.writeProductsToFile(BINARY_FILE, textProducts);
+		assertTrue(new File(BINARY_FILE).length() < new File("test-files/tasks1.txt").length());
+		
+		//The file is written through a temporary file that is moved into place
+		assertFalse(new File(BINARY_FILE + ".tmp").exists());
+		
+		//Writing to a directory that does not exist throws
+		assertThrows(IllegalArgumentException.class, () -> ProductsBinaryWriter.writeProductsToFile("no-such-dir/backlog.bin", products));
+	}
+}
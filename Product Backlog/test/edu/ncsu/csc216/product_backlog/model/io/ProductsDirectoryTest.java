@@ -0,0 +1,116 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the ProductsDirectory class.
+ * @author Daniel Avisse
+ *
+ */
+class ProductsDirectoryTest {
+	
+	/** Directory the products are written to **/
+	private static final String DIRECTORY = "test-files/actual_products_directory";
+	
+	/**
+	 * Deletes the directory after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		File[] files = new File(DIRECTORY).listFiles();
+		if (files != null) {
+			for (int i = 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+		new File(DIRECTORY).delete();
+	}
+	
+	/**
+	 * Tests that products written to a directory are read back the same and that only the products without a shard are written again.
+	 */
+	@Test
+	public void testWriteAndReadProductsDirectory() {
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt");
+		assertFalse(ProductsDirectory.isProductsDirectory(DIRECTORY));
+		HashMap<Product, String> written = ProductsDirectory.writeProductsDirectory(DIRECTORY, products, new HashMap<Product, String>());
+		assertTrue(ProductsDirectory.isProductsDirectory(DIRECTORY));
+		assertEquals(products.size(), written.size());
+		assertEquals(products.size() + 1, new File(DIRECTORY).list().length);
+		
+		HashMap<Product, String> shards = new HashMap<Product, String>();
+		ArrayList<Product> read = ProductsDirectory.readProductsDirectory(DIRECTORY, shards);
+		assertEquals(products.size(), read.size());
+		for (int i = 0; i < products.size(); i++) {
+			assertEquals(products.get(i).getProductName(), read.get(i).getProductName());
+			assertEquals(products.get(i).getTasks().size(), read.get(i).getTasks().size());
+			assertEquals(written.get(products.get(i)), shards.get(read.get(i)));
+		}
+		
+		//Only the changed product is written to a new shard, and its old shard is deleted
+		String firstShard = shards.get(read.get(0));
+		String secondShard = shards.get(read.get(1));
+		read.get(1).addTask("title4", Type.BUG, "creator4", "note4");
+		HashMap<Product, String> previous = new HashMap<Product, String>();
+		previous.put(read.get(0), firstShard);
+		written = ProductsDirectory.writeProductsDirectory(DIRECTORY, read, previous);
+		assertEquals(firstShard, written.get(read.get(0)));
+		assertNotEquals(secondShard, written.get(read.get(1)));
+		assertFalse(new File(DIRECTORY, secondShard).exists());
+		assertEquals(products.size() + 1, new File(DIRECTORY).list().length);
+		
+		ArrayList<Product> reread = ProductsDirectory.readProductsDirectory(DIRECTORY, new HashMap<Product, String>());
+		assertEquals(products.get(0).getTasks().size(), reread.get(0).getTasks().size());
+		assertEquals(products.get(1).getTasks().size() + 1, reread.get(1).getTasks().size());
+		
+		//Deleted products are removed from the manifest
+		reread.remove(0);
+		ProductsDirectory.writeProductsDirectory(DIRECTORY, reread, new HashMap<Product, String>());
+		assertEquals(1, ProductsDirectory.readProductsDirectory(DIRECTORY, new HashMap<Product, String>()).size());
+		assertEquals(2, new File(DIRECTORY).list().length);
+	}
+	
+	/**
+	 * Tests that the manifest is not replaced when a shard cannot be written, and that the shards written by the failed save are deleted.
+	 */
+	@Test
+	public void testWriteShardFails() {
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt");
+		HashMap<Product, String> written = ProductsDirectory.writeProductsDirectory(DIRECTORY, products, new HashMap<Product, String>());
+		int files = new File(DIRECTORY).list().length;
+		
+		//A directory with the name of the next shard makes that shard fail
+		String blocked = "product-" + (products.size() + 2) + ".txt";
+		assertTrue(new File(DIRECTORY, blocked).mkdir());
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> ProductsDirectory.writeProductsDirectory(DIRECTORY, products, new HashMap<Product, String>()));
+		assertEquals("Cannont save file", e.getMessage());
+		assertEquals(files + 1, new File(DIRECTORY).list().length);
+		
+		HashMap<Product, String> shards = new HashMap<Product, String>();
+		ArrayList<Product> read = ProductsDirectory.readProductsDirectory(DIRECTORY, shards);
+		assertEquals(products.size(), read.size());
+		for (int i = 0; i < products.size(); i++) {
+			assertEquals(written.get(products.get(i)), shards.get(read.get(i)));
+		}
+	}
+	
+	/**
+	 * Tests that a directory without a manifest cannot be read.
+	 */
+	@Test
+	public void testReadInvalidDirectory() {
+		assertThrows(IllegalArgumentException.class, () -> ProductsDirectory.readProductsDirectory(DIRECTORY, new HashMap<Product, String>()));
+		assertThrows(IllegalArgumentException.class, () -> ProductsDirectory.readProductsDirectory("test-files", new HashMap<Product, String>()));
+	}
+}
@@ -0,0 +1,220 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the ProductsJournal class.
+ * @author Daniel Avisse
+ */
+class ProductsJournalTest {
+	
+	/** Location of the snapshot file **/
+	private static final String SNAPSHOT_FILE = "test-files/actual_journal_snapshot.txt";
+	
+	/** Location of the journal file **/
+	private static final String JOURNAL_FILE = "test-files/actual_journal.txt";
+	
+	/**
+	 * Deletes the journal files before each test so every test starts with an empty journal.
+	 */
+	@BeforeEach
+	public void setUp() {
+		new File(SNAPSHOT_FILE).delete();
+		new File(JOURNAL_FILE).delete();
+		new File(JOURNAL_FILE + ".tmp").delete();
+	}
+	
+	/**
+	 * Deletes the journal files after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		setUp();
+	}
+	
+	/**
+	 * Tests the constructor with invalid files and sizes.
+	 */
+	@Test
+	public void testInvalidJournal() {
+		assertThrows(IllegalArgumentException.class, () -> new ProductsJournal(null, JOURNAL_FILE, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ProductsJournal(SNAPSHOT_FILE, "", 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ProductsJournal(SNAPSHOT_FILE, SNAPSHOT_FILE, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 1).recordAddProduct("Product"));
+	}
+	
+	/**
+	 * Tests that the records in a journal are replayed when the journal is opened again.
+	 */
+	@Test
+	public void testReplay() {
+		ProductsJournal journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 2, 100);
+		ArrayList<Product> products = journal.open();
+		assertEquals(0, products.size());
+		journal.recordAddProduct("Product");
+		journal.recordAddTask("Product", 1, "title1", Type.BUG, "creator1", "note1\nsecond line");
+		journal.recordAddTask("Product", 2, "title2", Type.FEATURE, "creator2", "note\t2");
+		journal.recordCommand("Product", 1, new Command(CommandValue.CLAIM, "owner", "Claimed"));
+		journal.recordDeleteTask("Product", 2);
+		journal.recordAddProduct("Other");
+		journal.recordEditProduct("Other", "Renamed");
+		journal.recordAddProduct("Deleted");
+		journal.recordDeleteProduct("Deleted");
+		journal.close();
+		
+		products = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 2, 100).open();
+		assertEquals(2, products.size());
+		assertEquals("Product", products.get(0).getProductName());
+		assertEquals("Renamed", products.get(1).getProductName());
+		assertEquals(1, products.get(0).getTasks().size());
+		assertEquals("1,Owned,title1,B,creator1,owner,false\n- [Backlog] note1\nsecond line\n- [Owned] Claimed", products.get(0).getTaskById(1).toString());
+	}
+	
+	/**
+	 * Tests that compacting the journal writes a snapshot and empties the journal without losing any products.
+	 */
+	@Test
+	public void testCompact() {
+		ProductsJournal journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 3);
+		ArrayList<Product> products = journal.open();
+		products.add(new Product("Product"));
+		journal.recordAddProduct("Product");
+		products.get(0).addTask("title1", Type.BUG, "creator1", "note1");
+		journal.recordAddTask("Product", 1, "title1", Type.BUG, "creator1", "note1");
+		assertFalse(journal.needsCompaction());
+		products.add(new Product("Empty"));
+		journal.recordAddProduct("Empty");
+		assertTrue(journal.needsCompaction());
+		
+		journal.compact(products);
+		assertFalse(journal.needsCompaction());
+		assertEquals(1, ProductsReader.readProductsFile(SNAPSHOT_FILE).size());
+		products.get(0).addTask("title2", Type.FEATURE, "creator2", "note2");
+		journal.recordAddTask("Product", 2, "title2", Type.FEATURE, "creator2", "note2");
+		journal.close();
+		
+		products = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 3).open();
+		assertEquals(2, products.size());
+		assertEquals(2, products.get(0).getTasks().size());
+		assertEquals("Empty", products.get(1).getProductName());
+	}
+	
+	/**
+	 * Tests that the records of the old journal are not applied again when a compaction stops after the new snapshot is moved into place,
+	 * both when the new journal was not written and when it was written but not moved into place.
+	 * @throws IOException if the journal files cannot be copied
+	 */
+	@Test
+	public void testCompactInterrupted() throws IOException {
+		ProductsJournal journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100);
+		ArrayList<Product> products = journal.open();
+		products.add(new Product("Product"));
+		journal.recordAddProduct("Product");
+		products.get(0).addTask("title1", Type.BUG, "creator1", "note1");
+		journal.recordAddTask("Product", 1, "title1", Type.BUG, "creator1", "note1");
+		Command claim = new Command(CommandValue.CLAIM, "owner", "Claimed");
+		products.get(0).executeCommand(1, claim);
+		journal.recordCommand("Product", 1, claim);
+		Command process = new Command(CommandValue.PROCESS, "owner", "Processed");
+		products.get(0).executeCommand(1, process);
+		journal.recordCommand("Product", 1, process);
+		products.add(new Product("Empty"));
+		journal.recordAddProduct("Empty");
+		journal.flush();
+		byte[] oldJournal = Files.readAllBytes(Paths.get(JOURNAL_FILE));
+		journal.compact(products);
+		journal.close();
+		
+		Files.move(Paths.get(JOURNAL_FILE), Paths.get(JOURNAL_FILE + ".tmp"), StandardCopyOption.REPLACE_EXISTING);
+		Files.write(Paths.get(JOURNAL_FILE), oldJournal);
+		journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100);
+		products = journal.open();
+		journal.close();
+		assertFalse(new File(JOURNAL_FILE + ".tmp").exists());
+		assertEquals(2, products.size());
+		assertEquals("Empty", products.get(1).getProductName());
+		assertEquals(3, products.get(0).getTaskById(1).getNoteCount());
+		
+		Files.write(Paths.get(JOURNAL_FILE), oldJournal);
+		journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100);
+		products = journal.open();
+		products.get(0).addTask("title2", Type.FEATURE, "creator2", "note2");
+		journal.recordAddTask("Product", 2, "title2", Type.FEATURE, "creator2", "note2");
+		journal.close();
+		assertEquals(1, products.size());
+		assertEquals(3, products.get(0).getTaskById(1).getNoteCount());
+		
+		products = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100).open();
+		assertEquals(2, products.get(0).getTasks().size());
+		assertEquals(3, products.get(0).getTaskById(1).getNoteCount());
+	}
+	
+	/**
+	 * Tests that a record at the end of the journal that was only partly written is not replayed, even when it has the right number of fields,
+	 * and that it is removed so records written after the journal is opened again are not joined to it.
+	 * @throws IOException if the journal cannot be written
+	 */
+	@Test
+	public void testReplayPartialRecord() throws IOException {
+		ProductsJournal journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100);
+		journal.open();
+		journal.recordAddProduct("Product");
+		journal.recordAddTask("Product", 1, "title1", Type.BUG, "creator1", "note1");
+		journal.close();
+		Files.write(Paths.get(JOURNAL_FILE), "A\tProduct\t2\ttitle2\tBUG\tcreator2\tno".getBytes(), StandardOpenOption.APPEND);
+		
+		journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100);
+		ArrayList<Product> products = journal.open();
+		assertEquals(1, products.get(0).getTasks().size());
+		journal.recordAddTask("Product", 2, "title2", Type.FEATURE, "creator2", "note2");
+		journal.close();
+		
+		products = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100).open();
+		assertEquals(2, products.get(0).getTasks().size());
+		assertEquals("note2", products.get(0).getTaskById(2).getNote(0).substring("[Backlog] ".length()));
+	}
+	
+	/**
+	 * Tests that a record for a name that two products in the snapshot share is replayed on the last of them,
+	 * the same product BacklogManager finds by that name.
+	 */
+	@Test
+	public void testReplayDuplicateName() {
+		ArrayList<Product> products = new ArrayList<Product>();
+		products.add(new Product("Product"));
+		products.get(0).addTask("title1", Type.BUG, "creator1", "note1");
+		products.add(new Product("Product"));
+		products.get(1).addTask("title2", Type.FEATURE, "creator2", "note2");
+		ProductsWriter.writeProductsToFile(SNAPSHOT_FILE, products);
+		
+		ProductsJournal journal = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100);
+		journal.open();
+		journal.recordAddTask("Product", 2, "title3", Type.KNOWLEDGE_ACQUISITION, "creator3", "note3");
+		journal.close();
+		
+		products = new ProductsJournal(SNAPSHOT_FILE, JOURNAL_FILE, 1, 100).open();
+		assertEquals(2, products.size());
+		assertEquals(1, products.get(0).getTasks().size());
+		assertEquals(2, products.get(1).getTasks().size());
+		assertEquals("title3", products.get(1).getTaskById(2).getTitle());
+	}
+}
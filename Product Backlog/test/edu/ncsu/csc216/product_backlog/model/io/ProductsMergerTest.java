@@ -0,0 +1,181 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.io.ProductsMerger.ConflictPolicy;
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Tests the ProductsMerger class.
+ * @author Daniel Avisse
+ *
+ */
+class ProductsMergerTest {
+	
+	/** First file that is merged **/
+	private static final String FIRST = "test-files/actual_merge_first.txt";
+	
+	/** Second file that is merged **/
+	private static final String SECOND = "test-files/actual_merge_second.txt";
+	
+	/** Merged file **/
+	private static final String MERGED = "test-files/actual_merged.txt";
+	
+	/** Files that are merged **/
+	private static final List<String> INPUTS = Arrays.asList(FIRST, SECOND);
+	
+	/**
+	 * Writes the two files that are merged. Both have a product named Shared with a task 2 in each.
+	 * @throws FileNotFoundException if a file cannot be written
+	 */
+	@BeforeEach
+	public void setUp() throws FileNotFoundException {
+		writeFile(FIRST, "# Shared", "* 1,Backlog,first1,B,creator1,unowned,false", "- [Backlog] note1",
+				"* 2,Backlog,first2,F,creator2,unowned,false", "- [Backlog] note2",
+				"# Zeta", "* 1,Backlog,zeta1,B,creator1,unowned,false", "- [Backlog] note1");
+		writeFile(SECOND, "# Alpha", "* 5,Backlog,alpha5,KA,creator5,unowned,false", "- [Backlog] note5",
+				"# Shared", "* 2,Backlog,second2,TW,creator2,unowned,false", "- [Backlog] note2",
+				"* 3,Backlog,second3,B,creator3,unowned,false", "- [Backlog] note3");
+	}
+	
+	/**
+	 * Deletes the files after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(FIRST).delete();
+		new File(SECOND).delete();
+		new File(MERGED).delete();
+		new File(MERGED + ".tmp").delete();
+	}
+	
+	/**
+	 * Tests that products with the same name are merged in order of their names and the first of two tasks with the same id is kept.
+	 */
+	@Test
+	public void testMergeKeepFirst() {
+		ProductsMerger.mergeProductsFiles(INPUTS, MERGED, ConflictPolicy.KEEP_FIRST);
+		ArrayList<Product> products = ProductsReader.readProductsFile(MERGED);
+		assertEquals(3, products.size());
+		assertEquals("Alpha", products.get(0).getProductName());
+		assertEquals("Shared", products.get(1).getProductName());
+		assertEquals("Zeta", products.get(2).getProductName());
+		
+		Product shared = products.get(1);
+		assertEquals(3, shared.getTasks().size());
+		assertEquals("first1", shared.getTaskById(1).getTitle());
+		assertEquals("first2", shared.getTaskById(2).getTitle());
+		assertEquals("second3", shared.getTaskById(3).getTitle());
+		assertEquals("alpha5", products.get(0).getTaskById(5).getTitle());
+	}
+	
+	/**
+	 * Tests that the last of two tasks with the same id is kept.
+	 */
+	@Test
+	public void testMergeKeepLast() {
+		ProductsMerger.mergeProductsFiles(INPUTS, MERGED, ConflictPolicy.KEEP_LAST);
+		Product shared = ProductsReader.readProductsFile(MERGED).get(1);
+		assertEquals(3, shared.getTasks().size());
+		assertEquals("second2", shared.getTaskById(2).getTitle());
+	}
+	
+	/**
+	 * Tests that the second of two tasks with the same id is given a new id after the largest id.
+	 */
+	@Test
+	public void testMergeRenumber() {
+		ProductsMerger.mergeProductsFiles(INPUTS, MERGED, ConflictPolicy.RENUMBER);
+		Product shared = ProductsReader.readProductsFile(MERGED).get(1);
+		assertEquals(4, shared.getTasks().size());
+		assertEquals("first2", shared.getTaskById(2).getTitle());
+		assertEquals("second2", shared.getTaskById(4).getTitle());
+		assertEquals("[Backlog] note2", shared.getTaskById(4).getNotes().get(0));
+	}
+	
+	/**
+	 * Tests that the merge fails on two tasks with the same id and that the merged file is not written.
+	 */
+	@Test
+	public void testMergeFail() {
+		assertThrows(IllegalArgumentException.class, () -> ProductsMerger.mergeProductsFiles(INPUTS, MERGED, ConflictPolicy.FAIL));
+		assertFalse(new File(MERGED).exists());
+		
+		ProductsMerger.mergeProductsFiles(Arrays.asList(FIRST), MERGED, ConflictPolicy.FAIL);
+		assertEquals(2, ProductsReader.readProductsFile(MERGED).size());
+	}
+	
+	/**
+	 * Tests that a file that does not exist cannot be merged.
+	 */
+	@Test
+	public void testMergeMissingFile() {
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> ProductsMerger.mergeProductsFiles(Arrays.asList(FIRST, "test-files/no_such_file.txt"), MERGED, ConflictPolicy.KEEP_FIRST));
+		assertEquals("Unable to load file.", e.getMessage());
+	}
+	
+	/**
+	 * Tests that the products of a section that holds more than one product, because a product line follows a line with only a #,
+	 * are each merged in order of their own names.
+	 * @throws FileNotFoundException if a file cannot be written
+	 */
+	@Test
+	public void testMergeSectionWithSeveralProducts() throws FileNotFoundException {
+		writeFile(FIRST, "# Shared", "* 1,Backlog,first1,B,creator1,unowned,false", "- [Backlog] note1",
+				"#", "# Beta", "* 1,Backlog,beta1,B,creator1,unowned,false", "- [Backlog] note1");
+		assertEquals(1, ProductsReader.readProductSections(FIRST).size());
+		ProductsMerger.mergeProductsFiles(INPUTS, MERGED, ConflictPolicy.KEEP_FIRST);
+		ArrayList<Product> products = ProductsReader.readProductsFile(MERGED);
+		assertEquals(3, products.size());
+		assertEquals("Alpha", products.get(0).getProductName());
+		assertEquals("Beta", products.get(1).getProductName());
+		assertEquals("Shared", products.get(2).getProductName());
+		assertEquals("beta1", products.get(1).getTaskById(1).getTitle());
+		assertEquals(3, products.get(2).getTasks().size());
+	}
+	
+	/**
+	 * Tests that a gzip compressed file cannot be merged and that the merged file is not written.
+	 */
+	@Test
+	public void testMergeCompressedFile() {
+		String compressed = "test-files/actual_merge_compressed.txt" + ProductsWriter.COMPRESSED_EXTENSION;
+		try {
+			ProductsWriter.writeProductsToFile(compressed, ProductsReader.readProductsFile(FIRST));
+			assertTrue(ProductsReader.isCompressedFile(compressed));
+			Exception e = assertThrows(IllegalArgumentException.class,
+					() -> ProductsMerger.mergeProductsFiles(Arrays.asList(compressed, SECOND), MERGED, ConflictPolicy.KEEP_FIRST));
+			assertEquals("Unable to read file.", e.getMessage());
+			assertFalse(new File(MERGED).exists());
+		}
+		finally {
+			new File(compressed).delete();
+		}
+	}
+	
+	/**
+	 * Helper method that writes lines to a file.
+	 * @param fileName Name of the file
+	 * @param lines Lines of the file
+	 * @throws FileNotFoundException if the file cannot be written
+	 */
+	private static void writeFile(String fileName, String... lines) throws FileNotFoundException {
+		try (PrintStream out = new PrintStream(fileName)) {
+			for (int i = 0; i < lines.length; i++) {
+				out.println(lines[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Tests the ProductsParser class.
+ * @author Daniel Avisse
+ */
+class ProductsParserTest {
+	
+	/**
+	 * Tests that valid lines are loaded and invalid lines are rejected with their line numbers and reasons.
+	 */
+	@Test
+	public void testParse() {
+		ArrayList<RejectedLine> rejected = new ArrayList<RejectedLine>();
+		ArrayList<Product> products = parse(rejected,
+				"# Product",
+				"* 1,Backlog,Title,F,creator,unowned,false",
+				"- [Backlog] note",
+				"more of the note",
+				"* x,Backlog,Title,F,creator,unowned,false",
+				"* 2,Backlog,Title,F,creator,owner,false",
+				"* 3,Done,Title,F,creator,owner,false",
+				"* 1,Backlog,Duplicate,F,creator,unowned,false",
+				"- [Backlog] note of duplicate",
+				"#",
+				"",
+				"% not a line");
+		assertEquals(1, products.size());
+		assertEquals(1, products.get(0).getTasks().size());
+		assertEquals("[Backlog] note\nmore of the note", products.get(0).getTaskById(1).getNotes().get(0));
+		
+		assertEquals(7, rejected.size());
+		assertEquals(5, rejected.get(0).getLineNumber());
+		assertEquals("Task id is not a number.", rejected.get(0).getReason());
+		assertEquals("Invalid task owner.", rejected.get(1).getReason());
+		assertEquals("Invalid task verified value.", rejected.get(2).getReason());
+		assertEquals(8, rejected.get(3).getLineNumber());
+		assertEquals("Task id is the same as another task in the product.", rejected.get(3).getReason());
+		assertEquals("* 1,Backlog,Duplicate,F,creator,unowned,false", rejected.get(3).getLine());
+		assertEquals(9, rejected.get(4).getLineNumber());
+		assertEquals("Note is not for a valid task.", rejected.get(4).getReason());
+		assertEquals("Product name is empty.", rejected.get(5).getReason());
+		assertEquals("Line 12: Line is not a product, task or note that can be read here.", rejected.get(6).toString());
+	}
+	
+	/**
+	 * Tests that the line after a product or task line is only read as a task or note, the same way the reader always has.
+	 */
+	@Test
+	public void testLineAfterProductOrTask() {
+		ArrayList<RejectedLine> rejected = new ArrayList<RejectedLine>();
+		ArrayList<Product> products = parse(rejected,
+				"# First",
+				"# Second",
+				"* 1,Backlog,Title,F,creator,unowned,false",
+				"* 2,Backlog,Title,F,creator,unowned,false",
+				"- [Backlog] note",
+				"* 3,Backlog,Title,F,creator,unowned,false");
+		assertEquals(1, products.size());
+		assertEquals("First", products.get(0).getProductName());
+		assertEquals(2, rejected.get(0).getLineNumber());
+		assertEquals(4, rejected.get(1).getLineNumber());
+		assertEquals(6, rejected.get(2).getLineNumber());
+		assertEquals("Task does not have any notes.", rejected.get(2).getReason());
+		
+		//Not recording rejected lines gives the same products
+		assertEquals(products.get(0).getTasks().size(), parse(null, "# First", "# Second", "* 1,Backlog,Title,F,creator,unowned,false",
+				"* 2,Backlog,Title,F,creator,unowned,false", "- [Backlog] note").get(0).getTasks().size());
+	}
+	
+	/**
+	 * Helper method that parses the given lines.
+	 * @param rejected ArrayList the rejected lines are added to, or null
+	 * @param lines Lines that are parsed
+	 * @return the products that were parsed
+	 */
+	private ArrayList<Product> parse(ArrayList<RejectedLine> rejected, String... lines) {
+		Iterator<String> iterator = List.of(lines).iterator();
+		try {
+			return new ProductsParser(() -> iterator.hasNext() ? iterator.next() : null, rejected).parse();
+		}
+		catch (IOException e) {
+			fail("Unexpected IOException");
+			return null;
+		}
+	}
+}
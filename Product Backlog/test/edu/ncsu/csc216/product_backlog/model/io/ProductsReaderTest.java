@@ -3,8 +3,21 @@ package edu.ncsu.csc216.product_backlog.model.io;
 import static org.junit.jupiter.api.Assertions.*;
 
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.zip.GZIPOutputStream;
+
 import org.junit.jupiter.api.Test;
 
+import edu.ncsu.csc216.product_backlog.model.product.ColumnarTaskStore;
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
 /**
  * Tests the ProductsReader class.
  * Will test different valid and invalid files to see if the reader can read the valid ones properly and ignore the invalid ones.
@@ -57,4 +70,222 @@ class ProductsReaderTest {
 		assertEquals(0, ProductsReader.readProductsFile("test-files/tasks24.txt").size());
 		assertEquals(0, ProductsReader.readProductsFile("test-files/tasks25.txt").size());	
 	}
+	
+	/**
+	 * Tests that the readProductsFromFile method keeps the tasks and notes in the same order as the file, including notes that span multiple lines.
+	 */
+	@Test
+	public void testReadProductsFromFileContents() {
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/tasks1.txt");
+		assertEquals("Shopping Cart Simulation", products.get(0).getProductName());
+		assertEquals("WolfScheduler", products.get(1).getProductName());
+		assertEquals(6, products.get(0).getTasks().size());
+		assertEquals(5, products.get(0).getTaskById(8).getNotes().size());
+		assertEquals("[Backlog] Special carts always choose the shortest special register line.\nIf there are multiple shortest special register lines, a special cart"
+				+ "\nchooses one with the smallest index.", products.get(0).getTaskById(8).getNotes().get(0));
+		assertEquals("[Done] No problems found during inspection.", products.get(0).getTaskById(8).getNotes().get(4));
+	}
+	
+	/**
+	 * Tests the readProductsFileMapped method to see if it returns the same products as readProductsFile for every file in test-files.
+	 */
+	@Test
+	public void testReadProductsFileMapped() {
+		assertThrows(IllegalArgumentException.class, () -> ProductsReader.readProductsFileMapped("test-files/tasks0.txt"));
+		File[] files = new File("test-files").listFiles();
+		for (int i = 0; i < files.length; i++) {
+			String fileName = files[i].getPath();
+			assertProductsEqual(ProductsReader.readProductsFile(fileName), ProductsReader.readProductsFileMapped(fileName));
+		}
+	}
+	
+	/**
+	 * Tests the readProductsFileParallel method to see if it returns the same products as readProductsFile for every file in test-files.
+	 */
+	@Test
+	public void testReadProductsFileParallel() {
+		assertThrows(IllegalArgumentException.class, () -> ProductsReader.readProductsFileParallel("test-files/tasks0.txt"));
+		File[] files = new File("test-files").listFiles();
+		for (int i = 0; i < files.length; i++) {
+			String fileName = files[i].getPath();
+			assertProductsEqual(ProductsReader.readProductsFile(fileName), ProductsReader.readProductsFileParallel(fileName));
+		}
+	}
+	
+	/**
+	 * Tests the readProductSections and readProductSection methods to see if reading every section gives the same products as readProductsFile.
+	 */
+	@Test
+	public void testReadProductSections() {
+		assertThrows(IllegalArgumentException.class, () -> ProductsReader.readProductSections("test-files/tasks0.txt"));
+		ArrayList<ProductSection> sections = ProductsReader.readProductSections("test-files/tasks1.txt");
+		assertEquals(2, sections.size());
+		assertEquals("Shopping Cart Simulation", sections.get(0).getProductName());
+		assertEquals("WolfScheduler", sections.get(1).getProductName());
+		assertEquals(0, sections.get(0).getStart());
+		assertEquals(sections.get(0).getEnd(), sections.get(1).getStart());
+		
+		File[] files = new File("test-files").listFiles();
+		for (int i = 0; i < files.length; i++) {
+			String fileName = files[i].getPath();
+			ArrayList<Product> products = new ArrayList<Product>();
+			sections = ProductsReader.readProductSections(fileName);
+			for (int j = 0; j < sections.size(); j++) {
+				products.addAll(ProductsReader.readProductSection(fileName, sections.get(j)));
+			}
+			assertProductsEqual(ProductsReader.readProductsFile(fileName), products);
+		}
+	}
+	
+	/**
+	 * Tests the readProductsFileWithReport method to see if it loads the same products and reports the lines that were not loaded.
+	 */
+	@Test
+	public void testReadProductsFileWithReport() {
+		ArrayList<RejectedLine> rejected = new ArrayList<RejectedLine>();
+		assertProductsEqual(ProductsReader.readProductsFile("test-files/tasks1.txt"), ProductsReader.readProductsFileWithReport("test-files/tasks1.txt", rejected));
+		assertTrue(rejected.isEmpty());
+		
+		//A task with an invalid state is rejected and its product is removed
+		assertEquals(0, ProductsReader.readProductsFileWithReport("test-files/tasks5.txt", rejected).size());
+		assertEquals(2, rejected.get(0).getLineNumber());
+		assertEquals("Invalid task state.", rejected.get(0).getReason());
+		assertEquals("Product does not have any tasks with notes.", rejected.get(rejected.size() - 1).getReason());
+		assertEquals(1, rejected.get(rejected.size() - 1).getLineNumber());
+		
+		assertThrows(IllegalArgumentException.class, () -> ProductsReader.readProductsFileWithReport("test-files/tasks0.txt", rejected));
+	}
+	
+	/**
+	 * Tests that a gzip compressed file is found by its first bytes and read the same way by every method that reads a whole file.
+	 */
+	@Test
+	public void testReadCompressedFile() {
+		String fileName = "test-files/actual_compressed_tasks.txt";
+		try {
+			try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(fileName))) {
+				out.write(Files.readAllBytes(Paths.get("test-files/tasks1.txt")));
+			}
+			catch (IOException e) {
+				fail("Unable to write compressed file.");
+			}
+			assertTrue(ProductsReader.isCompressedFile(fileName));
+			assertFalse(ProductsReader.isCompressedFile("test-files/tasks1.txt"));
+			assertFalse(ProductsReader.isCompressedFile("test-files/missing.txt"));
+			
+			ArrayList<Product> expected = ProductsReader.readProductsFile("test-files/tasks1.txt");
+			assertProductsEqual(expected, ProductsReader.readProductsFile(fileName));
+			assertProductsEqual(expected, ProductsReader.readProductsFileMapped(fileName));
+			assertProductsEqual(expected, ProductsReader.readProductsFileParallel(fileName));
+			ArrayList<RejectedLine> rejected = new ArrayList<RejectedLine>();
+			assertProductsEqual(expected, ProductsReader.readProductsFileWithReport(fileName, rejected));
+			assertTrue(rejected.isEmpty());
+			
+			//A compressed file has no sections
+			HashMap<Product, ProductSection> sections = new HashMap<Product, ProductSection>();
+			assertProductsEqual(expected, ProductsReader.readProductsFile(fileName, sections));
+			assertTrue(sections.isEmpty());
+			assertThrows(IllegalArgumentException.class, () -> ProductsReader.readProductSections(fileName));
+		}
+		finally {
+			new File(fileName).delete();
+		}
+	}
+	
+	/**
+	 * Tests that the cache is only used when it is asked for, and that reading the sections of a file again uses the cache
+	 * only for the sections that did not change.
+	 */
+	@Test
+	public void testReadProductsFileCached() {
+		String fileName = "test-files/actual_cached_tasks.txt";
+		try {
+			ProductsWriter.writeProductsToFile(fileName, ProductsReader.readProductsFile("test-files/exp_task_backlog.txt"));
+			ProductsReader.CACHE.clear();
+			ProductsReader.readProductsFile(fileName, new HashMap<Product, ProductSection>());
+			ProductsReader.readProductSection(fileName, ProductsReader.readProductSections(fileName).get(0));
+			assertEquals(0, ProductsReader.CACHE.getMisses());
+			assertEquals(0, ProductsReader.CACHE.getBytes());
+			
+			ArrayList<Product> first = ProductsReader.readProductsFile(fileName, new HashMap<Product, ProductSection>(), true);
+			assertEquals(0, ProductsReader.CACHE.getHits());
+			assertEquals(new File(fileName).length(), ProductsReader.CACHE.getBytes());
+			
+			//Products read from the cache are copies that are the same as reading the file
+			first.get(0).addTask("title4", Type.BUG, "creator4", "note4");
+			ArrayList<Product> second = ProductsReader.readProductsFile(fileName, new HashMap<Product, ProductSection>(), true);
+			assertEquals(first.size(), ProductsReader.CACHE.getHits());
+			assertProductsEqual(ProductsReader.readProductsFile(fileName), second);
+			assertFalse(second.get(0).isDirty());
+			
+			//Only the product that changed is parsed again
+			ProductsWriter.writeProductsToFile(fileName, first);
+			int hits = ProductsReader.CACHE.getHits();
+			ArrayList<Product> third = ProductsReader.readProductsFile(fileName, new HashMap<Product, ProductSection>(), true);
+			assertEquals(hits + first.size() - 1, ProductsReader.CACHE.getHits());
+			assertEquals("title4", third.get(0).getTaskById(4).getTitle());
+			assertEquals(third.get(0).getTasks().size(), ProductsReader.readProductSection(fileName,
+					ProductsReader.readProductSections(fileName).get(0), true).get(0).getTasks().size());
+			assertEquals(hits + first.size(), ProductsReader.CACHE.getHits());
+			
+			//A cache that is set smaller than the file only keeps the sections that fit
+			ProductsReader.setSectionCacheSize(new File(fileName).length() - 1);
+			assertTrue(ProductsReader.CACHE.getBytes() < new File(fileName).length());
+			ProductsReader.setSectionCacheSize(0);
+			ProductsReader.readProductsFile(fileName, new HashMap<Product, ProductSection>(), true);
+			assertEquals(0, ProductsReader.CACHE.getBytes());
+			assertThrows(IllegalArgumentException.class, () -> ProductsReader.setSectionCacheSize(-1));
+		}
+		finally {
+			ProductsReader.setSectionCacheSize(ProductsReader.DEFAULT_CACHE_BYTES);
+			new File(fileName).delete();
+		}
+	}
+	
+	/**
+	 * Tests that the products read by every reader keep their tasks in the stores made by the factory that is set,
+	 * and that clearing the factory goes back to the default store.
+	 */
+	@Test
+	public void testReadProductsWithTaskStoreFactory() {
+		ArrayList<ColumnarTaskStore> stores = new ArrayList<ColumnarTaskStore>();
+		ProductsReader.setTaskStoreFactory(() -> {
+			ColumnarTaskStore store = new ColumnarTaskStore(8);
+			stores.add(store);
+			return store;
+		});
+		try {
+			ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt");
+			assertProductsEqual(products, ProductsReader.readProductsFileMapped("test-files/exp_task_backlog.txt"));
+			assertEquals(2 * products.size(), stores.size());
+			assertEquals(products.get(0).getTasks().size(), stores.get(0).size());
+			assertEquals(products.get(0).getTaskById(stores.get(0).getId(0)).getTitle(), stores.get(0).get(0).getTitle());
+			
+			Product copy = products.get(0).snapshot();
+			products.get(0).deleteTaskById(stores.get(0).getId(0));
+			assertEquals(products.get(0).getTasks().size() + 1, copy.getTasks().size());
+		}
+		finally {
+			ProductsReader.setTaskStoreFactory(null);
+		}
+		stores.clear();
+		ProductsReader.readProductsFile("test-files/exp_task_backlog.txt");
+		assertTrue(stores.isEmpty());
+	}
+	
+	/**
+	 * Helper method that checks that two ArrayLists of products have the same products, tasks and notes.
+	 * @param expected expected products
+	 * @param actual actual products
+	 */
+	private void assertProductsEqual(ArrayList<Product> expected, ArrayList<Product> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getProductName(), actual.get(i).getProductName());
+			assertEquals(expected.get(i).getTasks().size(), actual.get(i).getTasks().size());
+			for (int j = 0; j < expected.get(i).getTasks().size(); j++) {
+				assertEquals(expected.get(i).getTasks().get(j).toString(), actual.get(i).getTasks().get(j).toString());
+			}
+		}
+	}
 }
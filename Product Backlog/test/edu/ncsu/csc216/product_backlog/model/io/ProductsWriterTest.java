@@ -4,9 +4,12 @@ package edu.ncsu.csc216.product_backlog.model.io;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 
@@ -58,6 +61,88 @@ class ProductsWriterTest {
 		checkFiles("test-files/exp_task_backlog.txt", "test-files/actual_product_records.txt");
 	}
 	
+	/**
+	 * Tests the writeProductsToFile method that copies unchanged products to see if it writes the same file as writing every product.
+	 */
+	@Test
+	public void testWriteProductsToFileIncremental() {
+		//Read the expected backlog and the sections of each product
+		HashMap<Product, ProductSection> sections = new HashMap<Product, ProductSection>();
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt", sections);
+		assertEquals(products.size(), sections.size());
+		assertFalse(products.get(0).isDirty());
+		
+		//Writing without any changes copies every product and gives the same file
+		HashMap<Product, ProductSection> written = ProductsWriter.writeProductsToFile("test-files/actual_product_records.txt", products,
+				"test-files/exp_task_backlog.txt", sections);
+		assertEquals(products.size(), written.size());
+		checkFiles("test-files/exp_task_backlog.txt", "test-files/actual_product_records.txt");
+		
+		//Change one product and write over the same file that is being copied from
+		products.get(0).addTask("title4", Type.BUG, "creator4", "note4");
+		written = ProductsWriter.writeProductsToFile("test-files/actual_product_records.txt", products,
+				"test-files/actual_product_records.txt", written);
+		assertFalse(new File("test-files/actual_product_records.txt.tmp").exists());
+		ArrayList<Product> reread = ProductsReader.readProductsFile("test-files/actual_product_records.txt");
+		assertEquals(products.size(), reread.size());
+		assertEquals(4, reread.get(0).getTasks().size());
+		assertEquals("title4", reread.get(0).getTaskById(4).getTitle());
+		assertEquals(products.get(1).getTasks().size(), reread.get(1).getTasks().size());
+		
+		//Write the original products again so the file matches the expected output
+		products.get(0).deleteTaskById(4);
+		ProductsWriter.writeProductsToFile("test-files/actual_product_records.txt", products, "test-files/actual_product_records.txt", written);
+		checkFiles("test-files/exp_task_backlog.txt", "test-files/actual_product_records.txt");
+	}
+	
+	/**
+	 * Tests the writeProductsToFile methods to see if a file whose name ends with .gz is written gzip compressed with the same contents.
+	 */
+	@Test
+	public void testWriteProductsToFileCompressed() {
+		String fileName = "test-files/actual_product_records.txt.gz";
+		HashMap<Product, ProductSection> sections = new HashMap<Product, ProductSection>();
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt", sections);
+		assertTrue(ProductsWriter.isCompressedFileName(fileName));
+		assertFalse(ProductsWriter.isCompressedFileName("test-files/exp_task_backlog.txt"));
+		try {
+			ProductsWriter.writeProductsToFile(fileName, products);
+			assertTrue(ProductsReader.isCompressedFile(fileName));
+			checkCompressedFile("test-files/exp_task_backlog.txt", fileName);
+			
+			//Unchanged products are copied from the previous file into the compressed file, which has no sections
+			products.get(1).addTask("title4", Type.BUG, "creator4", "note4");
+			HashMap<Product, ProductSection> written = ProductsWriter.writeProductsToFile(fileName, products, "test-files/exp_task_backlog.txt", sections);
+			assertTrue(written.isEmpty());
+			assertFalse(new File(fileName + ".tmp").exists());
+			ArrayList<Product> reread = ProductsReader.readProductsFile(fileName);
+			assertEquals(products.size(), reread.size());
+			assertEquals(products.get(0).getTasks().size(), reread.get(0).getTasks().size());
+			assertEquals("title4", reread.get(1).getTaskById(products.get(1).getTasks().size()).getTitle());
+		}
+		finally {
+			new File(fileName).delete();
+		}
+	}
+	
+	/**
+	 * Helper method to compare a file with a gzip compressed file for the same contents
+	 * @param expFile expected output
+	 * @param actFile actual output, which is gzip compressed
+	 */
+	private void checkCompressedFile(String expFile, String actFile) {
+		try (Scanner expScanner = new Scanner(new File(expFile));
+			 Scanner actScanner = new Scanner(new GZIPInputStream(new FileInputStream(actFile)));) {
+			
+			while (expScanner.hasNextLine()) {
+				assertEquals(expScanner.nextLine(), actScanner.nextLine());
+			}
+			assertFalse(actScanner.hasNextLine());
+		} catch (IOException e) {
+			fail("Error reading files.");
+		}
+	}
+	
 	/**
 	 * Helper method to compare two files for the same contents
 	 * @param expFile expected output
@@ -77,5 +162,18 @@ class ProductsWriterTest {
 			fail("Error reading files.");
 		}
 	}
-
+	
+	/**
+	 * Tests that a write that fails after the file is opened is reported instead of being hidden by the PrintStream.
+	 * The test only runs where /dev/full exists, which opens but fails every write.
+	 */
+	@Test
+	public void testWriteProductsToFileFails() {
+		if (!new File("/dev/full").exists()) {
+			return;
+		}
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt");
+		Exception e = assertThrows(IllegalArgumentException.class, () -> ProductsWriter.writeProductsToFile("/dev/full", products));
+		assertEquals("Cannont save file", e.getMessage());
+	}
 }
@@ -0,0 +1,98 @@
+package edu.ncsu.csc216.product_backlog.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.product.Product;
+
+/**
+ * Tests the SessionSnapshot class.
+ * @author Daniel Avisse
+ *
+ */
+class SessionSnapshotTest {
+
+	/** Session file that is written **/
+	private static final String SESSION_FILE = "test-files/actual_session_snapshot.bin";
+
+	/**
+	 * Deletes the session file after each test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(SESSION_FILE).delete();
+		new File(SESSION_FILE + ".tmp").delete();
+	}
+
+	/**
+	 * Tests that a session file is read back with the same products, source file and current product.
+	 */
+	@Test
+	public void testWriteAndReadSessionFile() {
+		ArrayList<Product> products = ProductsReader.readProductsFile("test-files/exp_task_backlog.txt");
+		SessionSnapshot.writeSessionFile(SESSION_FILE, new SessionSnapshot("test-files/exp_task_backlog.txt", "A Product", products));
+		assertFalse(new File(SESSION_FILE + ".tmp").exists());
+
+		SessionSnapshot session = SessionSnapshot.readSessionFile(SESSION_FILE);
+		assertEquals("test-files/exp_task_backlog.txt", session.getSourceFileName());
+		assertEquals("A Product", session.getCurrentProductName());
+		assertEquals(products.size(), session.getProducts().size());
+		for (int i = 0; i < products.size(); i++) {
+			Product expected = products.get(i);
+			Product actual = session.getProducts().get(i);
+			assertEquals(expected.getProductName(), actual.getProductName());
+			assertEquals(expected.getTasks().size(), actual.getTasks().size());
+			for (int j = 0; j < expected.getTasks().size(); j++) {
+				assertEquals(expected.getTasks().get(j).toString(), actual.getTasks().get(j).toString());
+			}
+		}
+
+		SessionSnapshot.writeSessionFile(SESSION_FILE, new SessionSnapshot(null, null, new ArrayList<Product>()));
+		session = SessionSnapshot.readSessionFile(SESSION_FILE);
+		assertNull(session.getSourceFileName());
+		assertNull(session.getCurrentProductName());
+		assertEquals(0, session.getProducts().size());
+	}
+
+	/**
+	 * Tests that files that are missing or are not session files cannot be read.
+	 */
+	@Test
+	public void testReadInvalidSessionFile() {
+		Exception e = assertThrows(IllegalArgumentException.class, () -> SessionSnapshot.readSessionFile("test-files/missing_session.bin"));
+		assertEquals("Unable to load file.", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> SessionSnapshot.readSessionFile("test-files/exp_task_backlog.txt"));
+		assertEquals("Unable to read file.", e.getMessage());
+	}
+
+	/**
+	 * Tests that a session only matches its source file when the source exists and has exactly the modification time it had
+	 * when the session was written.
+	 */
+	@Test
+	public void testMatchesSource() {
+		SessionSnapshot.writeSessionFile(SESSION_FILE, new SessionSnapshot(null, null, new ArrayList<Product>()));
+		assertFalse(SessionSnapshot.readSessionFile(SESSION_FILE).matchesSource());
+		SessionSnapshot.writeSessionFile(SESSION_FILE, new SessionSnapshot("test-files/missing_source.txt", null, new ArrayList<Product>()));
+		assertFalse(SessionSnapshot.readSessionFile(SESSION_FILE).matchesSource());
+
+		File source = new File("test-files/exp_task_backlog.txt");
+		long sourceModified = source.lastModified();
+		try {
+			SessionSnapshot.writeSessionFile(SESSION_FILE, new SessionSnapshot(source.getPath(), null, new ArrayList<Product>()));
+			assertTrue(SessionSnapshot.readSessionFile(SESSION_FILE).matchesSource());
+			source.setLastModified(sourceModified + 1000);
+			assertFalse(SessionSnapshot.readSessionFile(SESSION_FILE).matchesSource());
+			source.setLastModified(sourceModified - 1000);
+			assertFalse(SessionSnapshot.readSessionFile(SESSION_FILE).matchesSource());
+		}
+		finally {
+			source.setLastModified(sourceModified);
+		}
+	}
+}
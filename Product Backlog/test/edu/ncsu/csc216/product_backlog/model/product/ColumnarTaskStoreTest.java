@@ -0,0 +1,137 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the ColumnarTaskStore class.
+ * @author Daniel Avisse
+ *
+ */
+class ColumnarTaskStoreTest {
+	
+	/**
+	 * Tests that tasks are added, made again from the columns, updated and removed.
+	 */
+	@Test
+	public void testColumnarTaskStore() {
+		ColumnarTaskStore store = new ColumnarTaskStore(1);
+		Task task3 = new Task(3, "title3", Type.BUG, "creator", "note3");
+		store.add(task3);
+		store.add(0, new Task(1, "title1", Type.FEATURE, "other", "note1"));
+		store.add(1, new Task(2, "title2", Type.KNOWLEDGE_ACQUISITION, "creator", "note2"));
+		assertEquals(3, store.size());
+		assertEquals(2, store.getId(1));
+		assertEquals(task3.toString(), store.getById(3).toString());
+		assertNotSame(task3, store.getById(3));
+		assertEquals("title1", store.asList().get(0).getTitle());
+		assertEquals(Type.KNOWLEDGE_ACQUISITION, store.get(1).getType());
+		assertNull(store.getById(4));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.get(3));
+		
+		//A change is only kept once the task is updated
+		Task task = store.getById(1);
+		task.update(new Command(CommandValue.CLAIM, "owner", "claimed"));
+		assertEquals(Task.BACKLOG_NAME, store.getById(1).getStateName());
+		store.update(task);
+		assertEquals(task.toString(), store.getById(1).toString());
+		assertEquals(1, store.countByState(Task.OWNED_NAME));
+		assertEquals(2, store.countByState(Task.BACKLOG_NAME));
+		assertEquals(1, store.countByOwner("owner"));
+		assertEquals(0, store.countByOwner("nobody"));
+		assertThrows(IllegalArgumentException.class, () -> store.update(new Task(9, "title", Type.BUG, "creator", "note")));
+		
+		assertEquals("title2", store.remove(1).getTitle());
+		assertEquals(2, store.size());
+		assertEquals(3, store.getId(1));
+		assertEquals("[Backlog] note3", store.get(1).getNotes().get(0));
+	}
+	
+	/**
+	 * Tests that the notes of every task are kept after many updates move them and the arena is compacted.
+	 */
+	@Test
+	public void testNotesAfterCompaction() {
+		ColumnarTaskStore store = new ColumnarTaskStore();
+		for (int i = 1; i <= 100; i++) {
+			store.add(new Task(i, "title", Type.BUG, "creator", "note" + i));
+		}
+		for (int n = 0; n < 30; n++) {
+			for (int i = 1; i <= 100; i++) {
+				Task task = store.getById(i);
+				task.addNoteToList("more" + n);
+				store.update(task);
+			}
+		}
+		for (int i = 1; i <= 100; i++) {
+			Task task = store.getById(i);
+			assertEquals(31, task.getNotes().size());
+			assertEquals("[Backlog] note" + i, task.getNotes().get(0));
+			assertEquals("[Backlog] more29", task.getNotes().get(30));
+		}
+	}
+	
+	/**
+	 * Tests that a Product keeps working with its tasks in a ColumnarTaskStore.
+	 */
+	@Test
+	public void testProductWithColumnarTaskStore() {
+		Product product = new Product("Product", new ColumnarTaskStore());
+		product.addTask("title", Type.BUG, "creator", "note");
+		product.addTask("other title", Type.FEATURE, "creator", "note");
+		product.executeCommand(2, new Command(CommandValue.CLAIM, "owner", "claimed"));
+		assertEquals(Task.OWNED_NAME, product.getTaskById(2).getStateName());
+		assertEquals(1, product.getTasksByOwner("owner").size());
+		assertEquals(2, product.searchTasks("claimed").get(0).getTaskId());
+		product.deleteTaskById(1);
+		assertEquals(1, product.getTasks().size());
+		
+		//A task from the store is a new task each time, and a change made to it directly is saved back to the store
+		product.getTaskById(2).addNoteToList("note added directly");
+		product.getTasks().get(0).appendToNote(2, " and appended");
+		assertEquals("[Owned] note added directly and appended", product.getTaskById(2).getNote(2));
+		product.getTaskById(2).update(new Command(CommandValue.PROCESS, null, "processing"));
+		assertEquals(Task.PROCESSING_NAME, product.getTaskById(2).getStateName());
+		assertEquals(1, product.getTasksByState(Task.PROCESSING_NAME).size());
+		assertThrows(UnsupportedOperationException.class, () -> product.getTasks().remove(0));
+	}
+	
+	/**
+	 * Tests that many tasks are merged into the columns, and that a snapshot has copies of the columns.
+	 */
+	@Test
+	public void testAddAllAndSnapshot() {
+		ColumnarTaskStore store = new ColumnarTaskStore(1);
+		store.add(new Task(2, "title2", Type.BUG, "creator", "note2"));
+		store.add(new Task(5, "title5", Type.BUG, "other", "note5"));
+		store.addAll(Arrays.asList(new Task(1, "title1", Type.FEATURE, "creator", "note1"),
+				new Task(3, "title3", Type.FEATURE, "creator", "note3"), new Task(7, "title7", Type.FEATURE, "creator", "note7")));
+		int[] ids = {1, 2, 3, 5, 7};
+		assertEquals(ids.length, store.size());
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], store.getId(i));
+			assertEquals("[Backlog] note" + ids[i], store.get(i).getNotes().get(0));
+		}
+		assertEquals("other", store.getById(5).getCreator());
+		
+		ColumnarTaskStore copy = store.snapshot();
+		Task task = store.getById(3);
+		task.update(new Command(CommandValue.CLAIM, "owner", "claimed"));
+		store.update(task);
+		store.remove(0);
+		assertEquals(4, store.size());
+		assertEquals(1, store.countByOwner("owner"));
+		assertEquals(5, copy.size());
+		assertEquals(0, copy.countByOwner("owner"));
+		assertEquals(Task.BACKLOG_NAME, copy.getById(3).getStateName());
+		assertEquals("title1", copy.get(0).getTitle());
+	}
+}
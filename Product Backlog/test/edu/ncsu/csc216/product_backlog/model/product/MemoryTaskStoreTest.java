@@ -0,0 +1,64 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the MemoryTaskStore class.
+ * @author Daniel Avisse
+ *
+ */
+class MemoryTaskStoreTest {
+	
+	/**
+	 * Tests that tasks are added, found and removed, and that the List of the store has the tasks but cannot be changed.
+	 */
+	@Test
+	public void testMemoryTaskStore() {
+		MemoryTaskStore store = new MemoryTaskStore();
+		Task task2 = new Task(2, "title2", Type.BUG, "creator", "note");
+		store.add(task2);
+		store.add(0, new Task(1, "title1", Type.BUG, "creator", "note"));
+		assertEquals(2, store.size());
+		assertEquals(1, store.getId(0));
+		assertSame(task2, store.getById(2));
+		assertSame(task2, store.get(1));
+		assertNull(store.getById(3));
+		store.update(task2);
+		assertSame(task2, store.asList().get(1));
+		assertThrows(UnsupportedOperationException.class, () -> store.asList().remove(0));
+		assertThrows(UnsupportedOperationException.class, () -> store.asList().add(new Task(3, "title3", Type.BUG, "creator", "note")));
+		assertEquals("title1", store.remove(0).getTitle());
+		assertEquals(1, store.asList().size());
+	}
+	
+	/**
+	 * Tests that many tasks are merged into the store, and that a snapshot has copies of the tasks.
+	 */
+	@Test
+	public void testAddAllAndSnapshot() {
+		MemoryTaskStore store = new MemoryTaskStore();
+		store.add(new Task(2, "title2", Type.BUG, "creator", "note"));
+		store.addAll(Arrays.asList(new Task(1, "title1", Type.BUG, "creator", "note"), new Task(3, "title3", Type.BUG, "creator", "note")));
+		store.addAll(Arrays.asList(new Task(4, "title4", Type.BUG, "creator", "note")));
+		assertEquals(4, store.size());
+		for (int i = 0; i < store.size(); i++) {
+			assertEquals(i + 1, store.getId(i));
+		}
+		assertEquals("title3", store.getById(3).getTitle());
+		
+		MemoryTaskStore copy = store.snapshot();
+		store.getById(1).addNoteToList("changed");
+		store.remove(3);
+		assertEquals(4, copy.size());
+		assertNotSame(store.get(0), copy.get(0));
+		assertEquals(1, copy.getById(1).getNotes().size());
+		assertEquals("title4", copy.getById(4).getTitle());
+	}
+}
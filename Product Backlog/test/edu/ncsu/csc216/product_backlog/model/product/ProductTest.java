@@ -2,6 +2,8 @@ package edu.ncsu.csc216.product_backlog.model.product;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.product_backlog.model.command.Command;
@@ -150,6 +152,89 @@ class ProductTest {
 		assertEquals(5, product.getTaskById(5).getTaskId());
 	}
 	
+	/**
+	 * Tests the addTasks method to see if many tasks are added in the order of their ids whether or not they arrive in order.
+	 */
+	@Test
+	public void testAddTasks() {
+		Product product = new Product(PRODUCT_NAME);
+		ArrayList<Task> inOrder = new ArrayList<Task>();
+		for (int i = 1; i <= 1000; i++) {
+			inOrder.add(new Task(i * 2, TITLE, TYPE, CREATOR, NOTE));
+		}
+		product.addTasks(inOrder);
+		assertEquals(1000, product.getTasks().size());
+		assertEquals(2000, product.getTasks().get(999).getTaskId());
+		
+		//Tasks out of order are merged in between the other tasks
+		ArrayList<Task> outOfOrder = new ArrayList<Task>();
+		outOfOrder.add(new Task(2001, TITLE, TYPE, CREATOR, NOTE));
+		outOfOrder.add(new Task(3, TITLE, TYPE, CREATOR, NOTE));
+		outOfOrder.add(new Task(1, TITLE, TYPE, CREATOR, NOTE));
+		product.addTasks(outOfOrder);
+		assertEquals(1003, product.getTasks().size());
+		for (int i = 1; i < product.getTasks().size(); i++) {
+			assertTrue(product.getTasks().get(i - 1).getTaskId() < product.getTasks().get(i).getTaskId());
+		}
+		assertEquals(1, product.getTasks().get(0).getTaskId());
+		assertEquals(3, product.getTasks().get(2).getTaskId());
+		assertNotNull(product.getTaskById(3));
+		assertEquals(2002, product.addTask(TITLE, TYPE, CREATOR, NOTE));
+		
+		//No task is added if one of them has the same id as another
+		ArrayList<Task> duplicate = new ArrayList<Task>();
+		duplicate.add(new Task(5, TITLE, TYPE, CREATOR, NOTE));
+		duplicate.add(new Task(4, TITLE, TYPE, CREATOR, NOTE));
+		assertThrows(IllegalArgumentException.class, () -> product.addTasks(duplicate));
+		assertEquals(1004, product.getTasks().size());
+		assertNull(product.getTaskById(5));
+		
+		//A task added in the middle keeps the tasks in order and the counter after the largest id
+		product.addTask(new Task(7, TITLE, TYPE, CREATOR, NOTE));
+		assertEquals(7, product.getTasks().get(5).getTaskId());
+		assertThrows(IllegalArgumentException.class, () -> product.addTask(new Task(7, TITLE, TYPE, CREATOR, NOTE)));
+		assertEquals(2003, product.addTask(TITLE, TYPE, CREATOR, NOTE));
+	}
+	
+	/**
+	 * Tests that tasks are found by state, type, owner and creator, and that the lookups follow tasks as they are added,
+	 * changed by commands and deleted.
+	 */
+	@Test
+	public void testGetTasksByAttributes() {
+		Product product = new Product(PRODUCT_NAME);
+		product.addTask(TITLE, Type.BUG, CREATOR, NOTE);
+		product.addTask(TITLE, Type.FEATURE, "Other", NOTE);
+		product.addTask(TITLE, Type.BUG, CREATOR, NOTE);
+		assertEquals(3, product.getTasksByState(Task.BACKLOG_NAME).size());
+		assertEquals(2, product.getTasksByType(Type.BUG).size());
+		assertEquals(1, product.getTasksByCreator("Other").size());
+		assertEquals(0, product.getTasksByOwner(CLAIMED_OWNER).size());
+		
+		//Tasks added and changed after the first lookup are found
+		product.addTask(TITLE, Type.BUG, CREATOR, NOTE);
+		product.executeCommand(3, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the task"));
+		product.executeCommand(1, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the task"));
+		assertEquals(3, product.getTasksByType(Type.BUG).size());
+		assertEquals(2, product.getTasksByState(Task.BACKLOG_NAME).size());
+		assertEquals(2, product.getTasksByState(Task.OWNED_NAME).size());
+		assertEquals(1, product.getTasksByOwner(CLAIMED_OWNER).get(0).getTaskId());
+		assertEquals(3, product.getTasksByOwner(CLAIMED_OWNER).get(1).getTaskId());
+		assertEquals(2, product.getTasksByStateAndOwner(Task.OWNED_NAME, CLAIMED_OWNER).size());
+		assertEquals(0, product.getTasksByStateAndOwner(Task.BACKLOG_NAME, CLAIMED_OWNER).size());
+		
+		//A command that is not valid leaves the task where it was
+		assertThrows(UnsupportedOperationException.class,
+				() -> product.executeCommand(2, new Command(CommandValue.VERIFY, null, "Verifying the task")));
+		assertEquals(2, product.getTasksByState(Task.BACKLOG_NAME).size());
+		
+		//Deleted tasks are no longer found
+		product.deleteTaskById(1);
+		assertEquals(1, product.getTasksByOwner(CLAIMED_OWNER).size());
+		assertEquals(2, product.getTasksByType(Type.BUG).size());
+		assertEquals(1, product.getTasksByStateAndOwner(Task.OWNED_NAME, CLAIMED_OWNER).size());
+	}
+	
 	/**
 	 * Test the getTaskById method to see if a task can be returned using it's Id.
 	 */
@@ -218,5 +303,193 @@ class ProductTest {
 		product.deleteTaskById(3);
 		assertEquals(1, product.getTasks().size());
 	}
+	
+	/**
+	 * Tests the isDirty and markClean methods to see if changes to a product are tracked.
+	 */
+	@Test
+	public void testIsDirty() {
+		//A new product has not been saved yet
+		Product product = new Product(PRODUCT_NAME);
+		assertTrue(product.isDirty());
+		product.markClean();
+		assertFalse(product.isDirty());
+		
+		//Adding a task makes the product dirty
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		assertTrue(product.isDirty());
+		product.markClean();
+		
+		//Deleting a task that does not exist does not make the product dirty
+		product.deleteTaskById(5);
+		assertFalse(product.isDirty());
+		product.deleteTaskById(1);
+		assertTrue(product.isDirty());
+		product.markClean();
+		
+		//Renaming the product makes it dirty
+		product.setProductName("New Name");
+		assertTrue(product.isDirty());
+	}
+	
+	/**
+	 * Tests that tasks are found by the words in their titles and notes, and by phrases, as tasks are added, changed and deleted.
+	 */
+	@Test
+	public void testSearchTasks() {
+		Product product = new Product(PRODUCT_NAME);
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		product.addTask("Triple Basket Shopping Carts", TYPE, CREATOR, "Allows for more space than a Double Basket.");
+		product.addTask("Tiny Shopping Carts", TYPE, CREATOR, "Smaller shopping carts.");
+		assertEquals(3, product.searchTasks("shopping CARTS").size());
+		assertEquals(2, product.searchTasks("double basket").size());
+		assertEquals(0, product.searchTasks("wagon").size());
+		assertEquals(0, product.searchTasks("").size());
+		
+		//A phrase must have its words next to each other in the title or in one note
+		assertEquals(1, product.searchPhrase("double basket shopping").size());
+		assertEquals(2, product.searchPhrase("Double Basket").size());
+		assertEquals(0, product.searchPhrase("basket double").size());
+		
+		//Notes added by commands and tasks added after the first search are found
+		product.executeCommand(3, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the wagon"));
+		product.addTask("Wagon", TYPE, CREATOR, NOTE);
+		assertEquals(3, product.searchTasks("wagon").get(0).getTaskId());
+		assertEquals(4, product.searchTasks("wagon").get(1).getTaskId());
+		assertEquals(1, product.searchPhrase("claiming the wagon").size());
+		
+		//Deleted tasks are no longer found
+		product.deleteTaskById(1);
+		assertEquals(2, product.searchPhrase("double basket").size());
+		assertEquals(2, product.searchTasks("double basket").get(0).getTaskId());
+	}
+	
+	/**
+	 * Tests that notes added to a task directly, and not with executeCommand, are indexed and make the product dirty,
+	 * and that nothing of the task is left in the indexes once it is deleted.
+	 */
+	@Test
+	public void testChangeTaskDirectly() {
+		Product product = new Product(PRODUCT_NAME);
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		product.addTask("Wagon", TYPE, CREATOR, NOTE);
+		assertEquals(0, product.searchTasks("trolley").size());
+		assertEquals(2, product.getTasksByState(Task.BACKLOG_NAME).size());
+		product.markClean();
+		
+		product.getTaskById(1).addNoteToList("Or a trolley");
+		assertTrue(product.isDirty());
+		assertEquals(1, product.searchTasks("trolley").size());
+		product.getTasks().get(1).appendToNote(0, " or a cart");
+		assertEquals(2, product.searchTasks("cart").get(0).getTaskId());
+		product.getTaskById(2).update(new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the trolley"));
+		assertEquals(2, product.getTasksByOwner(CLAIMED_OWNER).get(0).getTaskId());
+		assertEquals(1, product.getTasksByState(Task.BACKLOG_NAME).size());
+		assertEquals(2, product.searchTasks("trolley").size());
+		
+		//A deleted task no longer changes the product
+		Task deleted = product.getTaskById(1);
+		product.deleteTaskById(1);
+		product.markClean();
+		deleted.addNoteToList("Deleted trolley");
+		assertFalse(product.isDirty());
+		assertEquals(1, product.searchTasks("trolley").size());
+		assertEquals(0, product.searchTasks("shopping").size());
+	}
+	
+	/**
+	 * Tests that a command that changes a task and then throws leaves the task, the indexes and the dirty flag as they were,
+	 * both when the store keeps the task itself and when it keeps a copy.
+	 */
+	@Test
+	public void testExecuteCommandThatFails() {
+		Product[] products = {new Product(PRODUCT_NAME), new Product(PRODUCT_NAME, new ColumnarTaskStore())};
+		for (int i = 0; i < products.length; i++) {
+			Product product = products[i];
+			product.addTask(TITLE, TYPE, CREATOR, NOTE);
+			assertEquals(1, product.getTasksByState(Task.BACKLOG_NAME).size());
+			assertEquals(1, product.searchTasks("basket").size());
+			product.markClean();
+			int modCount = product.getModCount();
+			Task held = product.getTaskById(1);
+			
+			//Claiming moves the task to Owned before the owner is found to be invalid
+			assertThrows(IllegalArgumentException.class,
+					() -> product.executeCommand(1, new Command(COMMAND_VALUE_CLAIM, Task.UNOWNED, "Claiming the wagon")));
+			assertEquals(Task.BACKLOG_NAME, held.getStateName());
+			Task task = product.getTaskById(1);
+			assertEquals(Task.BACKLOG_NAME, task.getStateName());
+			assertEquals(Task.UNOWNED, task.getOwner());
+			assertEquals(1, task.getNoteCount());
+			assertEquals(1, product.getTasksByState(Task.BACKLOG_NAME).size());
+			assertEquals(0, product.getTasksByState(Task.OWNED_NAME).size());
+			assertEquals(0, product.searchTasks("wagon").size());
+			assertFalse(product.isDirty());
+			assertEquals(modCount, product.getModCount());
+			
+			//The task can still be changed afterwards
+			product.executeCommand(1, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the task"));
+			assertEquals(Task.OWNED_NAME, product.getTaskById(1).getStateName());
+			assertEquals(1, product.getTasksByOwner(CLAIMED_OWNER).size());
+			assertTrue(product.isDirty());
+		}
+	}
+	
+	/**
+	 * Tests the snapshot method to see if the copy does not change when the product does.
+	 */
+	@Test
+	public void testSnapshot() {
+		Product product = new Product(PRODUCT_NAME);
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		int modCount = product.getModCount();
+		Product copy = product.snapshot();
+		assertEquals(PRODUCT_NAME, copy.getProductName());
+		assertEquals(product.getTaskById(1).toString(), copy.getTaskById(1).toString());
+		assertTrue(copy.isDirty());
+		
+		//Changing the product does not change the copy
+		product.executeCommand(1, new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the task"));
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		assertEquals(modCount + 2, product.getModCount());
+		assertEquals("Backlog", copy.getTaskById(1).getStateName());
+		assertEquals(1, copy.getTasks().size());
+		assertEquals(2, copy.addTask(TITLE, TYPE, CREATOR, NOTE));
+	}
+	
+	/**
+	 * Tests the share method to see if the products use the same tasks until one of them changes,
+	 * and then only the products that did not change are given a copy.
+	 */
+	@Test
+	public void testShare() {
+		Product product = new Product(PRODUCT_NAME);
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		product.addTask(TITLE, TYPE, CREATOR, NOTE);
+		Product first = product.share();
+		Product second = product.share();
+		assertEquals(PRODUCT_NAME, first.getProductName());
+		assertSame(product.getTaskById(1), first.getTaskById(1));
+		assertSame(product.getTaskById(1), second.getTaskById(1));
+		
+		//A task changed directly stays with the product it was looked up in
+		Task task = first.getTaskById(1);
+		task.update(new Command(COMMAND_VALUE_CLAIM, CLAIMED_OWNER, "Claiming the task"));
+		assertSame(task, first.getTaskById(1));
+		assertEquals(CLAIMED_OWNER, first.getTaskById(1).getOwner());
+		assertEquals(1, first.getTasksByOwner(CLAIMED_OWNER).size());
+		assertEquals("Backlog", product.getTaskById(1).getStateName());
+		assertEquals("Backlog", second.getTaskById(1).getStateName());
+		
+		//The products that did not change still share the copy with each other
+		assertSame(product.getTaskById(2), second.getTaskById(2));
+		second.deleteTaskById(2);
+		assertNull(second.getTaskById(2));
+		assertNotNull(product.getTaskById(2));
+		assertEquals(3, second.addTask(TITLE, TYPE, CREATOR, NOTE));
+		assertEquals(2, product.getTasks().size());
+		assertEquals(2, first.getTasks().size());
+		assertNull(first.getTaskById(3));
+	}
 
 }
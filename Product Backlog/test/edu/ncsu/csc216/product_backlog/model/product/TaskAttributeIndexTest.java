@@ -0,0 +1,50 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.command.Command;
+import edu.ncsu.csc216.product_backlog.model.command.Command.CommandValue;
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the TaskAttributeIndex class.
+ * @author Daniel Avisse
+ *
+ */
+class TaskAttributeIndexTest {
+
+	/**
+	 * Tests that tasks are indexed by each value, moved by update and removed, and that values without tasks give empty arrays.
+	 */
+	@Test
+	public void testTaskAttributeIndex() {
+		TaskAttributeIndex index = new TaskAttributeIndex();
+		Task task1 = new Task(1, "title", Type.BUG, "creator", "note");
+		Task task2 = new Task(2, "title", Type.FEATURE, "creator", "note");
+		index.add(task2);
+		index.add(task1);
+		assertArrayEquals(new int[] {1, 2}, index.getByState(Task.BACKLOG_NAME));
+		assertArrayEquals(new int[] {1, 2}, index.getByCreator("creator"));
+		assertArrayEquals(new int[] {2}, index.getByType(Type.FEATURE));
+		assertEquals(0, index.getByType(Type.TECHNICAL_WORK).length);
+
+		task1.update(new Command(CommandValue.CLAIM, "owner", "note"));
+		index.update(task1, Task.BACKLOG_NAME, "unowned");
+		assertArrayEquals(new int[] {2}, index.getByState(Task.BACKLOG_NAME));
+		assertArrayEquals(new int[] {1}, index.getByState(Task.OWNED_NAME));
+		assertArrayEquals(new int[] {1}, index.getByOwner("owner"));
+		assertArrayEquals(new int[] {2}, index.getByOwner("unowned"));
+		assertArrayEquals(new int[] {1}, index.getByStateAndOwner(Task.OWNED_NAME, "owner"));
+		assertEquals(0, index.getByStateAndOwner(Task.BACKLOG_NAME, "owner").length);
+		assertEquals(0, index.getByStateAndOwner(Task.DONE_NAME, "owner").length);
+
+		index.remove(task1);
+		index.remove(task2);
+		assertEquals(0, index.getByCreator("creator").length);
+		assertEquals(0, index.getByType(Type.BUG).length);
+		assertEquals(0, index.getByOwner("owner").length);
+	}
+}
@@ -0,0 +1,70 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the TaskIndex class.
+ * @author Daniel Avisse
+ *
+ */
+class TaskIndexTest {
+
+	/**
+	 * Tests that tasks are found by their ids after the index grows and that a task with the same id replaces the old one.
+	 */
+	@Test
+	public void testPutAndGet() {
+		TaskIndex index = new TaskIndex();
+		for (int i = 1; i <= 1000; i++) {
+			index.put(new Task(i, "title" + i, Type.BUG, "creator", "note"));
+		}
+		assertEquals(1000, index.size());
+		for (int i = 1; i <= 1000; i++) {
+			assertEquals("title" + i, index.get(i).getTitle());
+		}
+		assertNull(index.get(1001));
+
+		Task replacement = new Task(500, "replacement", Type.FEATURE, "creator", "note");
+		index.put(replacement);
+		assertEquals(1000, index.size());
+		assertSame(replacement, index.get(500));
+	}
+
+	/**
+	 * Tests that removing tasks in a random order leaves every other task findable.
+	 */
+	@Test
+	public void testRemove() {
+		TaskIndex index = new TaskIndex(10);
+		int count = 2000;
+		for (int i = 1; i <= count; i++) {
+			index.put(new Task(i * 16, "title", Type.BUG, "creator", "note"));
+		}
+		boolean[] removed = new boolean[count + 1];
+		Random random = new Random(42);
+		for (int n = 0; n < count / 2; n++) {
+			int i = random.nextInt(count) + 1;
+			index.remove(i * 16);
+			removed[i] = true;
+		}
+		index.remove(7);
+		int left = 0;
+		for (int i = 1; i <= count; i++) {
+			if (removed[i]) {
+				assertNull(index.get(i * 16));
+			}
+			else {
+				assertEquals(i * 16, index.get(i * 16).getTaskId());
+				left++;
+			}
+		}
+		assertEquals(left, index.size());
+	}
+}
@@ -0,0 +1,85 @@
+package edu.ncsu.csc216.product_backlog.model.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.product_backlog.model.task.Task;
+import edu.ncsu.csc216.product_backlog.model.task.Task.Type;
+
+/**
+ * Tests the TextIndex class.
+ * @author Daniel Avisse
+ *
+ */
+class TextIndexTest {
+	
+	/**
+	 * Tests that text is split into lower case words and that the state prefix of a note is left out.
+	 */
+	@Test
+	public void testTokenize() {
+		assertEquals(Arrays.asList("express", "carts", "choose", "line", "0"), TextIndex.tokenize("[Backlog] Express carts choose line (0)."));
+		assertEquals(Arrays.asList("backlog", "notes"), TextIndex.tokenize("Backlog notes"));
+		assertTrue(TextIndex.tokenize("  ... ").isEmpty());
+	}
+	
+	/**
+	 * Tests that the ids of the tasks with every word are found, in order, after tasks and notes are added and removed.
+	 */
+	@Test
+	public void testSearch() {
+		TextIndex index = new TextIndex();
+		Task task1 = new Task(1, "Express Carts", Type.FEATURE, "creator", "Express carts choose the shortest line.");
+		Task task2 = new Task(2, "Regular Carts", Type.FEATURE, "creator", "Regular carts choose the shortest line.");
+		Task task3 = new Task(3, "Java Swing", Type.KNOWLEDGE_ACQUISITION, "creator", "Learn more about Swing.");
+		index.add(task3);
+		index.add(task1);
+		index.add(task2);
+		assertArrayEquals(new int[] {1, 2}, index.search(TextIndex.tokenize("CARTS shortest")));
+		assertArrayEquals(new int[] {1}, index.search(TextIndex.tokenize("express line")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("swing carts")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("wagon")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("backlog")));
+		
+		//A note added later is found
+		index.addNote(task3, "[Owned] Swing carts tutorial");
+		assertArrayEquals(new int[] {3}, index.search(TextIndex.tokenize("swing carts")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("owned")));
+		
+		//Removed tasks are no longer found
+		index.remove(task1);
+		assertArrayEquals(new int[] {2, 3}, index.search(TextIndex.tokenize("carts")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("express")));
+	}
+	
+	/**
+	 * Tests that changing the text of a note removes the task from the words that are no longer in it, unless another note or the title has them.
+	 */
+	@Test
+	public void testChangeNote() {
+		TextIndex index = new TextIndex();
+		Task task = new Task(1, "Express Carts", Type.FEATURE, "creator", "Learn the shortest line");
+		task.addNoteToList("[Owned] shortest");
+		index.add(task);
+		String oldNote = task.getNote(0);
+		task.appendToNote(0, "s first");
+		index.changeNote(task, 0, oldNote);
+		assertArrayEquals(new int[] {1}, index.search(TextIndex.tokenize("learn lines first")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("line")));
+		
+		//A word that is still in another note keeps the task
+		oldNote = task.getNote(1);
+		task.appendToNote(1, " path");
+		index.changeNote(task, 1, oldNote);
+		assertArrayEquals(new int[] {1}, index.search(TextIndex.tokenize("shortest path")));
+		
+		//No word of the task is left in the index once it is removed
+		index.remove(task);
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("lines")));
+		assertArrayEquals(new int[0], index.search(TextIndex.tokenize("shortest")));
+	}
+}
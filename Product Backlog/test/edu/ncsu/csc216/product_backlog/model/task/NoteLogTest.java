@@ -0,0 +1,121 @@
+package edu.ncsu.csc216.product_backlog.model.task;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the NoteLog class.
+ * @author Daniel Avisse
+ *
+ */
+class NoteLogTest {
+	
+	/**
+	 * Tests that notes with and without state prefixes are given back exactly as they were added.
+	 */
+	@Test
+	public void testAddAndGet() {
+		NoteLog log = new NoteLog();
+		assertEquals(0, log.add("[Backlog] first note"));
+		assertEquals(1, log.add(Task.OWNED_NAME, "second note"));
+		assertEquals(2, log.add("[Not a state] third note"));
+		assertEquals(3, log.add("no prefix"));
+		assertEquals(4, log.add("[Done] caf\u00e9 \u2713"));
+		assertEquals(5, log.add("New", "unknown state"));
+		assertEquals(6, log.size());
+		assertEquals(Arrays.asList("[Backlog] first note", "[Owned] second note", "[Not a state] third note", "no prefix",
+				"[Done] caf\u00e9 \u2713", "[New] unknown state"), log.toList());
+		assertThrows(IndexOutOfBoundsException.class, () -> log.get(6));
+		
+		StringBuilder out = new StringBuilder();
+		assertDoesNotThrow(() -> log.appendTo(out, "\n- "));
+		assertTrue(out.toString().startsWith("\n- [Backlog] first note\n- [Owned] second note"));
+	}
+	
+	/**
+	 * Tests that text is added to the end of a note without changing the notes around it, and that notes at the end can be removed.
+	 */
+	@Test
+	public void testAppend() {
+		NoteLog log = new NoteLog();
+		for (int i = 0; i < 100; i++) {
+			log.add("[Processing] note " + i);
+		}
+		log.append(50, "\nmore of the note");
+		log.append(99, "\nend");
+		assertEquals("[Processing] note 49", log.get(49));
+		assertEquals("[Processing] note 50\nmore of the note", log.get(50));
+		assertEquals("[Processing] note 51", log.get(51));
+		assertEquals("[Processing] note 99\nend", log.get(99));
+		assertThrows(IndexOutOfBoundsException.class, () -> log.append(100, "text"));
+		
+		//Truncating keeps the first notes and the next note is added after them
+		log.truncate(51);
+		assertEquals(51, log.size());
+		assertEquals(51, log.add("[Done] after truncate"));
+		assertEquals("[Processing] note 50\nmore of the note", log.get(50));
+		assertEquals("[Done] after truncate", log.get(51));
+	}
+	
+	/**
+	 * Tests that a copy shares nothing that changes, whether the log or the copy is changed first, or both are changed.
+	 */
+	@Test
+	public void testCopy() {
+		NoteLog log = new NoteLog();
+		log.add("[Backlog] first");
+		log.add("[Owned] second");
+		NoteLog copy = log.copy();
+		log.add("[Processing] third");
+		log.append(0, " more");
+		assertEquals(2, copy.size());
+		assertEquals("[Backlog] first", copy.get(0));
+		
+		copy.add("[Rejected] copied");
+		copy.append(1, " changed");
+		assertEquals(3, log.size());
+		assertEquals("[Backlog] first more", log.get(0));
+		assertEquals("[Owned] second", log.get(1));
+		assertEquals("[Processing] third", log.get(2));
+		assertEquals("[Owned] second changed", copy.get(1));
+		assertEquals("[Rejected] copied", copy.get(2));
+		
+		//A copy of a copy is also separate from both
+		NoteLog second = copy.copy();
+		copy.truncate(1);
+		copy.add("[Done] done");
+		assertEquals("[Rejected] copied", second.get(2));
+		assertEquals("[Done] done", copy.get(1));
+	}
+	
+	/**
+	 * Tests that appendTo writes the same text as the notes when a note is longer than the buffer it is decoded through,
+	 * has characters that take more than one byte, or is written to a Writer.
+	 */
+	@Test
+	public void testAppendToLongNotes() {
+		NoteLog log = new NoteLog();
+		StringBuilder longNote = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			longNote.append("caf\u00e9 \u2713 ");
+		}
+		log.add("[Verifying] " + longNote);
+		log.add("no state " + longNote);
+		log.add("[Done] ");
+		
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < log.size(); i++) {
+			expected.append("\n- ").append(log.get(i));
+		}
+		StringBuilder out = new StringBuilder();
+		StringWriter writer = new StringWriter();
+		assertDoesNotThrow(() -> log.appendTo(out, "\n- "));
+		assertDoesNotThrow(() -> log.appendTo(writer, "\n- "));
+		assertEquals(expected.toString(), out.toString());
+		assertEquals(expected.toString(), writer.toString());
+	}
+}
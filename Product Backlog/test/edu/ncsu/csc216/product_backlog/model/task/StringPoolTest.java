@@ -0,0 +1,83 @@
+package edu.ncsu.csc216.product_backlog.model.task;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the StringPool class.
+ * @author Daniel Avisse
+ *
+ */
+class StringPoolTest {
+	
+	/**
+	 * Tests that equal names share one String, that the pool stops growing once it is full, and that the counts are kept.
+	 */
+	@Test
+	public void testIntern() {
+		StringPool pool = new StringPool(2);
+		String first = pool.intern(new String("sesmith5"));
+		assertSame(first, pool.intern(new String("sesmith5")));
+		assertSame(first, pool.intern(first));
+		assertNull(pool.intern(null));
+		String other = pool.intern(new String("jep"));
+		assertSame(other, pool.intern(new String("jep")));
+		assertEquals(2, pool.size());
+		
+		//A full pool gives back names that are not in it
+		String extra = new String("jctetter");
+		assertSame(extra, pool.intern(extra));
+		assertEquals(2, pool.size());
+		
+		assertEquals(6, pool.getLookups());
+		assertEquals(3, pool.getHits());
+		assertEquals(0.5, pool.getHitRate(), 0.0001);
+		assertEquals(40 + "sesmith5".length() + 40 + "jep".length(), pool.getBytesSaved());
+		
+		pool.clear();
+		assertEquals(0, pool.size());
+		assertEquals(0, pool.getLookups());
+		assertEquals(0, pool.getHitRate(), 0.0001);
+		assertThrows(IllegalArgumentException.class, () -> new StringPool(-1));
+	}
+	
+	/**
+	 * Tests that threads interning the same names at the same time all get the same String for each name.
+	 * @throws Exception if a thread fails
+	 */
+	@Test
+	public void testConcurrentIntern() throws Exception {
+		StringPool pool = new StringPool(100);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<String[]>> results = new ArrayList<Future<String[]>>();
+		for (int t = 0; t < 4; t++) {
+			results.add(executor.submit(() -> {
+				String[] interned = new String[50];
+				for (int n = 0; n < 100; n++) {
+					for (int i = 0; i < interned.length; i++) {
+						interned[i] = pool.intern(new String("owner" + i));
+					}
+				}
+				return interned;
+			}));
+		}
+		String[] expected = results.get(0).get();
+		for (int t = 1; t < results.size(); t++) {
+			String[] interned = results.get(t).get();
+			for (int i = 0; i < interned.length; i++) {
+				assertSame(expected[i], interned[i]);
+			}
+		}
+		executor.shutdown();
+		assertEquals(50, pool.size());
+		assertEquals(20000, pool.getLookups());
+		assertEquals(20000 - 50, pool.getHits());
+	}
+}
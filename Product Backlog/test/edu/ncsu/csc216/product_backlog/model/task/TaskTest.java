@@ -534,4 +534,140 @@ class TaskTest {
 		assertEquals("Invalid transition.", e1.getMessage());
 		
 	}
+	
+	/**
+	 * Tests the appendTo method to see if it writes the same text as toString, including for a task with many notes.
+	 */
+	@Test
+	public void testAppendTo() {
+		Task task = new Task(TASKID, TITLE, TYPE, CREATOR, NOTE);
+		for (int i = 0; i < 10000; i++) {
+			task.addNoteToList("note " + i);
+		}
+		StringBuilder out = new StringBuilder();
+		assertDoesNotThrow(() -> task.appendTo(out));
+		assertEquals(task.toString(), out.toString());
+		assertTrue(out.toString().startsWith("1,Backlog," + TITLE + ",F," + CREATOR + "," + OWNER + ",false\n- [Backlog] " + NOTE));
+		assertTrue(out.toString().endsWith("\n- [Backlog] note 9999"));
+		assertEquals(10001, task.getNotesList().split("\n- ").length - 1);
+	}
+	
+	/**
+	 * Tests the validate method to see if it finds the same invalid fields as the constructor without throwing.
+	 */
+	@Test
+	public void testValidate() {
+		assertNull(Task.validate(TASKID, BACKLOG_STATE, TITLE, TYPE_STRING, CREATOR, OWNER, ISVERIFIED));
+		assertNull(Task.validate(TASKID, "Done", TITLE, "KA", CREATOR, CLAIMED_OWNER, "FALSE"));
+		assertEquals("Invalid task id.", Task.validate(0, BACKLOG_STATE, TITLE, TYPE_STRING, CREATOR, OWNER, ISVERIFIED));
+		assertEquals("Invalid task state.", Task.validate(TASKID, "New", TITLE, TYPE_STRING, CREATOR, OWNER, ISVERIFIED));
+		assertEquals("Invalid task title.", Task.validate(TASKID, BACKLOG_STATE, "", TYPE_STRING, CREATOR, OWNER, ISVERIFIED));
+		assertEquals("Invalid task type.", Task.validate(TASKID, BACKLOG_STATE, TITLE, "X", CREATOR, OWNER, ISVERIFIED));
+		assertEquals("Invalid task creator.", Task.validate(TASKID, BACKLOG_STATE, TITLE, TYPE_STRING, "", OWNER, ISVERIFIED));
+		assertEquals("Invalid task owner.", Task.validate(TASKID, BACKLOG_STATE, TITLE, TYPE_STRING, CREATOR, CLAIMED_OWNER, ISVERIFIED));
+		assertEquals("Invalid task owner.", Task.validate(TASKID, "Owned", TITLE, TYPE_STRING, CREATOR, OWNER, ISVERIFIED));
+		assertEquals("Invalid task verified value.", Task.validate(TASKID, "Done", TITLE, TYPE_STRING, CREATOR, CLAIMED_OWNER, ISVERIFIED));
+		assertEquals("Invalid task verified value.", Task.validate(TASKID, BACKLOG_STATE, TITLE, TYPE_STRING, CREATOR, OWNER, "maybe"));
+		
+		//Fields that pass the check can be used to create a task
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add(NOTE);
+		assertDoesNotThrow(() -> new Task(TASKID, "Done", TITLE, "KA", CREATOR, CLAIMED_OWNER, "FALSE", notes));
+		assertThrows(IllegalArgumentException.class, () -> new Task(TASKID, "Done", TITLE, TYPE_STRING, CREATOR, CLAIMED_OWNER, ISVERIFIED, notes));
+	}
+	
+	/**
+	 * Tests that tasks in the same state move through their states on their own, since the states are shared by every task.
+	 */
+	@Test
+	public void testSharedStates() {
+		Task bug = new Task(1, TITLE, Type.BUG, CREATOR, NOTE);
+		Task research = new Task(2, TITLE, Type.KNOWLEDGE_ACQUISITION, CREATOR, NOTE);
+		bug.update(new Command(CommandValue.CLAIM, CLAIMED_OWNER, "Claimed"));
+		assertEquals("Owned", bug.getStateName());
+		assertEquals("Backlog", research.getStateName());
+		assertEquals(OWNER, research.getOwner());
+		
+		research.update(new Command(CommandValue.CLAIM, "Other", "Claimed"));
+		bug.update(new Command(CommandValue.PROCESS, null, "Processing"));
+		research.update(new Command(CommandValue.PROCESS, null, "Processing"));
+		assertThrows(UnsupportedOperationException.class, () -> research.update(new Command(CommandValue.VERIFY, null, "Verifying")));
+		bug.update(new Command(CommandValue.VERIFY, null, "Verifying"));
+		research.update(new Command(CommandValue.COMPLETE, null, "Done"));
+		assertEquals("Verifying", bug.getStateName());
+		assertFalse(bug.isVerified());
+		assertEquals("Done", research.getStateName());
+		assertFalse(research.isVerified());
+		assertEquals(CLAIMED_OWNER, bug.getOwner());
+		assertEquals("Other", research.getOwner());
+		assertEquals("[Verifying] Verifying", bug.getNotes().get(3));
+	}
+	
+	/**
+	 * Tests that notes are read one at a time and added to, and that the ArrayList from getNotes is a copy.
+	 */
+	@Test
+	public void testNoteAccess() {
+		Task task = new Task(TASKID, TITLE, TYPE, CREATOR, NOTE);
+		task.update(new Command(CommandValue.CLAIM, CLAIMED_OWNER, "Claimed"));
+		assertEquals(2, task.getNoteCount());
+		assertEquals("[Owned] Claimed", task.getNote(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> task.getNote(2));
+		
+		task.getNotes().clear();
+		assertEquals(2, task.getNoteCount());
+		task.appendToNote(0, "\nmore");
+		assertEquals("[Backlog] " + NOTE + "\nmore", task.getNotesArray()[0]);
+		assertEquals("\n- [Backlog] " + NOTE + "\nmore\n- [Owned] Claimed", task.getNotesList());
+	}
+	
+	/**
+	 * Tests that a command that fails after the state has changed leaves the same task as it was.
+	 */
+	@Test
+	public void testUpdateThatFails() {
+		Task task = new Task(TASKID, TITLE, TYPE, CREATOR, NOTE);
+		assertThrows(IllegalArgumentException.class, () -> task.update(new Command(CommandValue.CLAIM, Task.UNOWNED, "Claimed")));
+		assertEquals(Task.BACKLOG_NAME, task.getStateName());
+		assertEquals(Task.UNOWNED, task.getOwner());
+		assertEquals(1, task.getNoteCount());
+		
+		task.update(new Command(CommandValue.CLAIM, CLAIMED_OWNER, "Claimed"));
+		assertEquals(Task.OWNED_NAME, task.getStateName());
+		assertEquals("[Owned] Claimed", task.getNote(1));
+	}
+	
+	/**
+	 * Tests creating a task from all the fields without any notes.
+	 */
+	@Test
+	public void testCreateWithoutNotes() {
+		Task task = Task.createWithoutNotes(TASKID, Task.DONE_NAME, TITLE, Task.T_BUG, CREATOR, CLAIMED_OWNER, "true");
+		assertEquals(TASKID, task.getTaskId());
+		assertEquals(Task.DONE_NAME, task.getStateName());
+		assertEquals(Task.BUG_NAME, task.getTypeLongName());
+		assertEquals(CLAIMED_OWNER, task.getOwner());
+		assertTrue(task.isVerified());
+		assertEquals(0, task.getNoteCount());
+		assertEquals(0, task.addNoteToList("[Done] Done"));
+		assertEquals("[Done] Done", task.getNote(0));
+		
+		assertThrows(IllegalArgumentException.class, () -> Task.createWithoutNotes(TASKID, "Waiting", TITLE, Task.T_BUG, CREATOR, CLAIMED_OWNER, "true"));
+		assertThrows(IllegalArgumentException.class, () -> Task.createWithoutNotes(TASKID, Task.DONE_NAME, "", Task.T_BUG, CREATOR, CLAIMED_OWNER, "true"));
+	}
+	
+	/**
+	 * Tests that tasks and commands with equal owners and creators share one String for each name.
+	 */
+	@Test
+	public void testSharedNames() {
+		Task task1 = new Task(1, TITLE, TYPE, new String(CREATOR), NOTE);
+		Task task2 = new Task(2, TITLE, TYPE, new String(CREATOR), NOTE);
+		assertSame(task1.getCreator(), task2.getCreator());
+		Command command = new Command(CommandValue.CLAIM, new String(CLAIMED_OWNER), "Claimed");
+		task1.update(command);
+		task2.update(new Command(CommandValue.CLAIM, new String(CLAIMED_OWNER), "Claimed"));
+		assertSame(command.getOwner(), task1.getOwner());
+		assertSame(task1.getOwner(), task2.getOwner());
+	}
 }